@@ -43,6 +43,33 @@ public @interface EventRule {
      */
     String rule() default "*";
 
+    /**
+     * 处理器在处理器链中的位置，值越小越靠前.
+     *
+     * <p>同一事件匹配多个处理器时，按此值升序依次执行.
+     *
+     * @return 处理器在处理器链中的位置
+     */
+    int order() default 0;
+
+    /**
+     * 处理器所在的 Disruptor 实例名，为空时使用默认实例.
+     *
+     * @return Disruptor 实例名
+     * @see com.aeolus.disruptor.context.config.DisruptorInstanceDefinition
+     */
+    String instance() default "";
+
+    /**
+     * 处理器是否无状态或线程安全，可以由工作池中的多个工作者竞争处理.
+     *
+     * <p>声明为 {@code true} 且没有声明{@link EventStage}时，处理器放在名为 {@code worker-pool} 的工作池阶段，
+     * 与其它处理器并行消费同一 RingBuffer，不保证同一 key 的处理顺序.
+     *
+     * @return 是否工作池模式
+     */
+    boolean workerPool() default false;
+
     /**
      * 设置{@link Component#value()}的值.
      *
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 声明处理器所在的处理阶段.
+ *
+ * <p>与{@link EventRule}一起声明在处理器类上，同名阶段的处理器由同一组消费者线程处理，
+ * 多个处理器声明的 {@link #after()} 取并集. 也可以在 {@code spring.disruptor.topology} 中声明.
+ *
+ * <pre>
+ * &#64;EventRule(rule = "/Event-DC-Output/**")
+ * &#64;EventStage(value = "notify", after = {"persist", "audit"})
+ * public class SmsPostHandler implements DisruptorHandler&lt;DisruptorDataEvent&gt; {
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.config.StageDefinition
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventStage {
+
+    /**
+     * 阶段名.
+     *
+     * @return 阶段名
+     */
+    String value();
+
+    /**
+     * 所依赖的阶段名，这些阶段处理完同一事件后本阶段才处理.
+     *
+     * @return 所依赖的阶段名
+     */
+    String[] after() default {};
+
+    /**
+     * 本阶段的分区消费者数量（工作池模式下为工作者数量），小于等于0时与所在 Disruptor 实例相同.
+     *
+     * @return 分区消费者数量
+     */
+    int partitions() default 0;
+
+    /**
+     * 是否工作池模式，多个工作者竞争消费，不保证同一 key 的处理顺序.
+     *
+     * @return 是否工作池模式
+     */
+    boolean workerPool() default false;
+}
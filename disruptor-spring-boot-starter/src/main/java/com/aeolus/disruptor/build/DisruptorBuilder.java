@@ -46,12 +46,62 @@ public class DisruptorBuilder<T> implements Builder {
         this.waitStrategy = waitStrategy;
     }
 
+    public DisruptorBuilder<T> setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+        return this;
+    }
+
+    public DisruptorBuilder<T> setProducerType(ProducerType producerType) {
+        this.producerType = producerType;
+        return this;
+    }
+
+    public DisruptorBuilder<T> setThreadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    public DisruptorBuilder<T> setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
     public Disruptor<T> build(EventFactory eventFactory, WorkHandler<T>[] workHandlers) {
 
         return build(this.ringBufferSize, this.threadFactory, eventFactory,
                 this.producerType, waitStrategy, workHandlers);
     }
 
+    /**
+     * 创建未注册处理类的 Disruptor，由调用方构建消费者依赖图.
+     *
+     * @param eventFactory 事件工厂
+     * @return Disruptor
+     */
+    public Disruptor<T> build(EventFactory<T> eventFactory) {
+
+        return new Disruptor<T>(
+                eventFactory,
+                this.ringBufferSize, this.threadFactory,
+                this.producerType, this.waitStrategy);
+    }
+
+    /**
+     * 创建 Disruptor，每个处理类由各自的{@link BatchEventProcessor}并行处理全部事件.
+     *
+     * @param eventFactory  事件工厂
+     * @param eventHandlers 处理类实例
+     * @return Disruptor
+     */
+    public Disruptor<T> build(EventFactory<T> eventFactory, EventHandler<? super T>[] eventHandlers) {
+
+        Disruptor<T> disruptor = build(eventFactory);
+
+        disruptor.handleEventsWith(eventHandlers);
+
+        return disruptor;
+    }
+
 
     /**
      * 创建单生产者的 Disruptor.
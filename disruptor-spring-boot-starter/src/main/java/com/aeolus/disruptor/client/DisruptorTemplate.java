@@ -16,19 +16,65 @@
 
 package com.aeolus.disruptor.client;
 
+import com.aeolus.disruptor.context.config.BackpressurePolicy;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.aeolus.disruptor.context.support.Backpressure;
+import com.aeolus.disruptor.context.support.DisruptorInstance;
+import com.aeolus.disruptor.context.support.DisruptorInstanceRegistry;
 import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
 import com.lmax.disruptor.dsl.Disruptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
 /**
+ * 事件发布模板类.
+ *
+ * <p>事件按 {@code spring.disruptor.instances} 中各实例的路由规则发布到对应的 Disruptor 实例，
+ * 没有匹配的规则时发布到默认实例，也可以显式指定实例名.
+ *
+ * <p>单生产者模式下只能由同一个线程发布事件，检测到其它线程发布时记录一次警告，
+ * 此时应将 {@code producer-type} 设置为 {@code multi}. 发布时不会绑定发布线程的CPU，
+ * 专用的发布线程可以显式调用{@link DisruptorInstance#pinProducerThread()}.
+ *
+ * <p>RingBuffer 已满时按实例的 {@code backpressure} 配置处理，默认等待直到有空闲槽位，
+ * 也可以通过{@link #tryPublishEvent}、{@link #publishEvent(DisruptorDataEvent, long, TimeUnit)}显式指定.
  *
+ * <p>{@link #publishEvents(DisruptorDataEvent[])}批量发布，路由到同一实例的连续事件一次申请一段序号并一次性发布.
+ *
+ * <p>long、double、int 数值通过{@link #publishEvent(String, String, String, long)}等重载发布，数值写入
+ * {@link NumericDataEvent}槽位的基本类型字段，不装箱，也不创建数据事件. 处理器可以实现
+ * {@link com.aeolus.disruptor.context.handler.LongDisruptorHandler}等接口直接读取数值.
+ *
+ * <p>{@link #publishEvent(String, String, String, Object)}和
+ * {@link #publishEvent(String, String, String, EventTranslatorOneArg, Object)}不需要创建数据事件：
+ * 申请槽位后由 event、tag、key 事件转换类直接写入槽位，再由调用方的事件转换类填充其余字段后发布.
+ * 事件转换类不捕获变量时可以作为常量复用，发布不创建对象. RingBuffer 已满或溢出文件中有事件时，
+ * 事件写入当前线程复用的数据事件后按背压策略发布，此时事件转换类收到的序号为 {@code -1}.
  *
  * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
  */
 public class DisruptorTemplate {
 
+    /** 从迭代器批量发布时每批的事件数量 */
+    public static final int ITERATOR_BATCH_SIZE = 256;
+
+    /** 写入 data 的事件转换类 */
+    private static final EventTranslatorOneArg<DisruptorDataEvent, Object> DATA_TRANSLATOR =
+            (slot, sequence, data) -> slot.setData(data);
+
+    /** 发布线程复用的数值事件，发布时复制到槽位 */
+    private static final ThreadLocal<NumericDataEvent> NUMERIC_EVENTS =
+            ThreadLocal.withInitial(() -> new NumericDataEvent(DisruptorTemplate.class));
+
     @Autowired
     @Qualifier("disruptorProducer")
     protected Disruptor<DisruptorDataEvent> disruptor;
@@ -36,8 +82,296 @@ public class DisruptorTemplate {
     @Autowired
     protected EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> oneArgEventTranslator;
 
-    public void publishEvent(DisruptorDataEvent event) {
-        disruptor.publishEvent(oneArgEventTranslator, event);
+    @Autowired
+    protected EventTranslatorTwoArg<DisruptorDataEvent, String, String> twoArgEventTranslator;
+
+    @Autowired
+    protected EventTranslatorThreeArg<DisruptorDataEvent, String, String, String> threeArgEventTranslator;
+
+    @Autowired
+    protected DisruptorInstanceRegistry disruptorInstanceRegistry;
+
+    /**
+     * 按路由规则选择实例并发布事件.
+     *
+     * @param event 数据事件
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(DisruptorDataEvent event) {
+        return publishEvent(disruptorInstanceRegistry.route(event), event, null, 0L);
+    }
+
+    /**
+     * 发布事件到指定实例.
+     *
+     * @param instance 实例名
+     * @param event 数据事件
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(String instance, DisruptorDataEvent event) {
+        return publishEvent(disruptorInstanceRegistry.get(instance), event, null, 0L);
+    }
+
+    /**
+     * 按路由规则选择实例，将 event、tag、key 和 data 直接写入槽位并发布.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param data 数据对象
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(String event, String tag, String key, Object data) {
+        return publishEvent(event, tag, key, DATA_TRANSLATOR, data);
+    }
+
+    /**
+     * 按路由规则选择实例，申请槽位并写入 event、tag、key，由事件转换类填充其余字段后发布.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param translator 填充 data 等其余字段，槽位中上一个事件的 data 和数值已清空
+     * @param arg 事件转换类的参数
+     * @param <A> 参数类型
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public <A> boolean publishEvent(String event, String tag, String key,
+                                    EventTranslatorOneArg<DisruptorDataEvent, A> translator, A arg) {
+        return publishEvent(disruptorInstanceRegistry.route(event, tag, key), event, tag, key, true, translator, arg);
+    }
+
+    /**
+     * 按路由规则选择实例，申请槽位并写入 event、tag，由事件转换类填充其余字段后发布. 事件没有 key，按事件名分区.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param translator 填充 data 等其余字段，槽位中上一个事件的 data 和数值已清空
+     * @param arg 事件转换类的参数
+     * @param <A> 参数类型
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public <A> boolean publishEvent(String event, String tag,
+                                    EventTranslatorOneArg<DisruptorDataEvent, A> translator, A arg) {
+        return publishEvent(disruptorInstanceRegistry.route(event, tag, null), event, tag, null, false, translator, arg);
+    }
+
+    /**
+     * 申请槽位后直接写入，RingBuffer 已满或溢出文件中有事件时通过当前线程复用的数据事件按背压策略发布.
+     *
+     * @param instance 实例
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param keyed 是否通过 event、tag、key 事件转换类写入，否则通过 event、tag 事件转换类写入
+     * @param translator 填充其余字段
+     * @param arg 事件转换类的参数
+     * @return 事件是否已发布
+     */
+    protected <A> boolean publishEvent(DisruptorInstance instance, String event, String tag, String key, boolean keyed,
+                                       EventTranslatorOneArg<DisruptorDataEvent, A> translator, A arg) {
+        instance.checkProducerThread();
+        RingBuffer<DisruptorDataEvent> ringBuffer = instance.getRingBuffer();
+        Backpressure backpressure = instance.getBackpressure();
+        if (!backpressure.isSpilling()) {
+            long sequence;
+            try {
+                sequence = ringBuffer.tryNext();
+            } catch (InsufficientCapacityException e) {
+                sequence = -1L;
+            }
+            if (sequence >= 0) {
+                try {
+                    DisruptorDataEvent slot = ringBuffer.get(sequence);
+                    if (keyed) {
+                        threeArgEventTranslator.translateTo(slot, sequence, event, tag, key);
+                    } else {
+                        twoArgEventTranslator.translateTo(slot, sequence, event, tag);
+                    }
+                    translator.translateTo(slot, sequence, arg);
+                } finally {
+                    ringBuffer.publish(sequence);
+                }
+                return true;
+            }
+        }
+        NumericDataEvent numeric = numericEvent(event, tag, key);
+        translator.translateTo(numeric, -1L, arg);
+        return backpressure.publish(ringBuffer, oneArgEventTranslator, numeric);
+    }
+
+    /**
+     * 按路由规则选择实例并发布 long 数值.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param value 数值
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(String event, String tag, String key, long value) {
+        return publishEvent(numericEvent(event, tag, key).setLongValue(value));
+    }
+
+    /**
+     * 按路由规则选择实例并发布 double 数值.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param value 数值
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(String event, String tag, String key, double value) {
+        return publishEvent(numericEvent(event, tag, key).setDoubleValue(value));
+    }
+
+    /**
+     * 按路由规则选择实例并发布 int 数值.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param value 数值
+     * @return 事件是否已发布，RingBuffer 已满时取决于背压策略
+     */
+    public boolean publishEvent(String event, String tag, String key, int value) {
+        return publishEvent(numericEvent(event, tag, key).setIntValue(value));
+    }
+
+    /**
+     * 返回当前线程复用的数值事件，发布后内容已复制到槽位，可以立即复用.
+     */
+    private static NumericDataEvent numericEvent(String event, String tag, String key) {
+        NumericDataEvent numeric = NUMERIC_EVENTS.get();
+        numeric.clearValues().setData(null);
+        numeric.setEvent(event).setTag(tag).setKey(key);
+        numeric.setRouteKey(0L);
+        return numeric;
+    }
+
+    /**
+     * 批量发布事件，按路由规则选择实例.
+     *
+     * @param events 数据事件
+     * @return 已发布的事件数量，RingBuffer 已满时取决于背压策略
+     */
+    public int publishEvents(DisruptorDataEvent... events) {
+        return publishEvents(events, events.length);
+    }
+
+    /**
+     * 批量发布事件，按路由规则选择实例.
+     *
+     * @param events 数据事件
+     * @return 已发布的事件数量，RingBuffer 已满时取决于背压策略
+     */
+    public int publishEvents(Collection<? extends DisruptorDataEvent> events) {
+        return publishEvents(events.toArray(new DisruptorDataEvent[0]));
+    }
+
+    /**
+     * 批量发布事件，按路由规则选择实例. 每读取{@link #ITERATOR_BATCH_SIZE}个事件发布一次.
+     *
+     * @param events 数据事件
+     * @return 已发布的事件数量，RingBuffer 已满时取决于背压策略
+     */
+    public int publishEvents(Iterator<? extends DisruptorDataEvent> events) {
+        DisruptorDataEvent[] batch = new DisruptorDataEvent[ITERATOR_BATCH_SIZE];
+        int published = 0;
+        while (events.hasNext()) {
+            int count = 0;
+            while (count < batch.length && events.hasNext()) {
+                batch[count++] = events.next();
+            }
+            published += publishEvents(batch, count);
+        }
+        return published;
+    }
+
+    /**
+     * 批量发布事件到指定实例.
+     *
+     * @param instance 实例名
+     * @param events 数据事件
+     * @return 已发布的事件数量，RingBuffer 已满时取决于背压策略
+     */
+    public int publishEvents(String instance, DisruptorDataEvent... events) {
+        return publishEvents(disruptorInstanceRegistry.get(instance), events, 0, events.length);
+    }
+
+    private int publishEvents(DisruptorDataEvent[] events, int count) {
+        int published = 0;
+        int start = 0;
+        DisruptorInstance instance = count > 0 ? disruptorInstanceRegistry.route(events[0]) : null;
+        while (start < count) {
+            // 路由到同一实例的连续事件一起发布
+            int end = start + 1;
+            DisruptorInstance next = null;
+            while (end < count && (next = disruptorInstanceRegistry.route(events[end])) == instance) {
+                end++;
+            }
+            published += publishEvents(instance, events, start, end - start);
+            instance = next;
+            start = end;
+        }
+        return published;
+    }
+
+    /**
+     * 批量发布事件到实例.
+     *
+     * @param instance 实例
+     * @param events 数据事件
+     * @param from 第一个事件的下标
+     * @param count 事件数量
+     * @return 已发布的事件数量
+     */
+    protected int publishEvents(DisruptorInstance instance, DisruptorDataEvent[] events, int from, int count) {
+        instance.checkProducerThread();
+        return instance.getBackpressure().publishEvents(instance.getRingBuffer(), oneArgEventTranslator,
+                events, from, count);
+    }
+
+    /**
+     * 尝试发布事件，RingBuffer 已满时不等待.
+     *
+     * @param event 数据事件
+     * @return 事件是否已发布
+     */
+    public boolean tryPublishEvent(DisruptorDataEvent event) {
+        return publishEvent(disruptorInstanceRegistry.route(event), event, BackpressurePolicy.TRY, 0L);
+    }
+
+    /**
+     * 发布事件，RingBuffer 已满时最多等待指定时间.
+     *
+     * @param event 数据事件
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 事件是否已发布
+     */
+    public boolean publishEvent(DisruptorDataEvent event, long timeout, TimeUnit unit) {
+        return publishEvent(disruptorInstanceRegistry.route(event), event, BackpressurePolicy.TIMEOUT, unit.toNanos(timeout));
+    }
+
+    /**
+     * 发布事件到实例.
+     *
+     * @param instance 实例
+     * @param event 数据事件
+     * @param policy 发布策略，为 {@code null} 时使用实例的背压配置
+     * @param timeoutNanos timeout 策略的最长等待时间，单位纳秒
+     * @return 事件是否已发布
+     */
+    protected boolean publishEvent(DisruptorInstance instance, DisruptorDataEvent event,
+                                   BackpressurePolicy policy, long timeoutNanos) {
+        instance.checkProducerThread();
+        if (policy == null) {
+            return instance.getBackpressure().publish(instance.getRingBuffer(), oneArgEventTranslator, event);
+        }
+        return instance.getBackpressure().publish(instance.getRingBuffer(), oneArgEventTranslator, event,
+                policy, timeoutNanos);
     }
 
 }
@@ -16,26 +16,60 @@
 
 package com.aeolus.disruptor.configure;
 
+import com.aeolus.disruptor.build.DisruptorBuilder;
 import com.aeolus.disruptor.client.DisruptorTemplate;
 import com.aeolus.disruptor.context.DisruptorContext;
 import com.aeolus.disruptor.context.Lifecycle;
+import com.aeolus.disruptor.context.config.AffinityDefinition;
+import com.aeolus.disruptor.context.config.BackpressureDefinition;
+import com.aeolus.disruptor.context.config.BackpressurePolicy;
+import com.aeolus.disruptor.context.config.BatchDefinition;
+import com.aeolus.disruptor.context.config.BlockingDefinition;
+import com.aeolus.disruptor.context.config.OffHeapRingDefinition;
+import com.aeolus.disruptor.context.config.RouteDefinition;
+import com.aeolus.disruptor.context.config.StageDefinition;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
-import com.aeolus.disruptor.context.factory.DisruptorDataEventFactory;
+import com.aeolus.disruptor.context.factory.NumericDataEventFactory;
+import com.aeolus.disruptor.context.handler.AsyncDisruptorHandler;
 import com.aeolus.disruptor.context.handler.AsyncListenerDispatcher;
+import com.aeolus.disruptor.context.handler.BlockingDisruptorHandler;
+import com.aeolus.disruptor.context.handler.BlockingHandlerExecutor;
 import com.aeolus.disruptor.context.handler.PathMatchingHandlerChainResolver;
+import com.aeolus.disruptor.context.handler.PayloadRecycler;
+import com.aeolus.disruptor.context.handler.SlotClearingProcessor;
+import com.aeolus.disruptor.context.handler.WorkerPoolDispatcher;
+import com.aeolus.disruptor.context.offheap.OffHeapEventHandler;
+import com.aeolus.disruptor.context.offheap.OffHeapRing;
+import com.aeolus.disruptor.context.offheap.PayloadArena;
+import com.aeolus.disruptor.context.route.RouteVocabulary;
+import com.aeolus.disruptor.context.store.PayloadCodec;
+import com.aeolus.disruptor.context.store.SerializationPayloadCodec;
+import com.aeolus.disruptor.context.support.Backpressure;
 import com.aeolus.disruptor.context.support.DefaultLifecycleProcessor;
+import com.aeolus.disruptor.context.support.DisruptorInstance;
+import com.aeolus.disruptor.context.support.DisruptorInstanceRegistry;
+import com.aeolus.disruptor.context.support.DisruptorTopology;
 import com.aeolus.disruptor.context.support.GenericDisruptorContext;
+import com.aeolus.disruptor.context.support.JournalRegistry;
+import com.aeolus.disruptor.context.support.OffHeapRingRegistry;
+import com.aeolus.disruptor.context.support.Spill;
 import com.aeolus.disruptor.context.translator.DisruptorEventOneArgTranslator;
 import com.aeolus.disruptor.context.translator.DisruptorEventThreeArgTranslator;
 import com.aeolus.disruptor.context.translator.DisruptorEventTwoArgTranslator;
 import com.aeolus.disruptor.context.waitstrategy.WaitStrategys;
+import com.aeolus.disruptor.thread.AffinityThreadFactory;
+import com.aeolus.disruptor.thread.AvailableProcessors;
 import com.aeolus.disruptor.thread.NamedThreadFactory;
 import com.lmax.disruptor.*;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
 import com.lmax.disruptor.dsl.ProducerType;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -44,7 +78,16 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
 
 @Configuration
 @ConditionalOnClass({ Disruptor.class })
@@ -52,11 +95,16 @@ import java.util.concurrent.ThreadFactory;
 @EnableConfigurationProperties({ DisruptorProperties.class })
 public class DisruptorAutoConfiguration {
 
+    private static final Logger LOG = LoggerFactory.getLogger(DisruptorAutoConfiguration.class);
 
+
+    /**
+     * ringbuffer 槽位工厂，槽位为{@link com.aeolus.disruptor.context.event.NumericDataEvent}，数值事件不需要装箱.
+     */
     @Bean
     @ConditionalOnMissingBean
     public EventFactory<DisruptorDataEvent> eventFactory() {
-        return new DisruptorDataEventFactory();
+        return new NumericDataEventFactory();
     }
 
 
@@ -84,44 +132,389 @@ public class DisruptorAutoConfiguration {
     }
 
 
+    @Bean
+    @ConditionalOnMissingBean
+    public PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver(DisruptorContext disruptorContext,
+            DisruptorProperties properties) {
+        GenericDisruptorContext genericDisruptorContext = (GenericDisruptorContext) disruptorContext;
+        return new PathMatchingHandlerChainResolver(genericDisruptorContext.getDisruptorHandler(),
+                genericDisruptorContext.getRouteDefinitions(), properties.getRouteCacheSize());
+    }
+
+
+    /**
+     * 默认实例的等待策略，声明为 Bean 以便查看{@link com.aeolus.disruptor.context.waitstrategy.AdaptiveWaitStrategy}的状态.
+     */
+    @Bean(name = "disruptorWaitStrategy")
+    @ConditionalOnMissingBean(name = "disruptorWaitStrategy")
+    public WaitStrategy disruptorWaitStrategy(DisruptorProperties properties) {
+        return WaitStrategys.newWaitStrategy(properties.getWaitStrategy());
+    }
+
+
+    /**
+     * 默认实例的消费者线程工厂，配置了 {@code affinity.consumer-cpus} 时绑定CPU.
+     */
+    @Bean(name = "disruptorThreadFactory")
+    @ConditionalOnMissingBean(name = "disruptorThreadFactory")
+    public ThreadFactory disruptorThreadFactory(DisruptorProperties properties) {
+        return newThreadFactory(properties.getThreadNamePrefix(), properties.isThreadDaemon(), properties.getAffinity());
+    }
+
+
+    /**
+     * 各实例的预写日志，所有单例创建完成后重放尚未确认的条目.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JournalRegistry journalRegistry(PayloadCodec payloadCodec,
+            EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> oneArgEventTranslator) {
+        return new JournalRegistry(payloadCodec, oneArgEventTranslator);
+    }
+
+
     @Bean(name = "disruptorProducer")
-    public Disruptor createDisruptor(DisruptorContext disruptorContext,
+    public Disruptor createDisruptor(ConfigurableApplicationContext applicationContext,
+            DisruptorContext disruptorContext,
+            PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
             DisruptorProperties properties,
-            EventFactory<DisruptorDataEvent> eventFactory) {
+            EventFactory<DisruptorDataEvent> eventFactory,
+            @Qualifier("disruptorWaitStrategy") WaitStrategy waitStrategy,
+            @Qualifier("disruptorThreadFactory") ThreadFactory threadFactory,
+            JournalRegistry journalRegistry,
+            ObjectProvider<PayloadRecycler> payloadRecyclers) {
 
-        ThreadFactory threadFactory = new NamedThreadFactory("Event", false);
+        ProducerType producerType = properties.getProducerType().resolve(applicationContext);
         Disruptor<DisruptorDataEvent> disruptor = new Disruptor<DisruptorDataEvent>(eventFactory,
-                properties.getRingBufferSize(), threadFactory, ProducerType.SINGLE,
-                WaitStrategys.sleepingWaitStrategy);
+                properties.getRingBufferSize(), threadFactory, producerType, waitStrategy);
 
+        int partitions = properties.getPartitions() > 0 ? properties.getPartitions() : AvailableProcessors.get();
+        LOG.info("Starting disruptor with {} producer, {} and {} consumer threads.",
+                producerType, waitStrategy.getClass().getSimpleName(), partitions);
+        checkLinger(DisruptorInstanceRegistry.DEFAULT_INSTANCE, properties.getBatch(), waitStrategy);
+        EventHandlerGroup<DisruptorDataEvent> journal = journalRegistry.attach(DisruptorInstanceRegistry.DEFAULT_INSTANCE,
+                disruptor, properties.getJournal());
         GenericDisruptorContext genericDisruptorContext = (GenericDisruptorContext) disruptorContext;
-        PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver = new PathMatchingHandlerChainResolver(
-                genericDisruptorContext.getDisruptorHandler(), genericDisruptorContext.getHandlerDefinition());
-
-        final AsyncListenerDispatcher listenerDispatcher = new AsyncListenerDispatcher(pathMatchingHandlerChainResolver);
-        disruptor.handleEventsWith(listenerDispatcher);
+        List<StageDefinition> stages = genericDisruptorContext.getStageDefinitions(DisruptorInstanceRegistry.DEFAULT_INSTANCE);
+        BlockingHandlerExecutor blockingExecutor = stages.isEmpty() && properties.isWorkerPool() ? null
+                : newBlockingExecutor(DisruptorInstanceRegistry.DEFAULT_INSTANCE, disruptor, properties.getBlocking(),
+                        properties.isThreadDaemon(), genericDisruptorContext, genericDisruptorContext.getRouteDefinitions());
+        EventHandlerGroup<DisruptorDataEvent> last;
+        Sequence[] gatingSequences;
+        if (stages.isEmpty() && properties.isWorkerPool()) {
+            // 工作者竞争消费，不保证同一 key 的处理顺序
+            WorkerPoolDispatcher[] workers = WorkerPoolDispatcher.workers(pathMatchingHandlerChainResolver, partitions);
+            if (journal == null) {
+                last = disruptor.handleEventsWithWorkerPool(workers);
+            } else {
+                last = journal.handleEventsWithWorkerPool(workers);
+            }
+            gatingSequences = new Sequence[0];
+        } else if (stages.isEmpty()) {
+            // 每个分区一个 BatchEventProcessor，同一 key 的事件总落在同一分区
+            final AsyncListenerDispatcher[] listenerDispatchers =
+                    AsyncListenerDispatcher.partitioned(pathMatchingHandlerChainResolver, partitions,
+                            blockingExecutor, properties.getBatch(), disruptor.getRingBuffer());
+            if (journal == null) {
+                last = disruptor.handleEventsWith(listenerDispatchers);
+            } else {
+                last = journal.handleEventsWith(listenerDispatchers);
+            }
+            gatingSequences = gatingSequencesOf(listenerDispatchers);
+        } else {
+            DisruptorTopology topology = new DisruptorTopology(genericDisruptorContext.getDisruptorHandler(),
+                    genericDisruptorContext.getRouteDefinitions(), stages);
+            last = lastOf(topology.wire(disruptor, partitions, properties.isWorkerPool(), properties.getRouteCacheSize(),
+                    blockingExecutor, properties.getBatch(), journal));
+            gatingSequences = topology.getGatingSequences();
+            // 运行时注册的处理器链定义同样作用于各处理阶段
+            topology.getResolvers().values().forEach(applicationContext::addApplicationListener);
+        }
+        if (properties.isClearSlots()) {
+            clearSlots(DisruptorInstanceRegistry.DEFAULT_INSTANCE, last, payloadRecyclers, gatingSequences);
+        }
         disruptor.start();
 
         return disruptor;
     }
 
 
+    /**
+     * 注册默认实例和 {@code spring.disruptor.instances} 中的命名实例.
+     *
+     * <p>每个命名实例通过{@link DisruptorBuilder}创建独立的 Disruptor，只解析自己的处理器链定义.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public DisruptorInstanceRegistry disruptorInstanceRegistry(ConfigurableApplicationContext applicationContext,
+            DisruptorContext disruptorContext,
+            DisruptorProperties properties,
+            EventFactory<DisruptorDataEvent> eventFactory,
+            @Qualifier("disruptorProducer") Disruptor disruptor,
+            @Qualifier("disruptorWaitStrategy") WaitStrategy defaultWaitStrategy,
+            @Qualifier("disruptorThreadFactory") ThreadFactory defaultThreadFactory,
+            PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+            EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> oneArgEventTranslator,
+            PayloadCodec payloadCodec,
+            JournalRegistry journalRegistry,
+            ObjectProvider<PayloadRecycler> payloadRecyclers) {
+
+        ProducerType defaultProducerType = properties.getProducerType().resolve(applicationContext);
+        DisruptorInstanceRegistry registry = new DisruptorInstanceRegistry(new DisruptorInstance(
+                DisruptorInstanceRegistry.DEFAULT_INSTANCE, disruptor, defaultProducerType == ProducerType.SINGLE,
+                defaultWaitStrategy, defaultThreadFactory, properties.getAffinity().getProducerCpus(),
+                newBackpressure(DisruptorInstanceRegistry.DEFAULT_INSTANCE, disruptor, defaultProducerType,
+                        properties.getBackpressure(), pathMatchingHandlerChainResolver, oneArgEventTranslator,
+                        payloadCodec)));
+
+        GenericDisruptorContext genericDisruptorContext = (GenericDisruptorContext) disruptorContext;
+        properties.getInstances().forEach((name, definition) -> {
+            List<RouteDefinition> routeDefinitions = genericDisruptorContext.getRouteDefinitions(name);
+            ProducerType producerType = definition.getProducerType().resolve(applicationContext);
+            int partitions = definition.getPartitions() > 0 ? definition.getPartitions() : AvailableProcessors.get();
+            String threadNamePrefix = StringUtils.defaultIfEmpty(definition.getThreadNamePrefix(), name);
+            WaitStrategy waitStrategy = WaitStrategys.newWaitStrategy(definition.getWaitStrategy());
+            ThreadFactory threadFactory = newThreadFactory(threadNamePrefix, definition.isThreadDaemon(),
+                    definition.getAffinity());
+            DisruptorBuilder<DisruptorDataEvent> builder = new DisruptorBuilder<DisruptorDataEvent>()
+                    .setRingBufferSize(definition.getRingBufferSize())
+                    .setProducerType(producerType)
+                    .setThreadFactory(threadFactory)
+                    .setWaitStrategy(waitStrategy);
+
+            Disruptor<DisruptorDataEvent> instanceDisruptor = builder.build(eventFactory);
+            checkLinger(name, definition.getBatch(), waitStrategy);
+            EventHandlerGroup<DisruptorDataEvent> journal = journalRegistry.attach(name, instanceDisruptor,
+                    definition.getJournal());
+            List<StageDefinition> stages = genericDisruptorContext.getStageDefinitions(name);
+            EventHandlerGroup<DisruptorDataEvent> last;
+            Sequence[] gatingSequences;
+            if (stages.isEmpty() && definition.isWorkerPool()) {
+                PathMatchingHandlerChainResolver resolver = new PathMatchingHandlerChainResolver(
+                        genericDisruptorContext.getDisruptorHandler(), routeDefinitions, properties.getRouteCacheSize());
+                WorkerPoolDispatcher[] workers = WorkerPoolDispatcher.workers(resolver, partitions);
+                if (journal == null) {
+                    last = instanceDisruptor.handleEventsWithWorkerPool(workers);
+                } else {
+                    last = journal.handleEventsWithWorkerPool(workers);
+                }
+                gatingSequences = new Sequence[0];
+            } else if (stages.isEmpty()) {
+                PathMatchingHandlerChainResolver resolver = new PathMatchingHandlerChainResolver(
+                        genericDisruptorContext.getDisruptorHandler(), routeDefinitions, properties.getRouteCacheSize());
+                AsyncListenerDispatcher[] dispatchers = AsyncListenerDispatcher.partitioned(resolver, partitions,
+                        newBlockingExecutor(name, instanceDisruptor, definition.getBlocking(), definition.isThreadDaemon(),
+                                genericDisruptorContext, routeDefinitions), definition.getBatch(),
+                        instanceDisruptor.getRingBuffer());
+                if (journal == null) {
+                    last = instanceDisruptor.handleEventsWith(dispatchers);
+                } else {
+                    last = journal.handleEventsWith(dispatchers);
+                }
+                gatingSequences = gatingSequencesOf(dispatchers);
+            } else {
+                DisruptorTopology topology = new DisruptorTopology(genericDisruptorContext.getDisruptorHandler(),
+                        routeDefinitions, stages);
+                last = lastOf(topology.wire(instanceDisruptor, partitions, definition.isWorkerPool(),
+                        properties.getRouteCacheSize(), newBlockingExecutor(name, instanceDisruptor,
+                                definition.getBlocking(), definition.isThreadDaemon(), genericDisruptorContext,
+                                routeDefinitions), definition.getBatch(), journal));
+                gatingSequences = topology.getGatingSequences();
+            }
+            if (definition.isClearSlots()) {
+                clearSlots(name, last, payloadRecyclers, gatingSequences);
+            }
+            instanceDisruptor.start();
+
+            Set<String> routes = new LinkedHashSet<>(definition.getRoutes());
+            if (routes.isEmpty()) {
+                routeDefinitions.forEach(routeDefinition -> routes.add(routeDefinition.getExpress()));
+            }
+            LOG.info("Starting disruptor instance '{}' with {} producer and {} consumer threads, routes {}.",
+                    name, producerType, partitions, routes);
+            registry.register(new DisruptorInstance(name, instanceDisruptor, producerType == ProducerType.SINGLE,
+                    waitStrategy, threadFactory, definition.getAffinity().getProducerCpus(),
+                    newBackpressure(name, instanceDisruptor, producerType, definition.getBackpressure(),
+                            new PathMatchingHandlerChainResolver(genericDisruptorContext.getDisruptorHandler(),
+                                    routeDefinitions, properties.getRouteCacheSize()),
+                            oneArgEventTranslator, payloadCodec)),
+                    routes);
+        });
+        return registry;
+    }
+
+
+    /**
+     * 创建并启动 {@code spring.disruptor.off-heap-rings} 中的堆外 RingBuffer.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public OffHeapRingRegistry offHeapRingRegistry(ConfigurableApplicationContext applicationContext,
+            DisruptorProperties properties) {
+        OffHeapRingRegistry registry = new OffHeapRingRegistry();
+        properties.getOffHeapRings().forEach((name, definition) -> {
+            OffHeapRing ring = newOffHeapRing(applicationContext, name, definition);
+            long arenaSize = definition.getArenaSize().toBytes();
+            if (arenaSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Payload arena of off-heap ring '" + name + "' must be <= 2GB: "
+                        + definition.getArenaSize());
+            }
+            if (arenaSize > 0) {
+                new PayloadArena(ring, (int) arenaSize);
+            }
+            for (String beanName : definition.getHandlers()) {
+                ring.handleEventsWith(applicationContext.getBean(beanName.trim(), OffHeapEventHandler.class));
+            }
+            ring.start(new NamedThreadFactory(StringUtils.defaultIfEmpty(definition.getThreadNamePrefix(), name),
+                    definition.isThreadDaemon()));
+            LOG.info("Starting off-heap ring '{}' with {} slots of {} bytes, {}, payload arena {} bytes, handlers {}.",
+                    name, ring.getBufferSize(), ring.getSlotSize(), ring.isMapped() ? "memory-mapped" : "direct memory",
+                    arenaSize, definition.getHandlers());
+            registry.register(ring);
+        });
+        return registry;
+    }
+
+
+    private static OffHeapRing newOffHeapRing(ConfigurableApplicationContext applicationContext, String name,
+            OffHeapRingDefinition definition) {
+        try {
+            return new OffHeapRing(name, definition.getRingBufferSize(),
+                    (int) Math.min(Integer.MAX_VALUE, definition.getSlotSize().toBytes()),
+                    definition.getProducerType().resolve(applicationContext),
+                    WaitStrategys.newWaitStrategy(definition.getWaitStrategy()),
+                    StringUtils.isEmpty(definition.getDirectory()) ? null
+                            : Paths.get(definition.getDirectory(), name + ".ring"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create off-heap ring '" + name + "'", e);
+        }
+    }
+
+
+    /**
+     * 路由定义中有{@link BlockingDisruptorHandler}或{@link AsyncDisruptorHandler}时创建执行器，
+     * 否则所有处理器链都在分发线程上同步执行.
+     */
+    private static BlockingHandlerExecutor newBlockingExecutor(String name, Disruptor<DisruptorDataEvent> disruptor,
+            BlockingDefinition definition, boolean daemon, GenericDisruptorContext disruptorContext,
+            List<RouteDefinition> routeDefinitions) {
+        boolean offloaded = routeDefinitions.stream()
+                .map(route -> disruptorContext.getDisruptorHandler().get(route.getBeanName()))
+                .anyMatch(handler -> handler instanceof BlockingDisruptorHandler || handler instanceof AsyncDisruptorHandler);
+        return offloaded ? new BlockingHandlerExecutor(name, disruptor.getRingBuffer(), definition, daemon) : null;
+    }
+
+
+    /**
+     * 默认策略为 spill 时创建溢出文件，回填线程作为另一个发布线程，要求生产者模式为 multi.
+     */
+    private static Backpressure newBackpressure(String name, Disruptor<DisruptorDataEvent> disruptor,
+            ProducerType producerType, BackpressureDefinition definition, PathMatchingHandlerChainResolver resolver,
+            EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator, PayloadCodec payloadCodec) {
+        if (definition.getPolicy() != BackpressurePolicy.SPILL) {
+            return new Backpressure(name, definition, resolver);
+        }
+        if (producerType == ProducerType.SINGLE) {
+            throw new IllegalStateException("Backpressure policy spill of Disruptor instance '" + name
+                    + "' requires producer-type multi, the spill refill thread is another publisher");
+        }
+        try {
+            Spill spill = new Spill(name, disruptor.getRingBuffer(), translator, definition.getSpill(), payloadCodec);
+            LOG.info("Disruptor instance '{}' spills to {} when the RingBuffer is full.", name, definition.getSpill());
+            return new Backpressure(name, definition, resolver, spill);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spill file of Disruptor instance '" + name + "'", e);
+        }
+    }
+
+
+    /**
+     * 在最后的消费者组之后添加槽位清理阶段，清理阶段同时依赖分发器额外注册的 gating sequence.
+     */
+    private static void clearSlots(String name, EventHandlerGroup<DisruptorDataEvent> last,
+                                   ObjectProvider<PayloadRecycler> payloadRecyclers, Sequence[] gatingSequences) {
+        List<PayloadRecycler> recyclers = payloadRecyclers.orderedStream().collect(Collectors.toList());
+        last.handleEventsWith(SlotClearingProcessor.factory(recyclers, gatingSequences));
+        LOG.info("Disruptor instance '{}' clears slots after dispatch with payload recyclers {}.", name, recyclers);
+    }
+
+    /**
+     * 合并各阶段最后的消费者组.
+     */
+    private static EventHandlerGroup<DisruptorDataEvent> lastOf(Map<String, EventHandlerGroup<DisruptorDataEvent>> groups) {
+        EventHandlerGroup<DisruptorDataEvent> last = null;
+        for (EventHandlerGroup<DisruptorDataEvent> group : groups.values()) {
+            last = last == null ? group : last.and(group);
+        }
+        return last;
+    }
+
+    private static Sequence[] gatingSequencesOf(AsyncListenerDispatcher[] dispatchers) {
+        return Arrays.stream(dispatchers).flatMap(dispatcher -> Arrays.stream(dispatcher.getGatingSequences()))
+                .toArray(Sequence[]::new);
+    }
+
+    /**
+     * 设置了 batch.linger 时，空闲时的交付依赖等待策略超时，不支持超时的等待策略只在下一批事件到达时交付.
+     */
+    private static void checkLinger(String name, BatchDefinition batch, WaitStrategy waitStrategy) {
+        if (batch.getLinger() != null && !batch.getLinger().isZero() && !WaitStrategys.isTimeoutCapable(waitStrategy)) {
+            LOG.warn("Disruptor instance '{}' sets batch linger {} but {} never times out, idle batches are flushed "
+                    + "only when the next events arrive. Use timeout-blocking or lite-timeout-blocking wait strategy.",
+                    name, batch.getLinger(), waitStrategy.getClass().getSimpleName());
+        }
+    }
+
+
+    private static ThreadFactory newThreadFactory(String threadNamePrefix, boolean daemon, AffinityDefinition affinity) {
+        ThreadFactory threadFactory = new NamedThreadFactory(threadNamePrefix, daemon);
+        if (StringUtils.isBlank(affinity.getConsumerCpus())) {
+            return threadFactory;
+        }
+        LOG.info("Consumer threads '{}' pinned to cpus {}, exclusive {}.",
+                threadNamePrefix, affinity.getConsumerCpus(), affinity.isExclusive());
+        return new AffinityThreadFactory(threadFactory, affinity.getConsumerCpus(), affinity.isExclusive());
+    }
+
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RouteVocabulary routeVocabulary(DisruptorProperties properties) {
+        RouteVocabulary routeVocabulary = new RouteVocabulary();
+        properties.getRouteVocabulary().forEach((event, tags) -> {
+            for (String tag : tags) {
+                routeVocabulary.register(event, tag);
+            }
+        });
+        return routeVocabulary;
+    }
+
+
+    /**
+     * 溢出文件中数据事件 data 的编解码，默认使用 JDK 序列化.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PayloadCodec payloadCodec() {
+        return new SerializationPayloadCodec();
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    public EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> oneArgEventTranslator() {
-        return new DisruptorEventOneArgTranslator();
+    public EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> oneArgEventTranslator(RouteVocabulary routeVocabulary) {
+        return new DisruptorEventOneArgTranslator(routeVocabulary);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public EventTranslatorTwoArg<DisruptorDataEvent, String, String> twoArgEventTranslator() {
-        return new DisruptorEventTwoArgTranslator();
+    public EventTranslatorTwoArg<DisruptorDataEvent, String, String> twoArgEventTranslator(RouteVocabulary routeVocabulary) {
+        return new DisruptorEventTwoArgTranslator(routeVocabulary);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public EventTranslatorThreeArg<DisruptorDataEvent, String, String, String> threeArgEventTranslator() {
-        return new DisruptorEventThreeArgTranslator();
+    public EventTranslatorThreeArg<DisruptorDataEvent, String, String, String> threeArgEventTranslator(RouteVocabulary routeVocabulary) {
+        return new DisruptorEventThreeArgTranslator(routeVocabulary);
     }
 
 
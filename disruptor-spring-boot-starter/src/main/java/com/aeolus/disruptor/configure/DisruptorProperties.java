@@ -16,11 +16,23 @@
 
 package com.aeolus.disruptor.configure;
 
+import com.aeolus.disruptor.context.config.AffinityDefinition;
+import com.aeolus.disruptor.context.config.BackpressureDefinition;
+import com.aeolus.disruptor.context.config.BatchDefinition;
+import com.aeolus.disruptor.context.config.BlockingDefinition;
+import com.aeolus.disruptor.context.config.DisruptorInstanceDefinition;
 import com.aeolus.disruptor.context.config.EventHandlerDefinition;
+import com.aeolus.disruptor.context.config.JournalDefinition;
+import com.aeolus.disruptor.context.config.OffHeapRingDefinition;
+import com.aeolus.disruptor.context.config.ProducerMode;
+import com.aeolus.disruptor.context.config.StageDefinition;
+import com.aeolus.disruptor.context.config.WaitStrategyDefinition;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @ConfigurationProperties(prefix = "spring.disruptor")
 public class DisruptorProperties {
@@ -31,9 +43,60 @@ public class DisruptorProperties {
     /** RingBuffer缓冲区大小, 默认 1024 */
     private int ringBufferSize = 1024;
 
+    /** 生产者模式: single、multi、auto, 默认 auto */
+    private ProducerMode producerType = ProducerMode.AUTO;
+
+    /** 等待策略, 默认 sleeping */
+    private WaitStrategyDefinition waitStrategy = new WaitStrategyDefinition();
+
+    /** 分区消费者数量, 即消费者线程数, 默认 1. 小于等于0时按容器 cgroup CPU 配额取可用CPU数量. 大于1时同一 key 的事件总由同一消费者线程按序处理, 不同 key 的事件并发处理, 处理器需要保证线程安全 */
+    private int partitions = 1;
+
+    /** 是否工作池模式, 默认 false. 开启后 partitions 个工作者竞争消费, 不保证同一 key 的处理顺序, 只适用于无状态或线程安全的处理器 */
+    private boolean workerPool = false;
+
+    /** 消费者线程名前缀, 默认 Event */
+    private String threadNamePrefix = "Event";
+
+    /** 消费者线程是否守护线程, 默认 false */
+    private boolean threadDaemon = false;
+
+    /** 消费者线程与发布线程的CPU亲和性, 只在 Linux 上生效, 默认不绑定 */
+    private AffinityDefinition affinity = new AffinityDefinition();
+
+    /** 阻塞处理器的卸载执行与异步处理器的流水线执行, 只作用于实现 BlockingDisruptorHandler、AsyncDisruptorHandler 的处理器 */
+    private BlockingDefinition blocking = new BlockingDefinition();
+
+    /** RingBuffer 已满时的发布策略, 默认 block, 可以按路由规则覆盖 */
+    private BackpressureDefinition backpressure = new BackpressureDefinition();
+
+    /** 批量处理器的批次, 只作用于实现 BatchDisruptorHandler 的处理器 */
+    private BatchDefinition batch = new BatchDefinition();
+
+    /** 预写日志, 默认关闭. 开启后事件在分发前写入日志, 启动时重放尚未确认的事件 */
+    private JournalDefinition journal = new JournalDefinition();
+
+    /** 是否在所有消费者处理完成后清空槽位的 data、event、tag、key, 默认 false. 开启后数据对象不会被 RingBuffer 引用到绕回, 可以交给 PayloadRecycler 复用. 清理线程由消费者线程工厂创建, 配置了 consumer-cpus 时同样占用其中的CPU */
+    private boolean clearSlots;
+
+    /** 路由缓存容量, 默认 4096, 小于等于0时不使用缓存 */
+    private int routeCacheSize = 4096;
+
+    /** 路由词表: key-event; value-tags, 启动时预先注册路由键 */
+    private Map<String, List<String>> routeVocabulary = new LinkedHashMap<String, List<String>>();
+
     /** 消息出来责任链 */
     private List<EventHandlerDefinition> handlerDefinitions = new ArrayList<EventHandlerDefinition>();
 
+    /** 命名 Disruptor 实例: key-instance name, 各实例有独立的 RingBuffer 和处理器链 */
+    private Map<String, DisruptorInstanceDefinition> instances = new LinkedHashMap<String, DisruptorInstanceDefinition>();
+
+    /** 堆外 RingBuffer: key-ring name, 槽位为直接内存或内存映射文件中的固定布局区域 */
+    private Map<String, OffHeapRingDefinition> offHeapRings = new LinkedHashMap<String, OffHeapRingDefinition>();
+
+    /** 处理阶段依赖图, 为空时所有处理器由同一组消费者线程处理 */
+    private List<StageDefinition> topology = new ArrayList<StageDefinition>();
+
 
     public boolean isEnabled() {
         return enabled;
@@ -51,6 +114,118 @@ public class DisruptorProperties {
         this.ringBufferSize = ringBufferSize;
     }
 
+    public ProducerMode getProducerType() {
+        return producerType;
+    }
+
+    public void setProducerType(ProducerMode producerType) {
+        this.producerType = producerType;
+    }
+
+    public WaitStrategyDefinition getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategyDefinition waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public boolean isWorkerPool() {
+        return workerPool;
+    }
+
+    public void setWorkerPool(boolean workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    public boolean isClearSlots() {
+        return clearSlots;
+    }
+
+    public void setClearSlots(boolean clearSlots) {
+        this.clearSlots = clearSlots;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public void setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public boolean isThreadDaemon() {
+        return threadDaemon;
+    }
+
+    public void setThreadDaemon(boolean threadDaemon) {
+        this.threadDaemon = threadDaemon;
+    }
+
+    public AffinityDefinition getAffinity() {
+        return affinity;
+    }
+
+    public void setAffinity(AffinityDefinition affinity) {
+        this.affinity = affinity;
+    }
+
+    public BlockingDefinition getBlocking() {
+        return blocking;
+    }
+
+    public void setBlocking(BlockingDefinition blocking) {
+        this.blocking = blocking;
+    }
+
+    public BackpressureDefinition getBackpressure() {
+        return backpressure;
+    }
+
+    public void setBackpressure(BackpressureDefinition backpressure) {
+        this.backpressure = backpressure;
+    }
+
+    public BatchDefinition getBatch() {
+        return batch;
+    }
+
+    public void setBatch(BatchDefinition batch) {
+        this.batch = batch;
+    }
+
+    public JournalDefinition getJournal() {
+        return journal;
+    }
+
+    public void setJournal(JournalDefinition journal) {
+        this.journal = journal;
+    }
+
+    public int getRouteCacheSize() {
+        return routeCacheSize;
+    }
+
+    public void setRouteCacheSize(int routeCacheSize) {
+        this.routeCacheSize = routeCacheSize;
+    }
+
+    public Map<String, List<String>> getRouteVocabulary() {
+        return routeVocabulary;
+    }
+
+    public void setRouteVocabulary(Map<String, List<String>> routeVocabulary) {
+        this.routeVocabulary = routeVocabulary;
+    }
+
     public List<EventHandlerDefinition> getHandlerDefinitions() {
         return handlerDefinitions;
     }
@@ -59,4 +234,28 @@ public class DisruptorProperties {
         this.handlerDefinitions = handlerDefinitions;
     }
 
+    public Map<String, DisruptorInstanceDefinition> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(Map<String, DisruptorInstanceDefinition> instances) {
+        this.instances = instances;
+    }
+
+    public Map<String, OffHeapRingDefinition> getOffHeapRings() {
+        return offHeapRings;
+    }
+
+    public void setOffHeapRings(Map<String, OffHeapRingDefinition> offHeapRings) {
+        this.offHeapRings = offHeapRings;
+    }
+
+    public List<StageDefinition> getTopology() {
+        return topology;
+    }
+
+    public void setTopology(List<StageDefinition> topology) {
+        this.topology = topology;
+    }
+
 }
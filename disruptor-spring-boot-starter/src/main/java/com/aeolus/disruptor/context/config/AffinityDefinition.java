@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.config;
+
+/**
+ * CPU亲和性定义，只在 Linux 上生效.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     affinity:
+ *       consumer-cpus: 2-5
+ *       producer-cpus: 1
+ *       exclusive: true
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.thread.ThreadAffinity
+ */
+public class AffinityDefinition {
+
+    /**
+     * 消费者线程绑定的CPU列表，格式同 taskset -c，为空时不绑定
+     */
+    private String consumerCpus;
+
+    /**
+     * 发布事件的线程绑定的CPU列表，只在专用的发布线程显式调用
+     * {@link com.aeolus.disruptor.context.support.DisruptorInstance#pinProducerThread()}时绑定，为空时不绑定
+     */
+    private String producerCpus;
+
+    /**
+     * 是否每个消费者线程独占一个CPU，否则所有消费者线程共享整个CPU列表
+     */
+    private boolean exclusive = true;
+
+
+    public String getConsumerCpus() {
+        return consumerCpus;
+    }
+
+    public AffinityDefinition setConsumerCpus(String consumerCpus) {
+        this.consumerCpus = consumerCpus;
+        return this;
+    }
+
+    public String getProducerCpus() {
+        return producerCpus;
+    }
+
+    public AffinityDefinition setProducerCpus(String producerCpus) {
+        this.producerCpus = producerCpus;
+        return this;
+    }
+
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
+    public AffinityDefinition setExclusive(boolean exclusive) {
+        this.exclusive = exclusive;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "AffinityDefinition{" +
+                "consumerCpus='" + consumerCpus + '\'' +
+                ", producerCpus='" + producerCpus + '\'' +
+                ", exclusive=" + exclusive +
+                '}';
+    }
+}
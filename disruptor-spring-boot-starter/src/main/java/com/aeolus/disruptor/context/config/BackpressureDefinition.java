@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RingBuffer 已满时的发布策略定义，可以按路由规则覆盖.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     backpressure:
+ *       policy: timeout
+ *       timeout: 50ms
+ *       routes:
+ *         "[/Event-DC-Output/TagA-Output/**]": caller-runs
+ *         "[/Event-DC-Output/TagB-Output/**]": drop-newest
+ * </pre>
+ *
+ * <p>policy 为 spill 时按{@link SpillDefinition}写入溢出文件.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.support.Backpressure
+ */
+public class BackpressureDefinition {
+
+    /**
+     * 默认发布策略
+     */
+    private BackpressurePolicy policy = BackpressurePolicy.BLOCK;
+
+    /**
+     * timeout 的最长等待时间
+     */
+    private Duration timeout = Duration.ofMillis(100);
+
+    /**
+     * 按路由规则覆盖的发布策略: key-rule express
+     */
+    private Map<String, BackpressurePolicy> routes = new LinkedHashMap<>();
+
+    /**
+     * spill 策略的溢出文件
+     */
+    private SpillDefinition spill = new SpillDefinition();
+
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    public BackpressureDefinition setPolicy(BackpressurePolicy policy) {
+        this.policy = policy;
+        return this;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public BackpressureDefinition setTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public Map<String, BackpressurePolicy> getRoutes() {
+        return routes;
+    }
+
+    public BackpressureDefinition setRoutes(Map<String, BackpressurePolicy> routes) {
+        this.routes = routes;
+        return this;
+    }
+
+    public SpillDefinition getSpill() {
+        return spill;
+    }
+
+    public BackpressureDefinition setSpill(SpillDefinition spill) {
+        this.spill = spill;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BackpressureDefinition{" +
+                "policy=" + policy +
+                ", timeout=" + timeout +
+                ", routes=" + routes +
+                ", spill=" + spill +
+                '}';
+    }
+}
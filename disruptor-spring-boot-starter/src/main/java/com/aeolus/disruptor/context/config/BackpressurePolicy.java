@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.config;
+
+/**
+ * RingBuffer 已满时的发布策略.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see BackpressureDefinition
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * 等待直到有空闲槽位，处理器卡住时发布线程会一直等待.
+     */
+    BLOCK,
+
+    /**
+     * 不等待，发布失败时返回 {@code false}，由调用方处理.
+     */
+    TRY,
+
+    /**
+     * 最多等待 timeout，超时后返回 {@code false}.
+     */
+    TIMEOUT,
+
+    /**
+     * 丢弃新发布的事件，返回 {@code false}.
+     */
+    DROP_NEWEST,
+
+    /**
+     * 在发布线程上同步执行处理器链，不经过 RingBuffer，不保证与已发布事件的处理顺序.
+     */
+    CALLER_RUNS,
+
+    /**
+     * 写入内存映射的溢出文件，由回填线程在有空闲槽位后按顺序回填，只能作为默认策略，生产者模式必须为 multi.
+     * 溢出文件中还有事件时，后续事件同样写入溢出文件.
+     */
+    SPILL
+}
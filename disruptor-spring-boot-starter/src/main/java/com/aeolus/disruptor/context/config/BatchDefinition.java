@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.config;
+
+import java.time.Duration;
+
+/**
+ * 批量处理器的批次定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     batch:
+ *       max-size: 500
+ *       linger: 5ms
+ *     wait-strategy:
+ *       type: lite-timeout-blocking
+ *       timeout: 5ms
+ * </pre>
+ *
+ * <p>linger 大于0时批次跨越多批事件累积，达到上限或最早的事件等待超过 linger 时交付.
+ * 空闲时由等待策略超时触发交付，需要使用 timeout-blocking 或 lite-timeout-blocking 等待策略，
+ * 超时时间即空闲时最长的等待时间.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.handler.BatchDisruptorHandler
+ */
+public class BatchDefinition {
+
+    /**
+     * 每批最多的事件数量，处理器未指定时使用
+     */
+    private int maxSize = 256;
+
+    /**
+     * 批次最长的等待时间，为0时在每批事件结束时交付
+     */
+    private Duration linger = Duration.ZERO;
+
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public BatchDefinition setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    public Duration getLinger() {
+        return linger;
+    }
+
+    public BatchDefinition setLinger(Duration linger) {
+        this.linger = linger;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchDefinition{" +
+                "maxSize=" + maxSize +
+                ", linger=" + linger +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.config;
+
+import java.time.Duration;
+
+/**
+ * 阻塞处理器的卸载执行与异步处理器的流水线执行定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     blocking:
+ *       max-in-flight: 256
+ *       virtual-threads: true
+ *       pool-size: 64
+ *       drain-timeout: 30s
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.handler.BlockingHandlerExecutor
+ */
+public class BlockingDefinition {
+
+    /**
+     * 同时执行的阻塞处理器链与未完成的异步处理器链上限，达到上限时分发线程等待
+     */
+    private int maxInFlight = 256;
+
+    /**
+     * 是否优先使用虚拟线程，JDK 21 以下使用线程池
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * 不使用虚拟线程时的线程池大小
+     */
+    private int poolSize = 64;
+
+    /**
+     * 关闭时等待卸载执行的处理器链完成的最长时间
+     */
+    private Duration drainTimeout = Duration.ofSeconds(30);
+
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public BlockingDefinition setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public BlockingDefinition setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public BlockingDefinition setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public BlockingDefinition setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingDefinition{" +
+                "maxInFlight=" + maxInFlight +
+                ", virtualThreads=" + virtualThreads +
+                ", poolSize=" + poolSize +
+                ", drainTimeout=" + drainTimeout +
+                '}';
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 命名 Disruptor 实例定义.
+ *
+ * <p>每个实例有独立的 RingBuffer、等待策略、消费者线程和处理器链定义，
+ * 慢处理器放在单独的实例中，不会占用其它实例的 RingBuffer 容量.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     instances:
+ *       notify:
+ *         ring-buffer-size: 256
+ *         wait-strategy:
+ *           type: blocking
+ *         routes: /Event-DC-Output/TagC-Output/**
+ *         handler-definitions:
+ *         - order: 1
+ *           definitions: /Event-DC-Output/TagC-Output/** = emailPostHandler
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class DisruptorInstanceDefinition {
+
+    /**
+     * RingBuffer缓冲区大小
+     */
+    private int ringBufferSize = 1024;
+
+    /**
+     * 生产者模式
+     */
+    private ProducerMode producerType = ProducerMode.AUTO;
+
+    /**
+     * 等待策略
+     */
+    private WaitStrategyDefinition waitStrategy = new WaitStrategyDefinition();
+
+    /**
+     * 分区消费者数量，小于等于0时按容器 cgroup CPU 配额取可用CPU数量
+     */
+    private int partitions = 1;
+
+    /**
+     * 是否工作池模式，开启后 partitions 个工作者竞争消费，不保证同一 key 的处理顺序
+     */
+    private boolean workerPool = false;
+
+    /**
+     * 是否在所有消费者处理完成后清空槽位，默认不清空. 清理线程由消费者线程工厂创建，配置了 consumer-cpus 时同样占用其中的CPU
+     */
+    private boolean clearSlots;
+
+    /**
+     * 消费者线程名前缀，为空时使用实例名
+     */
+    private String threadNamePrefix;
+
+    /**
+     * 消费者线程是否守护线程
+     */
+    private boolean threadDaemon = false;
+
+    /**
+     * 消费者线程与发布线程的CPU亲和性
+     */
+    private AffinityDefinition affinity = new AffinityDefinition();
+
+    /**
+     * 阻塞处理器的卸载执行与异步处理器的流水线执行
+     */
+    private BlockingDefinition blocking = new BlockingDefinition();
+
+    /**
+     * RingBuffer 已满时的发布策略
+     */
+    private BackpressureDefinition backpressure = new BackpressureDefinition();
+
+    /**
+     * 批量处理器的批次
+     */
+    private BatchDefinition batch = new BatchDefinition();
+
+    /**
+     * 预写日志，默认关闭
+     */
+    private JournalDefinition journal = new JournalDefinition();
+
+    /**
+     * 发布到此实例的路由规则，为空时使用处理器链定义中的规则表达式
+     */
+    private List<String> routes = new ArrayList<>();
+
+    /**
+     * 处理器链定义
+     */
+    private List<EventHandlerDefinition> handlerDefinitions = new ArrayList<>();
+
+    /**
+     * 处理阶段依赖图，为空时所有处理器由同一组消费者线程处理
+     */
+    private List<StageDefinition> topology = new ArrayList<>();
+
+
+    public int getRingBufferSize() {
+        return ringBufferSize;
+    }
+
+    public DisruptorInstanceDefinition setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+        return this;
+    }
+
+    public ProducerMode getProducerType() {
+        return producerType;
+    }
+
+    public DisruptorInstanceDefinition setProducerType(ProducerMode producerType) {
+        this.producerType = producerType;
+        return this;
+    }
+
+    public WaitStrategyDefinition getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public DisruptorInstanceDefinition setWaitStrategy(WaitStrategyDefinition waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public DisruptorInstanceDefinition setPartitions(int partitions) {
+        this.partitions = partitions;
+        return this;
+    }
+
+    public boolean isWorkerPool() {
+        return workerPool;
+    }
+
+    public DisruptorInstanceDefinition setWorkerPool(boolean workerPool) {
+        this.workerPool = workerPool;
+        return this;
+    }
+
+    public boolean isClearSlots() {
+        return clearSlots;
+    }
+
+    public DisruptorInstanceDefinition setClearSlots(boolean clearSlots) {
+        this.clearSlots = clearSlots;
+        return this;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public DisruptorInstanceDefinition setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+        return this;
+    }
+
+    public boolean isThreadDaemon() {
+        return threadDaemon;
+    }
+
+    public DisruptorInstanceDefinition setThreadDaemon(boolean threadDaemon) {
+        this.threadDaemon = threadDaemon;
+        return this;
+    }
+
+    public AffinityDefinition getAffinity() {
+        return affinity;
+    }
+
+    public DisruptorInstanceDefinition setAffinity(AffinityDefinition affinity) {
+        this.affinity = affinity;
+        return this;
+    }
+
+    public BlockingDefinition getBlocking() {
+        return blocking;
+    }
+
+    public DisruptorInstanceDefinition setBlocking(BlockingDefinition blocking) {
+        this.blocking = blocking;
+        return this;
+    }
+
+    public BackpressureDefinition getBackpressure() {
+        return backpressure;
+    }
+
+    public DisruptorInstanceDefinition setBackpressure(BackpressureDefinition backpressure) {
+        this.backpressure = backpressure;
+        return this;
+    }
+
+    public BatchDefinition getBatch() {
+        return batch;
+    }
+
+    public DisruptorInstanceDefinition setBatch(BatchDefinition batch) {
+        this.batch = batch;
+        return this;
+    }
+
+    public JournalDefinition getJournal() {
+        return journal;
+    }
+
+    public DisruptorInstanceDefinition setJournal(JournalDefinition journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public DisruptorInstanceDefinition setRoutes(List<String> routes) {
+        this.routes = routes;
+        return this;
+    }
+
+    public List<EventHandlerDefinition> getHandlerDefinitions() {
+        return handlerDefinitions;
+    }
+
+    public DisruptorInstanceDefinition setHandlerDefinitions(List<EventHandlerDefinition> handlerDefinitions) {
+        this.handlerDefinitions = handlerDefinitions;
+        return this;
+    }
+
+    public List<StageDefinition> getTopology() {
+        return topology;
+    }
+
+    public DisruptorInstanceDefinition setTopology(List<StageDefinition> topology) {
+        this.topology = topology;
+        return this;
+    }
+
+
+    @Override
+    public String toString() {
+        return "DisruptorInstanceDefinition{" +
+                "ringBufferSize=" + ringBufferSize +
+                ", producerType=" + producerType +
+                ", waitStrategy=" + waitStrategy +
+                ", partitions=" + partitions +
+                ", workerPool=" + workerPool +
+                ", clearSlots=" + clearSlots +
+                ", threadNamePrefix='" + threadNamePrefix + '\'' +
+                ", threadDaemon=" + threadDaemon +
+                ", affinity=" + affinity +
+                ", blocking=" + blocking +
+                ", backpressure=" + backpressure +
+                ", batch=" + batch +
+                ", journal=" + journal +
+                ", routes=" + routes +
+                ", handlerDefinitions=" + handlerDefinitions +
+                ", topology=" + topology +
+                '}';
+    }
+}
@@ -20,7 +20,7 @@ package com.aeolus.disruptor.context.config;
 public class EventHandlerDefinition {
 
     /**
-     * 当前处理器所在位置
+     * 当前处理器所在位置，同一事件匹配多个处理器时按此值升序执行
      */
     private int order = 0;
 
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 预写日志定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     journal:
+ *       enabled: true
+ *       directory: /data/disruptor/journal
+ *       segment-size: 64MB
+ *       fsync: true
+ *       fsync-interval: 10ms
+ *       roll-interval: 1h
+ *       retention-time: 7d
+ *       retention-size: 10GB
+ *       compaction: true
+ *       maintenance-interval: 1m
+ * </pre>
+ *
+ * <p>开启后每个发布到 RingBuffer 的事件在分发前追加到日志，所有消费者处理完成后确认.
+ * 启动时未确认的事件直接重新发布到原实例的 RingBuffer，不经过背压策略，提供至少一次的处理语义.
+ *
+ * <p>retention-time 与 retention-size 都为0时，已确认的分段立即删除；否则已确认的分段保留到超过其中一个期限，
+ * 可以按 key 或时间范围重放. 开启 compaction 时，保留的分段在后台压缩为每个 key 只保留最新的事件.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.store.MappedJournal
+ */
+public class JournalDefinition {
+
+    /**
+     * 是否开启预写日志
+     */
+    private boolean enabled = false;
+
+    /**
+     * 日志目录，各实例使用以实例名命名的子目录，开启时必须设置，应位于持久存储上. 实例目录同一时间只能由一个进程使用
+     */
+    private String directory;
+
+    /**
+     * 日志分段大小，写满后滚动到新的分段
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 是否在分发前将日志刷写到磁盘，关闭时由操作系统决定写回时机
+     */
+    private boolean fsync = true;
+
+    /**
+     * 组提交间隔，为0时每批事件刷写一次，否则同一间隔内的多批事件合并刷写
+     */
+    private Duration fsyncInterval = Duration.ZERO;
+
+    /**
+     * 分段最长的写入时间，超过后滚动到新的分段，为0时只按大小滚动
+     */
+    private Duration rollInterval = Duration.ZERO;
+
+    /**
+     * 已确认分段的保留时间，按分段最后一个事件的写入时间计算，为0时不按时间保留
+     */
+    private Duration retentionTime = Duration.ZERO;
+
+    /**
+     * 所有分段的总大小上限，超过时删除最早的已确认分段，为0时不按大小保留
+     */
+    private DataSize retentionSize = DataSize.ofBytes(0);
+
+    /**
+     * 是否压缩保留的已确认分段，每个 key 只保留最新的事件，没有 key 的事件全部保留
+     */
+    private boolean compaction = false;
+
+    /**
+     * 后台检查保留期限和压缩的间隔
+     */
+    private Duration maintenanceInterval = Duration.ofMinutes(1);
+
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public JournalDefinition setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public JournalDefinition setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public JournalDefinition setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public JournalDefinition setFsync(boolean fsync) {
+        this.fsync = fsync;
+        return this;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public JournalDefinition setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+        return this;
+    }
+
+    public Duration getRollInterval() {
+        return rollInterval;
+    }
+
+    public JournalDefinition setRollInterval(Duration rollInterval) {
+        this.rollInterval = rollInterval;
+        return this;
+    }
+
+    public Duration getRetentionTime() {
+        return retentionTime;
+    }
+
+    public JournalDefinition setRetentionTime(Duration retentionTime) {
+        this.retentionTime = retentionTime;
+        return this;
+    }
+
+    public DataSize getRetentionSize() {
+        return retentionSize;
+    }
+
+    public JournalDefinition setRetentionSize(DataSize retentionSize) {
+        this.retentionSize = retentionSize;
+        return this;
+    }
+
+    public boolean isCompaction() {
+        return compaction;
+    }
+
+    public JournalDefinition setCompaction(boolean compaction) {
+        this.compaction = compaction;
+        return this;
+    }
+
+    public Duration getMaintenanceInterval() {
+        return maintenanceInterval;
+    }
+
+    public JournalDefinition setMaintenanceInterval(Duration maintenanceInterval) {
+        this.maintenanceInterval = maintenanceInterval;
+        return this;
+    }
+
+    /**
+     * 是否保留已确认的分段.
+     *
+     * @return retention-time 或 retention-size 大于0
+     */
+    public boolean isRetained() {
+        return !retentionTime.isZero() || retentionSize.toBytes() > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalDefinition{" +
+                "enabled=" + enabled +
+                ", directory='" + directory + '\'' +
+                ", segmentSize=" + segmentSize +
+                ", fsync=" + fsync +
+                ", fsyncInterval=" + fsyncInterval +
+                ", rollInterval=" + rollInterval +
+                ", retentionTime=" + retentionTime +
+                ", retentionSize=" + retentionSize +
+                ", compaction=" + compaction +
+                ", maintenanceInterval=" + maintenanceInterval +
+                '}';
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外 RingBuffer 定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     off-heap-rings:
+ *       quotes:
+ *         ring-buffer-size: 1048576
+ *         slot-size: 128B
+ *         arena-size: 256MB
+ *         producer-type: single
+ *         wait-strategy:
+ *           type: yielding
+ *         directory: /dev/shm/disruptor
+ *         handlers: quoteHandler, quoteRecorder
+ * </pre>
+ *
+ * <p>handlers 为实现{@link com.aeolus.disruptor.context.offheap.OffHeapEventHandler}的 Bean name，
+ * 所有处理器作为同一阶段并行消费每个事件，每个处理器一个消费者线程.
+ *
+ * <p>arena-size 大于0时创建{@link com.aeolus.disruptor.context.offheap.PayloadArena}，超过槽位容量的变长 data
+ * 写入 arena，槽位中只保存偏移和长度.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.offheap.OffHeapRing
+ */
+public class OffHeapRingDefinition {
+
+    /**
+     * 槽位数量，必须为2的幂
+     */
+    private int ringBufferSize = 1024;
+
+    /**
+     * 槽位大小，包括32字节的头部，向上按8字节对齐. 槽位数量与槽位大小的乘积不能超过2GB
+     */
+    private DataSize slotSize = DataSize.ofBytes(256);
+
+    /**
+     * 变长 data 的 arena 大小，不能超过2GB. 为0时不创建 arena，data 只能内联在槽位中
+     */
+    private DataSize arenaSize = DataSize.ofBytes(0);
+
+    /**
+     * 生产者模式
+     */
+    private ProducerMode producerType = ProducerMode.AUTO;
+
+    /**
+     * 等待策略
+     */
+    private WaitStrategyDefinition waitStrategy = new WaitStrategyDefinition();
+
+    /**
+     * 内存映射文件目录，文件以 RingBuffer 名称命名，关闭时删除. 为空时使用直接内存
+     */
+    private String directory;
+
+    /**
+     * 处理器 Bean name
+     */
+    private List<String> handlers = new ArrayList<>();
+
+    /**
+     * 消费者线程名前缀，为空时使用 RingBuffer 名称
+     */
+    private String threadNamePrefix;
+
+    /**
+     * 消费者线程是否守护线程
+     */
+    private boolean threadDaemon = false;
+
+
+    public int getRingBufferSize() {
+        return ringBufferSize;
+    }
+
+    public OffHeapRingDefinition setRingBufferSize(int ringBufferSize) {
+        this.ringBufferSize = ringBufferSize;
+        return this;
+    }
+
+    public DataSize getSlotSize() {
+        return slotSize;
+    }
+
+    public OffHeapRingDefinition setSlotSize(DataSize slotSize) {
+        this.slotSize = slotSize;
+        return this;
+    }
+
+    public DataSize getArenaSize() {
+        return arenaSize;
+    }
+
+    public OffHeapRingDefinition setArenaSize(DataSize arenaSize) {
+        this.arenaSize = arenaSize;
+        return this;
+    }
+
+    public ProducerMode getProducerType() {
+        return producerType;
+    }
+
+    public OffHeapRingDefinition setProducerType(ProducerMode producerType) {
+        this.producerType = producerType;
+        return this;
+    }
+
+    public WaitStrategyDefinition getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public OffHeapRingDefinition setWaitStrategy(WaitStrategyDefinition waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public OffHeapRingDefinition setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public List<String> getHandlers() {
+        return handlers;
+    }
+
+    public OffHeapRingDefinition setHandlers(List<String> handlers) {
+        this.handlers = handlers;
+        return this;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public OffHeapRingDefinition setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+        return this;
+    }
+
+    public boolean isThreadDaemon() {
+        return threadDaemon;
+    }
+
+    public OffHeapRingDefinition setThreadDaemon(boolean threadDaemon) {
+        this.threadDaemon = threadDaemon;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRingDefinition{" +
+                "ringBufferSize=" + ringBufferSize +
+                ", slotSize=" + slotSize +
+                ", arenaSize=" + arenaSize +
+                ", producerType=" + producerType +
+                ", waitStrategy=" + waitStrategy +
+                ", directory='" + directory + '\'' +
+                ", handlers=" + handlers +
+                ", threadNamePrefix='" + threadNamePrefix + '\'' +
+                ", threadDaemon=" + threadDaemon +
+                '}';
+    }
+}
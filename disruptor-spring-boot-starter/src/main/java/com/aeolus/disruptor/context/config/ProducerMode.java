@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * 生产者模式.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see ProducerType
+ */
+public enum ProducerMode {
+
+    /**
+     * 单生产者，只能由同一个线程发布事件.
+     */
+    SINGLE,
+
+    /**
+     * 多生产者，可以由任意线程并发发布事件.
+     */
+    MULTI,
+
+    /**
+     * 按应用类型选择：Web 应用中 DisruptorTemplate 会被多个请求线程共享，使用多生产者，否则使用单生产者.
+     */
+    AUTO;
+
+
+    /**
+     * 解析为 Disruptor 的生产者类型.
+     *
+     * @param applicationContext 应用上下文，可以为 {@code null}
+     * @return 生产者类型
+     */
+    public ProducerType resolve(ApplicationContext applicationContext) {
+        switch (this) {
+            case SINGLE:
+                return ProducerType.SINGLE;
+            case MULTI:
+                return ProducerType.MULTI;
+            default:
+                return applicationContext instanceof WebServerApplicationContext ? ProducerType.MULTI : ProducerType.SINGLE;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+/**
+ * 路由定义，即一条规则表达式与一个处理器的绑定.
+ *
+ * <p>来源于{@link com.aeolus.disruptor.annotation.EventRule}注解或配置文件的 handler-definitions 属性.
+ * 同一事件匹配多条路由定义时，按{@link #getOrder()}升序组成处理器链.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see EventHandlerDefinition
+ */
+public class RouteDefinition {
+
+    /**
+     * Ant风格的规则表达式
+     */
+    private final String express;
+
+    /**
+     * 处理器 Bean name
+     */
+    private final String beanName;
+
+    /**
+     * 处理器在处理器链中的位置，值越小越靠前
+     */
+    private final int order;
+
+
+    public RouteDefinition(String express, String beanName, int order) {
+        this.express = express;
+        this.beanName = beanName;
+        this.order = order;
+    }
+
+    public String getExpress() {
+        return express;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteDefinition{" +
+                "express='" + express + '\'' +
+                ", beanName='" + beanName + '\'' +
+                ", order=" + order +
+                '}';
+    }
+}
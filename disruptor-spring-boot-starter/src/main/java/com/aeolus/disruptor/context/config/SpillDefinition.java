@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * spill 发布策略的溢出文件定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     producer-type: multi
+ *     backpressure:
+ *       policy: spill
+ *       spill:
+ *         directory: /data/disruptor/spill
+ *         segment-size: 64MB
+ *         drain-timeout: 10s
+ * </pre>
+ *
+ * <p>溢出文件只是 RingBuffer 的弹性扩展，不保证持久化：关闭时未回填的事件会被丢弃，启动时会删除残留的溢出文件.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.support.Spill
+ */
+public class SpillDefinition {
+
+    /**
+     * 溢出文件目录，各实例使用以实例名命名的子目录，同一时间只能由一个进程使用.
+     * 为空时各实例在 {@code java.io.tmpdir} 下创建本进程独占的临时目录，关闭时删除
+     */
+    private String directory;
+
+    /**
+     * 溢出文件的分段大小，大于分段的事件单独占用一个分段
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 关闭时等待溢出事件回填到 RingBuffer 的最长时间
+     */
+    private Duration drainTimeout = Duration.ofSeconds(10);
+
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public SpillDefinition setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public SpillDefinition setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public SpillDefinition setDrainTimeout(Duration drainTimeout) {
+        this.drainTimeout = drainTimeout;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SpillDefinition{" +
+                "directory='" + directory + '\'' +
+                ", segmentSize=" + segmentSize +
+                ", drainTimeout=" + drainTimeout +
+                '}';
+    }
+}
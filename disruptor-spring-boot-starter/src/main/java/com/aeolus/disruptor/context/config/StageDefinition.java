@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 处理阶段定义.
+ *
+ * <p>每个阶段由独立的消费者线程处理，只执行本阶段处理器的处理器链；
+ * 没有依赖的阶段并行处理同一事件，有依赖的阶段等待所依赖的阶段处理完同一事件后才处理.
+ * 没有归属任何阶段的处理器组成名为 {@code default} 的阶段.
+ *
+ * 配置文件中使用示例（菱形）：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     topology:
+ *     - name: persist
+ *       handlers: inDbPreHandler
+ *     - name: audit
+ *       handlers: auditHandler
+ *     - name: notify
+ *       after: persist, audit
+ *       handlers: smsPostHandler, emailPostHandler
+ *       worker-pool: true
+ *       partitions: 8
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.annotation.EventStage
+ */
+public class StageDefinition {
+
+    /**
+     * 阶段名
+     */
+    private String name;
+
+    /**
+     * 所依赖的阶段名
+     */
+    private List<String> after = new ArrayList<>();
+
+    /**
+     * 本阶段的处理器 Bean name
+     */
+    private List<String> handlers = new ArrayList<>();
+
+    /**
+     * 本阶段的分区消费者数量（工作池模式下为工作者数量），小于等于0时与所在 Disruptor 实例相同
+     */
+    private int partitions = 0;
+
+    /**
+     * 是否工作池模式：多个工作者竞争消费，不保证同一 key 的处理顺序，只适用于无状态或线程安全的处理器
+     */
+    private boolean workerPool = false;
+
+
+    public String getName() {
+        return name;
+    }
+
+    public StageDefinition setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public List<String> getAfter() {
+        return after;
+    }
+
+    public StageDefinition setAfter(List<String> after) {
+        this.after = after;
+        return this;
+    }
+
+    public List<String> getHandlers() {
+        return handlers;
+    }
+
+    public StageDefinition setHandlers(List<String> handlers) {
+        this.handlers = handlers;
+        return this;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public StageDefinition setPartitions(int partitions) {
+        this.partitions = partitions;
+        return this;
+    }
+
+    public boolean isWorkerPool() {
+        return workerPool;
+    }
+
+    public StageDefinition setWorkerPool(boolean workerPool) {
+        this.workerPool = workerPool;
+        return this;
+    }
+
+
+    @Override
+    public String toString() {
+        return "StageDefinition{" +
+                "name='" + name + '\'' +
+                ", after=" + after +
+                ", handlers=" + handlers +
+                ", partitions=" + partitions +
+                ", workerPool=" + workerPool +
+                '}';
+    }
+}
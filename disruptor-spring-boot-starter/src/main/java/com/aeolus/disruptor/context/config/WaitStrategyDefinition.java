@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.config;
+
+import com.aeolus.disruptor.context.waitstrategy.WaitStrategyType;
+
+import java.time.Duration;
+
+/**
+ * 等待策略定义.
+ *
+ * 配置文件中使用示例：
+ * <pre>
+ * spring:
+ *   disruptor:
+ *     wait-strategy:
+ *       type: phased-backoff
+ *       spin-timeout: 10us
+ *       yield-timeout: 100us
+ *       fallback: lite-blocking
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.waitstrategy.WaitStrategys#newWaitStrategy(WaitStrategyDefinition)
+ */
+public class WaitStrategyDefinition {
+
+    /**
+     * 等待策略类型
+     */
+    private WaitStrategyType type = WaitStrategyType.SLEEPING;
+
+    /**
+     * timeout-blocking、lite-timeout-blocking 的超时时间
+     */
+    private Duration timeout = Duration.ofMillis(100);
+
+    /**
+     * sleeping 的自旋与让出CPU的总次数
+     */
+    private int retries = 200;
+
+    /**
+     * sleeping 每次睡眠的时间
+     */
+    private Duration sleepTime = Duration.ofNanos(100);
+
+    /**
+     * phased-backoff 的自旋时间；adaptive 平均空闲时间不超过此值时自旋
+     */
+    private Duration spinTimeout = Duration.ofNanos(10_000);
+
+    /**
+     * phased-backoff 的自旋与让出CPU的总时间；adaptive 平均空闲时间不超过此值时让出CPU，否则阻塞
+     */
+    private Duration yieldTimeout = Duration.ofNanos(100_000);
+
+    /**
+     * adaptive 到达速率（事件数/秒）不低于此值时自旋，小于等于0时不按到达速率判断
+     */
+    private long spinArrivalRate = 100_000L;
+
+    /**
+     * phased-backoff 最后阶段的等待策略，只能是 blocking、lite-blocking、sleeping
+     */
+    private WaitStrategyType fallback = WaitStrategyType.BLOCKING;
+
+
+    public WaitStrategyType getType() {
+        return type;
+    }
+
+    public WaitStrategyDefinition setType(WaitStrategyType type) {
+        this.type = type;
+        return this;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public WaitStrategyDefinition setTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public WaitStrategyDefinition setRetries(int retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    public Duration getSleepTime() {
+        return sleepTime;
+    }
+
+    public WaitStrategyDefinition setSleepTime(Duration sleepTime) {
+        this.sleepTime = sleepTime;
+        return this;
+    }
+
+    public Duration getSpinTimeout() {
+        return spinTimeout;
+    }
+
+    public WaitStrategyDefinition setSpinTimeout(Duration spinTimeout) {
+        this.spinTimeout = spinTimeout;
+        return this;
+    }
+
+    public Duration getYieldTimeout() {
+        return yieldTimeout;
+    }
+
+    public WaitStrategyDefinition setYieldTimeout(Duration yieldTimeout) {
+        this.yieldTimeout = yieldTimeout;
+        return this;
+    }
+
+    public long getSpinArrivalRate() {
+        return spinArrivalRate;
+    }
+
+    public WaitStrategyDefinition setSpinArrivalRate(long spinArrivalRate) {
+        this.spinArrivalRate = spinArrivalRate;
+        return this;
+    }
+
+    public WaitStrategyType getFallback() {
+        return fallback;
+    }
+
+    public WaitStrategyDefinition setFallback(WaitStrategyType fallback) {
+        this.fallback = fallback;
+        return this;
+    }
+
+
+    @Override
+    public String toString() {
+        return "WaitStrategyDefinition{" +
+                "type=" + type +
+                ", timeout=" + timeout +
+                ", retries=" + retries +
+                ", sleepTime=" + sleepTime +
+                ", spinTimeout=" + spinTimeout +
+                ", yieldTimeout=" + yieldTimeout +
+                ", spinArrivalRate=" + spinArrivalRate +
+                ", fallback=" + fallback +
+                '}';
+    }
+}
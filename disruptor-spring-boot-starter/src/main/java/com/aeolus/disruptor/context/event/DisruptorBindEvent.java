@@ -32,6 +32,9 @@ public class DisruptorBindEvent extends DisruptorEvent {
     /** Event Keys */
     private String key;
 
+    /** 预先注册的路由键，0 表示未注册 */
+    private long routeKey;
+
     /**
      * Constructs a prototypical Event.
      *
@@ -44,6 +47,9 @@ public class DisruptorBindEvent extends DisruptorEvent {
 
     /**
      * 返回表达式.
+     *
+     * <p>每次调用都会创建新的字符串，分发时按{@link #getRouteKey()}或 event、tag、key 解析路由，
+     * 这里仅用于兼容和诊断.
      */
     public String getRouteExpression() {
 
@@ -84,6 +90,21 @@ public class DisruptorBindEvent extends DisruptorEvent {
         return this;
     }
 
+    /**
+     * 返回预先注册的路由键.
+     *
+     * @return 路由键，0 表示未注册
+     * @see com.aeolus.disruptor.context.route.RouteVocabulary
+     */
+    public long getRouteKey() {
+        return routeKey;
+    }
+
+    public DisruptorBindEvent setRouteKey(long routeKey) {
+        this.routeKey = routeKey;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "DisruptorBindEvent{" +
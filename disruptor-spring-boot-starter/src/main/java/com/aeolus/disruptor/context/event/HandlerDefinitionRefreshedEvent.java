@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.event;
+
+import com.aeolus.disruptor.context.config.RouteDefinition;
+
+import java.util.List;
+
+/**
+ * 处理器链定义变更事件.
+ *
+ * <p>处理器链定义在运行时发生变化后发布，绑定变更后的路由定义，
+ * 监听者据此重新编译路由并失效路由缓存.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class HandlerDefinitionRefreshedEvent extends DisruptorApplicationEvent<List<RouteDefinition>> {
+
+    private static final long serialVersionUID = -3175294736109386045L;
+
+    public HandlerDefinitionRefreshedEvent(Object source, List<RouteDefinition> routeDefinitions) {
+        super(source, routeDefinitions);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.event;
+
+/**
+ * 携带数值的数据事件.
+ *
+ * <p>价格、数量、编号等数值保存在 long、double、int 基本类型字段中，不需要装箱为 data 对象.
+ * 默认的事件工厂创建此类型的 ringbuffer 槽位，通过{@link com.aeolus.disruptor.client.DisruptorTemplate}的数值重载
+ * 发布时只写入槽位的字段，不创建对象.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.factory.NumericDataEventFactory
+ */
+public class NumericDataEvent<T> extends DisruptorDataEvent<T> {
+
+    private long longValue;
+
+    private double doubleValue;
+
+    private int intValue;
+
+
+    /**
+     * Constructs a prototypical Event.
+     *
+     * @param source The object on which the Event initially occurred.
+     * @throws IllegalArgumentException if source is null.
+     */
+    public NumericDataEvent(Object source) {
+        super(source);
+    }
+
+    /**
+     * 返回数据事件中的 long 数值.
+     *
+     * @param event 数据事件
+     * @return {@link NumericDataEvent}的 long 字段，或数值类型 data 的 long 值
+     * @throws IllegalArgumentException 数据事件不携带数值
+     */
+    public static long longValueOf(DisruptorDataEvent<?> event) {
+        if (event instanceof NumericDataEvent) {
+            return ((NumericDataEvent<?>) event).longValue;
+        }
+        return numberOf(event).longValue();
+    }
+
+    /**
+     * 返回数据事件中的 double 数值.
+     *
+     * @param event 数据事件
+     * @return {@link NumericDataEvent}的 double 字段，或数值类型 data 的 double 值
+     * @throws IllegalArgumentException 数据事件不携带数值
+     */
+    public static double doubleValueOf(DisruptorDataEvent<?> event) {
+        if (event instanceof NumericDataEvent) {
+            return ((NumericDataEvent<?>) event).doubleValue;
+        }
+        return numberOf(event).doubleValue();
+    }
+
+    /**
+     * 返回数据事件中的 int 数值.
+     *
+     * @param event 数据事件
+     * @return {@link NumericDataEvent}的 int 字段，或数值类型 data 的 int 值
+     * @throws IllegalArgumentException 数据事件不携带数值
+     */
+    public static int intValueOf(DisruptorDataEvent<?> event) {
+        if (event instanceof NumericDataEvent) {
+            return ((NumericDataEvent<?>) event).intValue;
+        }
+        return numberOf(event).intValue();
+    }
+
+    private static Number numberOf(DisruptorDataEvent<?> event) {
+        Object data = event.getData();
+        if (data instanceof Number) {
+            return (Number) data;
+        }
+        throw new IllegalArgumentException("Event " + event.getRouteExpression() + " carries no numeric value");
+    }
+
+    public long getLongValue() {
+        return longValue;
+    }
+
+    public NumericDataEvent<T> setLongValue(long longValue) {
+        this.longValue = longValue;
+        return this;
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public NumericDataEvent<T> setDoubleValue(double doubleValue) {
+        this.doubleValue = doubleValue;
+        return this;
+    }
+
+    public int getIntValue() {
+        return intValue;
+    }
+
+    public NumericDataEvent<T> setIntValue(int intValue) {
+        this.intValue = intValue;
+        return this;
+    }
+
+    /**
+     * 复制数值字段，来源不是{@link NumericDataEvent}时清空.
+     *
+     * @param source 来源数据事件
+     * @return 当前事件
+     */
+    public NumericDataEvent<T> copyValues(DisruptorDataEvent<?> source) {
+        if (source instanceof NumericDataEvent) {
+            NumericDataEvent<?> numeric = (NumericDataEvent<?>) source;
+            this.longValue = numeric.longValue;
+            this.doubleValue = numeric.doubleValue;
+            this.intValue = numeric.intValue;
+        } else {
+            clearValues();
+        }
+        return this;
+    }
+
+    public NumericDataEvent<T> clearValues() {
+        this.longValue = 0L;
+        this.doubleValue = 0D;
+        this.intValue = 0;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "NumericDataEvent{" +
+                "longValue=" + longValue +
+                ", doubleValue=" + doubleValue +
+                ", intValue=" + intValue +
+                "} " + super.toString();
+    }
+}
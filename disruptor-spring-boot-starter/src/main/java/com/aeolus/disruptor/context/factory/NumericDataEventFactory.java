@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.factory;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.lmax.disruptor.EventFactory;
+
+/**
+ * 数值数据事件工厂类.
+ * <p>创建的槽位除 data 外还有 long、double、int 字段，数值事件经过 ringbuffer 时不需要装箱.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see NumericDataEvent
+ */
+public class NumericDataEventFactory implements EventFactory<DisruptorDataEvent> {
+
+    /**
+     * 返回 {@code NumericDataEvent} 对象实例.
+     * @return NumericDataEvent
+     */
+    @Override
+    public DisruptorDataEvent newInstance() {
+        return new NumericDataEvent(this);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorBindEvent;
+
+/**
+ * 支持前置、后置处理的disruptor事件处理器.
+ *
+ * <p>在处理器链中，{@link #preHandle}在本处理器的{@link #doHandler}之前调用，返回 {@code false} 时中断处理器链，
+ * 本处理器以及之后的处理器都不再执行. 处理器链正常执行完成后按相反顺序调用{@link #postHandle}，
+ * 无论是否中断或抛出异常，都会按相反顺序调用已通过前置处理的处理器的{@link #afterCompletion}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @version v1.0
+ * @see HandlerChain
+ */
+public interface AdviceDisruptorHandler<T extends DisruptorBindEvent> extends DisruptorHandler<T> {
+
+    /**
+     * 前置处理.
+     *
+     * @param event 数据事件
+     * @return 是否继续执行处理器链
+     * @throws Exception 处理异常
+     */
+    default boolean preHandle(T event) throws Exception {
+        return true;
+    }
+
+    /**
+     * 后置处理，只在处理器链正常执行完成后调用.
+     *
+     * @param event 数据事件
+     * @throws Exception 处理异常
+     */
+    default void postHandle(T event) throws Exception {
+    }
+
+    /**
+     * 处理器链结束后调用，用于释放资源.
+     *
+     * @param event 数据事件
+     * @param ex 处理器链抛出的异常，没有异常时为 {@code null}
+     * @throws Exception 处理异常
+     */
+    default void afterCompletion(T event, Exception ex) throws Exception {
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorBindEvent;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步事件处理器，适用于非阻塞 HTTP 客户端、异步 JDBC 驱动等返回{@link CompletionStage}的调用.
+ *
+ * <p>分区分发器不等待{@link #doHandlerAsync}完成就继续处理后续事件，同时未完成的事件数量受
+ * {@code max-in-flight} 限制. 事件按序号顺序记录完成进度，最早一个未完成事件完成后才释放其后的 RingBuffer 容量，
+ * 事件完成前所在槽位不会被生产者覆盖.
+ *
+ * <p>处理器链中异步处理器之后的处理器在其完成后执行. 工作池等不支持异步执行的场景通过{@link #doHandler}同步等待.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see HandlerChain#doHandlerAsync
+ */
+public interface AsyncDisruptorHandler<T extends DisruptorBindEvent> extends DisruptorHandler<T> {
+
+    /**
+     * 异步处理事件.
+     *
+     * @param event 数据事件，返回的{@link CompletionStage}完成前有效
+     * @return 处理完成的{@link CompletionStage}
+     * @throws Exception 处理异常
+     */
+    CompletionStage<?> doHandlerAsync(T event) throws Exception;
+
+    /**
+     * 同步处理事件，等待{@link #doHandlerAsync}完成.
+     *
+     * @param event 数据事件
+     * @throws Exception 处理异常
+     */
+    @Override
+    default void doHandler(T event) throws Exception {
+        try {
+            doHandlerAsync(event).toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
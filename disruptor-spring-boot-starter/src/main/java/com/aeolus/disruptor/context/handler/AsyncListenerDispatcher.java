@@ -16,25 +16,179 @@
 
 package com.aeolus.disruptor.context.handler;
 
+import com.aeolus.disruptor.context.config.BatchDefinition;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.TimeoutHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * 异步事件分发处理类.
  *
+ * <p>分区模式下同一个 RingBuffer 上有多个分发器，每个分发器由各自的{@link BatchEventProcessor}驱动，
+ * 只处理 key 哈希到本分区的事件，其余事件直接跳过. 相同 key 的事件总在同一线程上按序处理，
+ * 不同 key 的事件在多个线程上并行处理. 未设置 key 的事件按事件名分区.
+ *
+ * <p>分区模式下处理器会被多个线程同时调用，需要保证线程安全.
+ *
+ * <p>设置了{@link BlockingHandlerExecutor}时，包含{@link BlockingDisruptorHandler}的处理器链卸载执行，
+ * 包含{@link AsyncDisruptorHandler}的处理器链异步执行，分发线程同样继续处理后续事件.
+ * 关闭时等待本分发器卸载或异步执行的处理器链完成.
+ *
+ * <p>{@link BatchDisruptorHandler}匹配的事件按处理器缓存，在一批事件结束（{@code endOfBatch}）或达到批次上限时交付.
+ * 批次只在{@link BatchEventProcessor}的一批事件内累积，交付前槽位不会被覆盖.
+ * 设置了 linger 时批次跨越多批事件累积，达到上限或等待超过 linger 时交付，
+ * 空闲时由等待策略超时（{@link TimeoutHandler}）交付，关闭时交付剩余的批次.
+ *
  * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
  * @version v1.0
  */
-public class AsyncListenerDispatcher implements EventHandler<DisruptorDataEvent> {
+public class AsyncListenerDispatcher implements EventHandler<DisruptorDataEvent>, LifecycleAware, TimeoutHandler {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncListenerDispatcher.class);
 
     private PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver;
 
+    /** 当前分区 */
+    private final int partition;
+
+    /** 分区数量 */
+    private final int partitions;
+
+    /** 阻塞、异步处理器链的执行器，为 {@code null} 时在分发线程上同步执行 */
+    private final BlockingHandlerExecutor blockingExecutor;
+
+    /** 卸载执行的完成进度 */
+    private final SequenceCompletionTracker tracker;
+
+    /** 批量处理器的事件批次 */
+    private final EventBatches eventBatches;
+
 
     public AsyncListenerDispatcher(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver) {
+        this(pathMatchingHandlerChainResolver, 0, 1);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param pathMatchingHandlerChainResolver 处理器解析类
+     * @param partition 当前分区，从0开始
+     * @param partitions 分区数量
+     */
+    public AsyncListenerDispatcher(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+                                   int partition, int partitions) {
+        this(pathMatchingHandlerChainResolver, partition, partitions, null, new BatchDefinition(), null);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param pathMatchingHandlerChainResolver 处理器解析类
+     * @param partition 当前分区，从0开始
+     * @param partitions 分区数量
+     * @param blockingExecutor 阻塞处理器链的卸载执行器，可以为null
+     * @param batch 批量处理器的批次定义
+     * @param ringBuffer 分发的 RingBuffer，批次定义设置了 linger 时不能为null
+     */
+    public AsyncListenerDispatcher(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+                                   int partition, int partitions, BlockingHandlerExecutor blockingExecutor,
+                                   BatchDefinition batch, RingBuffer<DisruptorDataEvent> ringBuffer) {
+        if (partitions < 1 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Illegal partition " + partition + " of " + partitions);
+        }
         this.pathMatchingHandlerChainResolver = pathMatchingHandlerChainResolver;
+        this.partition = partition;
+        this.partitions = partitions;
+        this.blockingExecutor = blockingExecutor;
+        this.tracker = blockingExecutor == null ? null : blockingExecutor.newTracker();
+        this.eventBatches = new EventBatches(batch.getMaxSize(),
+                batch.getLinger() == null ? 0L : batch.getLinger().toNanos(), ringBuffer);
+    }
+
+    /**
+     * 创建分区分发器，每个分区一个.
+     *
+     * @param pathMatchingHandlerChainResolver 处理器解析类
+     * @param partitions 分区数量
+     * @return 分区分发器
+     */
+    public static AsyncListenerDispatcher[] partitioned(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+                                                        int partitions) {
+        return partitioned(pathMatchingHandlerChainResolver, partitions, null, new BatchDefinition(), null);
+    }
+
+    /**
+     * 创建分区分发器，每个分区一个.
+     *
+     * @param pathMatchingHandlerChainResolver 处理器解析类
+     * @param partitions 分区数量
+     * @param blockingExecutor 阻塞处理器链的卸载执行器，可以为null
+     * @param batch 批量处理器的批次定义
+     * @param ringBuffer 分发的 RingBuffer，批次定义设置了 linger 时不能为null
+     * @return 分区分发器
+     */
+    public static AsyncListenerDispatcher[] partitioned(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+                                                        int partitions, BlockingHandlerExecutor blockingExecutor,
+                                                        BatchDefinition batch,
+                                                        RingBuffer<DisruptorDataEvent> ringBuffer) {
+        AsyncListenerDispatcher[] dispatchers = new AsyncListenerDispatcher[partitions];
+        for (int i = 0; i < partitions; i++) {
+            dispatchers[i] = new AsyncListenerDispatcher(pathMatchingHandlerChainResolver, i, partitions,
+                    blockingExecutor, batch, ringBuffer);
+        }
+        return dispatchers;
+    }
+
+    /**
+     * 计算事件所属分区.
+     *
+     * @param event 数据事件
+     * @param partitions 分区数量
+     * @return 分区，从0开始
+     */
+    public static int partitionOf(DisruptorDataEvent event, int partitions) {
+        if (partitions == 1) {
+            return 0;
+        }
+        String key = event.getKey();
+        int hash = key != null ? key.hashCode() : Objects.hashCode(event.getEvent());
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % partitions;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * 返回本分发器在自身序号之外额外注册的 gating sequence，即卸载执行的完成进度与 linger 批次的保护序号.
+     * 这些序号之后的槽位仍可能被卸载执行的处理器链或缓存的批次引用.
+     *
+     * @return 额外的 gating sequence，没有时为空数组
+     */
+    public Sequence[] getGatingSequences() {
+        List<Sequence> sequences = new ArrayList<>(2);
+        if (this.tracker != null) {
+            sequences.add(this.tracker.getSequence());
+        }
+        if (this.eventBatches.getGate() != null) {
+            sequences.add(this.eventBatches.getGate());
+        }
+        return sequences.toArray(new Sequence[0]);
     }
 
     /**
@@ -52,7 +206,58 @@ public class AsyncListenerDispatcher implements EventHandler<DisruptorDataEvent>
      */
     @Override
     public void onEvent(DisruptorDataEvent dataEvent, long sequence, boolean endOfBatch) throws Exception {
-        DisruptorHandler handler = this.pathMatchingHandlerChainResolver.getExecutionChain(dataEvent);
-        handler.doHandler(dataEvent);
+        if (this.partitions == 1 || partitionOf(dataEvent, this.partitions) == this.partition) {
+            dispatch(dataEvent, sequence);
+        }
+        if (endOfBatch && this.eventBatches.isPending()) {
+            this.eventBatches.endOfBatch(sequence);
+        }
+    }
+
+    /**
+     * 等待策略超时，没有新的事件到达，交付所有缓存的批次.
+     *
+     * @param sequence 当前已处理的序号
+     * @throws Exception 处理异常
+     */
+    @Override
+    public void onTimeout(long sequence) throws Exception {
+        if (this.eventBatches.isPending()) {
+            this.eventBatches.flush();
+        }
+    }
+
+    private void dispatch(DisruptorDataEvent dataEvent, long sequence) throws Exception {
+        HandlerChain handlerChain = this.pathMatchingHandlerChainResolver.getExecutionChain(dataEvent);
+        if (handlerChain == null) {
+            return;
+        }
+        if (this.blockingExecutor != null && handlerChain.isBlocking()) {
+            this.blockingExecutor.execute(handlerChain, dataEvent, sequence, this.tracker);
+        } else if (this.blockingExecutor != null && handlerChain.isAsync()) {
+            this.blockingExecutor.executeAsync(handlerChain, dataEvent, sequence, this.tracker);
+        } else if (handlerChain.isBatched()) {
+            handlerChain.doHandler(dataEvent, sequence, this.eventBatches);
+        } else {
+            handlerChain.doHandler(dataEvent);
+        }
+    }
+
+    @Override
+    public void onStart() {
+    }
+
+    @Override
+    public void onShutdown() {
+        if (this.eventBatches.isPending()) {
+            try {
+                this.eventBatches.flush();
+            } catch (Exception ex) {
+                LOG.error("Failed to flush pending batches on shutdown.", ex);
+            }
+        }
+        if (this.blockingExecutor != null) {
+            this.blockingExecutor.release(this.tracker);
+        }
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorBindEvent;
+
+/**
+ * 批量事件处理器，适用于 JDBC 批量写入等批量下游.
+ *
+ * <p>分区分发器为每个批量处理器缓存匹配的事件，在{@link com.lmax.disruptor.BatchEventProcessor}的一批事件结束时，
+ * 或缓存的事件达到{@link #getMaxBatchSize()}时，通过{@link #doHandlerBatch}一次交给处理器.
+ * 处理器链中其它处理器仍逐个事件执行.
+ *
+ * <p>工作池等不支持批量分发的场景，{@link #doHandler}以只有一个事件的批次调用{@link #doHandlerBatch}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see EventBatch
+ */
+public interface BatchDisruptorHandler<T extends DisruptorBindEvent> extends DisruptorHandler<T> {
+
+    /**
+     * 批量处理事件.
+     *
+     * @param batch 事件批次，只在本次调用期间有效，调用结束后会被复用
+     * @throws Exception 处理异常
+     */
+    void doHandlerBatch(EventBatch<T> batch) throws Exception;
+
+    /**
+     * 返回每批最多的事件数量.
+     *
+     * @return 每批最多的事件数量，小于等于0时使用 {@code batch.max-size} 配置
+     */
+    default int getMaxBatchSize() {
+        return 0;
+    }
+
+    /**
+     * 以只有一个事件的批次处理事件.
+     *
+     * @param event 数据事件
+     * @throws Exception 处理异常
+     */
+    @Override
+    default void doHandler(T event) throws Exception {
+        EventBatch<T> batch = new EventBatch<>(1);
+        batch.add(event, -1L);
+        doHandlerBatch(batch);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorBindEvent;
+
+/**
+ * 阻塞处理器，例如发送邮件、短信等同步网络调用.
+ *
+ * <p>包含阻塞处理器的处理器链不在分发线程上执行，而是提交到{@link BlockingHandlerExecutor}，
+ * 分发线程继续处理后续事件. 处理器链执行完成前，事件所在的槽位不会被生产者覆盖.
+ *
+ * <p>卸载执行的处理器链之间并发执行，不保证同一 key 的处理顺序，处理器需要保证线程安全.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see BlockingHandlerExecutor
+ */
+public interface BlockingDisruptorHandler<T extends DisruptorBindEvent> extends DisruptorHandler<T> {
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.config.BlockingDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.thread.DisruptorEventExecutor;
+import com.aeolus.disruptor.thread.NamedThreadFactory;
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞处理器链的卸载执行器，每个 Disruptor 实例一个.
+ *
+ * <p>JDK 21 及以上使用虚拟线程，每个处理器链一个虚拟线程；更低版本使用{@link DisruptorEventExecutor}创建的线程池.
+ * 同时执行的处理器链数量由信号量限制，达到上限时分发线程等待，背压经 RingBuffer 传递给生产者.
+ * 包含{@link AsyncDisruptorHandler}的处理器链通过{@link #executeAsync}在分发线程上发起，不占用线程，
+ * 与阻塞处理器链共享同一上限.
+ *
+ * <p>每个分发器通过{@link #newTracker()}取得各自的{@link SequenceCompletionTracker}，
+ * 关闭时等待各自登记的事件完成后{@link #release(SequenceCompletionTracker)}，最后一个分发器释放后关闭线程池.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see BlockingDisruptorHandler
+ */
+public final class BlockingHandlerExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlockingHandlerExecutor.class);
+
+    private final String name;
+
+    private final RingBuffer<DisruptorDataEvent> ringBuffer;
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    private final int maxInFlight;
+
+    /** 关闭时等待处理器链完成的最长时间，单位纳秒 */
+    private final long drainTimeoutNanos;
+
+    /** 尚未释放的分发器数量 */
+    private final AtomicInteger trackers = new AtomicInteger();
+
+    private final boolean virtual;
+
+
+    /**
+     * 构造方法
+     *
+     * @param name 实例名，用作线程名前缀
+     * @param ringBuffer RingBuffer
+     * @param definition 卸载执行定义
+     * @param daemon 线程池线程是否守护线程
+     */
+    public BlockingHandlerExecutor(String name, RingBuffer<DisruptorDataEvent> ringBuffer,
+                                   BlockingDefinition definition, boolean daemon) {
+        if (definition.getMaxInFlight() < 1) {
+            throw new IllegalArgumentException("max-in-flight must be > 0: " + definition.getMaxInFlight());
+        }
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+        this.maxInFlight = definition.getMaxInFlight();
+        this.permits = new Semaphore(this.maxInFlight);
+        this.drainTimeoutNanos = definition.getDrainTimeout().toNanos();
+        ExecutorService virtualExecutor = definition.isVirtualThreads() ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.executor = this.virtual ? virtualExecutor : new DisruptorEventExecutor()
+                .setCorePoolSize(definition.getPoolSize())
+                .setMaxPoolSize(definition.getPoolSize())
+                .useArrayBlockingQueue(this.maxInFlight)
+                .setThreadFactory(new NamedThreadFactory(name + "-blocking", daemon))
+                .build();
+        LOG.info("Blocking handlers of disruptor '{}' run on {}, max in-flight {}.",
+                name, this.virtual ? "virtual threads" : "a pool of " + definition.getPoolSize() + " threads",
+                this.maxInFlight);
+    }
+
+    /**
+     * 为一个分发器创建完成进度.
+     *
+     * @return 完成进度，已注册为 RingBuffer 的 gating sequence
+     */
+    public SequenceCompletionTracker newTracker() {
+        this.trackers.incrementAndGet();
+        return new SequenceCompletionTracker(this.ringBuffer);
+    }
+
+    /**
+     * 卸载执行处理器链，同时执行的处理器链达到上限时等待.
+     *
+     * @param handlerChain 处理器链
+     * @param event 数据事件，处理器链完成前所在槽位不会被覆盖
+     * @param sequence 事件序号
+     * @param tracker 分发器的完成进度
+     * @throws InterruptedException 等待被中断
+     */
+    public void execute(HandlerChain handlerChain, DisruptorDataEvent event, long sequence,
+                        SequenceCompletionTracker tracker) throws InterruptedException {
+        this.permits.acquire();
+        SequenceCompletionTracker.Pending pending = tracker.begin(sequence);
+        try {
+            this.executor.execute(() -> {
+                try {
+                    handlerChain.doHandler(event);
+                } catch (Throwable ex) {
+                    LOG.error("Blocking handler chain " + handlerChain + " failed on event " + event, ex);
+                } finally {
+                    this.permits.release();
+                    tracker.complete(pending);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            this.permits.release();
+            tracker.complete(pending);
+            throw ex;
+        }
+    }
+
+    /**
+     * 异步执行处理器链，未完成的处理器链达到上限时等待.
+     *
+     * @param handlerChain 处理器链
+     * @param event 数据事件，处理器链完成前所在槽位不会被覆盖
+     * @param sequence 事件序号
+     * @param tracker 分发器的完成进度
+     * @throws InterruptedException 等待被中断
+     */
+    public void executeAsync(HandlerChain handlerChain, DisruptorDataEvent event, long sequence,
+                             SequenceCompletionTracker tracker) throws InterruptedException {
+        this.permits.acquire();
+        SequenceCompletionTracker.Pending pending = tracker.begin(sequence);
+        handlerChain.doHandlerAsync(event).whenComplete((result, ex) -> {
+            if (ex != null) {
+                LOG.error("Async handler chain " + handlerChain + " failed on event " + event, ex);
+            }
+            this.permits.release();
+            tracker.complete(pending);
+        });
+    }
+
+    /**
+     * 分发器关闭时调用，等待其登记的事件完成. 最后一个分发器释放后关闭线程池.
+     *
+     * @param tracker 分发器的完成进度
+     */
+    public void release(SequenceCompletionTracker tracker) {
+        try {
+            if (!tracker.awaitCompletion(this.drainTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                LOG.warn("Disruptor '{}' shut down with {} blocking handler chains still running.",
+                        this.name, tracker.getPendingCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.trackers.decrementAndGet() == 0) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * 返回正在执行的处理器链数量.
+     *
+     * @return 正在执行的处理器链数量
+     */
+    public int getInFlight() {
+        return this.maxInFlight - this.permits.availablePermits();
+    }
+
+    public int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingHandlerExecutor{" +
+                "name='" + name + '\'' +
+                ", virtual=" + virtual +
+                ", inFlight=" + getInFlight() +
+                ", maxInFlight=" + maxInFlight +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+
+/**
+ * 处理 double 数值事件的处理器，数值直接从槽位的基本类型字段读取，不需要拆箱.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see NumericDataEvent
+ */
+public interface DoubleDisruptorHandler extends DisruptorHandler<DisruptorDataEvent> {
+
+    @Override
+    default void doHandler(DisruptorDataEvent event) throws Exception {
+        doHandler(event, NumericDataEvent.doubleValueOf(event));
+    }
+
+    /**
+     * 处理事件.
+     *
+     * @param event 数据事件，提供 event、tag、key
+     * @param value 事件携带的 double 数值
+     * @throws Exception 处理失败
+     */
+    void doHandler(DisruptorDataEvent event, double value) throws Exception;
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 可复用的事件批次.
+ *
+ * <p>批次中的事件是 RingBuffer 槽位，只在{@link BatchDisruptorHandler#doHandlerBatch}调用期间有效，
+ * 需要保留时应复制事件中的数据.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @param <T> 事件类型
+ */
+public final class EventBatch<T> {
+
+    private final ArrayList<T> events;
+
+    private final List<T> view;
+
+    private long firstSequence = -1L;
+
+    private long lastSequence = -1L;
+
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 初始容量
+     */
+    public EventBatch(int capacity) {
+        this.events = new ArrayList<>(capacity);
+        this.view = Collections.unmodifiableList(this.events);
+    }
+
+    void add(T event, long sequence) {
+        if (this.events.isEmpty()) {
+            this.firstSequence = sequence;
+        }
+        this.events.add(event);
+        this.lastSequence = sequence;
+    }
+
+    void clear() {
+        this.events.clear();
+        this.firstSequence = -1L;
+        this.lastSequence = -1L;
+    }
+
+    /**
+     * 返回批次中的事件，按序号升序排列.
+     *
+     * @return 只读的事件列表
+     */
+    public List<T> getEvents() {
+        return this.view;
+    }
+
+    /**
+     * 返回第一个事件的序号.
+     *
+     * @return 序号，不是由分发器批量分发时为 -1
+     */
+    public long getFirstSequence() {
+        return this.firstSequence;
+    }
+
+    /**
+     * 返回最后一个事件的序号. 分区模式下序号区间内可能有属于其它分区或不匹配的事件.
+     *
+     * @return 序号，不是由分发器批量分发时为 -1
+     */
+    public long getLastSequence() {
+        return this.lastSequence;
+    }
+
+    public int size() {
+        return this.events.size();
+    }
+
+    public boolean isEmpty() {
+        return this.events.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "EventBatch{" +
+                "size=" + size() +
+                ", firstSequence=" + firstSequence +
+                ", lastSequence=" + lastSequence +
+                '}';
+    }
+}
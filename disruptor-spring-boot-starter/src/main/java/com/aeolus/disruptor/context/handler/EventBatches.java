@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分发器为各批量处理器缓存的事件批次，只由一个分发线程访问.
+ *
+ * <p>未设置 linger 时批次在每批事件结束时交付，槽位由消费者自身的序号保护.
+ * 设置了 linger 时批次跨越多批事件累积，额外注册一个 gating sequence，
+ * 值为最早一个缓存事件的前一个序号，批次交付前槽位不会被生产者覆盖.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see BatchDisruptorHandler
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class EventBatches {
+
+    private final int defaultMaxSize;
+
+    /** 批次最长的等待时间，单位纳秒 */
+    private final long lingerNanos;
+
+    /** 跨批累积时保护缓存事件的 gating sequence，未设置 linger 时为 {@code null} */
+    private final Sequence gate;
+
+    /** RingBuffer 容量，缓存的事件占满 RingBuffer 时提前交付 */
+    private final int bufferSize;
+
+    private final Map<BatchDisruptorHandler, Slot> slots = new IdentityHashMap<>();
+
+    /** 有缓存事件的批次，按首次缓存的顺序排列 */
+    private final List<Slot> pending = new ArrayList<>();
+
+
+    /**
+     * 构造方法
+     *
+     * @param defaultMaxSize 处理器未指定时每批最多的事件数量
+     */
+    public EventBatches(int defaultMaxSize) {
+        this(defaultMaxSize, 0L, null);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param defaultMaxSize 处理器未指定时每批最多的事件数量
+     * @param lingerNanos 批次最长的等待时间，单位纳秒，为0时在每批事件结束时交付
+     * @param ringBuffer RingBuffer，lingerNanos 大于0时用于注册 gating sequence
+     */
+    public EventBatches(int defaultMaxSize, long lingerNanos, RingBuffer<?> ringBuffer) {
+        if (defaultMaxSize < 1) {
+            throw new IllegalArgumentException("Batch max size must be > 0: " + defaultMaxSize);
+        }
+        this.defaultMaxSize = defaultMaxSize;
+        this.lingerNanos = Math.max(0L, lingerNanos);
+        if (this.lingerNanos > 0) {
+            if (ringBuffer == null) {
+                throw new IllegalArgumentException("Batch linger requires the RingBuffer");
+            }
+            this.gate = new Sequence(Long.MAX_VALUE);
+            ringBuffer.addGatingSequences(this.gate);
+            // 注册时会被设置为当前游标
+            this.gate.set(Long.MAX_VALUE);
+            this.bufferSize = ringBuffer.getBufferSize();
+        } else {
+            this.gate = null;
+            this.bufferSize = 0;
+        }
+    }
+
+    /**
+     * 缓存事件，批次达到上限时交给处理器.
+     *
+     * @param handler 批量处理器
+     * @param event 数据事件
+     * @param sequence 事件序号
+     * @throws Exception 处理异常
+     */
+    public void add(BatchDisruptorHandler handler, DisruptorDataEvent event, long sequence) throws Exception {
+        Slot slot = this.slots.get(handler);
+        if (slot == null) {
+            int maxSize = handler.getMaxBatchSize() > 0 ? handler.getMaxBatchSize() : this.defaultMaxSize;
+            slot = new Slot(handler, maxSize);
+            this.slots.put(handler, slot);
+        }
+        if (slot.batch.isEmpty()) {
+            this.pending.add(slot);
+            if (this.lingerNanos > 0) {
+                slot.firstNanos = System.nanoTime();
+            }
+        }
+        slot.batch.add(event, sequence);
+        if (slot.batch.size() >= slot.maxSize) {
+            this.pending.remove(slot);
+            slot.flush();
+        }
+    }
+
+    /**
+     * 是否有缓存的事件.
+     *
+     * @return 是否有缓存的事件
+     */
+    public boolean isPending() {
+        return !this.pending.isEmpty();
+    }
+
+    /**
+     * 一批事件结束时调用. 未设置 linger 时交付所有批次；否则只交付等待超过 linger 的批次，
+     * 并将 gating sequence 设置为剩余批次中最早一个事件的前一个序号.
+     * 缓存的事件占满 RingBuffer 时生产者已无法继续发布，同样交付所有批次.
+     *
+     * @param sequence 这批事件最后一个序号
+     * @throws Exception 处理异常
+     */
+    public void endOfBatch(long sequence) throws Exception {
+        if (this.lingerNanos == 0) {
+            flush();
+            return;
+        }
+        long now = System.nanoTime();
+        Exception failure = null;
+        long first = Long.MAX_VALUE;
+        for (int i = this.pending.size() - 1; i >= 0; i--) {
+            Slot slot = this.pending.get(i);
+            if (now - slot.firstNanos >= this.lingerNanos) {
+                this.pending.remove(i);
+                try {
+                    slot.flush();
+                } catch (Exception ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            } else {
+                first = Math.min(first, slot.batch.getFirstSequence());
+            }
+        }
+        if (first != Long.MAX_VALUE && sequence - first + 1 >= this.bufferSize) {
+            try {
+                flush();
+            } catch (Exception ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        } else {
+            this.gate.set(first == Long.MAX_VALUE ? Long.MAX_VALUE : first - 1);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 将所有缓存的事件交给各自的处理器. 某个处理器抛出异常时，其余批次仍会交付，最后抛出第一个异常.
+     *
+     * @throws Exception 处理异常
+     */
+    public void flush() throws Exception {
+        Exception failure = null;
+        for (int i = 0; i < this.pending.size(); i++) {
+            try {
+                this.pending.get(i).flush();
+            } catch (Exception ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        this.pending.clear();
+        if (this.gate != null) {
+            this.gate.set(Long.MAX_VALUE);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 返回跨批累积时保护缓存事件的 gating sequence.
+     *
+     * @return gating sequence，未设置 linger 时为 {@code null}
+     */
+    public Sequence getGate() {
+        return this.gate;
+    }
+
+
+    private static final class Slot {
+
+        private final BatchDisruptorHandler handler;
+
+        private final int maxSize;
+
+        private final EventBatch batch;
+
+        /** 批次中第一个事件缓存的时间 */
+        private long firstNanos;
+
+        Slot(BatchDisruptorHandler handler, int maxSize) {
+            this.handler = handler;
+            this.maxSize = maxSize;
+            this.batch = new EventBatch(Math.min(maxSize, 1024));
+        }
+
+        void flush() throws Exception {
+            try {
+                this.handler.doHandlerBatch(this.batch);
+            } finally {
+                this.batch.clear();
+            }
+        }
+    }
+}
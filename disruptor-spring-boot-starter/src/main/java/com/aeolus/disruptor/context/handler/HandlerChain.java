@@ -0,0 +1,317 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 处理器链.
+ *
+ * <p>解析路由时按顺序预先生成的不可变处理器数组，同一个槽位的事件在一次调用中依次交给每个处理器.
+ * 实现了{@link AdviceDisruptorHandler}的处理器支持前置、后置处理以及中断处理器链.
+ * 包含{@link BlockingDisruptorHandler}的处理器链由分发器整体卸载执行，
+ * 包含{@link AsyncDisruptorHandler}的处理器链由分发器通过{@link #doHandlerAsync}流水线执行，
+ * {@link BatchDisruptorHandler}由分发器通过{@link #doHandler(DisruptorDataEvent, long, EventBatches)}缓存后批量交付.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @version v1.0
+ * @see AdviceDisruptorHandler
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class HandlerChain implements DisruptorHandler<DisruptorDataEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HandlerChain.class);
+
+    private final String[] beanNames;
+
+    private final DisruptorHandler[] handlers;
+
+    /** 与 handlers 一一对应，未实现{@link AdviceDisruptorHandler}的位置为 {@code null} */
+    private final AdviceDisruptorHandler[] advices;
+
+    /** 是否包含{@link AdviceDisruptorHandler} */
+    private final boolean advised;
+
+    /** 是否包含{@link BlockingDisruptorHandler} */
+    private final boolean blocking;
+
+    /** 与 handlers 一一对应，未实现{@link AsyncDisruptorHandler}的位置为 {@code null} */
+    private final AsyncDisruptorHandler[] asyncs;
+
+    /** 是否包含{@link AsyncDisruptorHandler} */
+    private final boolean async;
+
+    /** 与 handlers 一一对应，未实现{@link BatchDisruptorHandler}的位置为 {@code null} */
+    private final BatchDisruptorHandler[] batches;
+
+    /** 是否包含{@link BatchDisruptorHandler} */
+    private final boolean batched;
+
+
+    /**
+     * 构造方法
+     *
+     * @param beanNames 处理器 Bean name，按执行顺序排列
+     * @param handlers 处理器，按执行顺序排列
+     */
+    public HandlerChain(List<String> beanNames, List<DisruptorHandler> handlers) {
+        if (beanNames.size() != handlers.size()) {
+            throw new IllegalArgumentException("beanNames and handlers must have the same size");
+        }
+        this.beanNames = beanNames.toArray(new String[0]);
+        this.handlers = handlers.toArray(new DisruptorHandler[0]);
+        this.advices = new AdviceDisruptorHandler[this.handlers.length];
+        this.asyncs = new AsyncDisruptorHandler[this.handlers.length];
+        this.batches = new BatchDisruptorHandler[this.handlers.length];
+        boolean advised = false;
+        boolean batched = false;
+        boolean blocking = false;
+        boolean async = false;
+        for (int i = 0; i < this.handlers.length; i++) {
+            if (this.handlers[i] instanceof AdviceDisruptorHandler) {
+                this.advices[i] = (AdviceDisruptorHandler) this.handlers[i];
+                advised = true;
+            }
+            if (this.handlers[i] instanceof AsyncDisruptorHandler) {
+                this.asyncs[i] = (AsyncDisruptorHandler) this.handlers[i];
+                async = true;
+            }
+            if (this.handlers[i] instanceof BatchDisruptorHandler) {
+                this.batches[i] = (BatchDisruptorHandler) this.handlers[i];
+                batched = true;
+            }
+            blocking |= this.handlers[i] instanceof BlockingDisruptorHandler;
+        }
+        this.advised = advised;
+        this.blocking = blocking;
+        this.async = async;
+        this.batched = batched;
+    }
+
+    @Override
+    public void doHandler(DisruptorDataEvent event) throws Exception {
+        if (!this.advised) {
+            for (DisruptorHandler handler : this.handlers) {
+                handler.doHandler(event);
+            }
+            return;
+        }
+        doHandler(event, -1L, null);
+    }
+
+    /**
+     * 执行处理器链，{@link BatchDisruptorHandler}不立即执行，而是将事件缓存到分发器的批次中.
+     *
+     * @param event 数据事件
+     * @param sequence 事件序号
+     * @param eventBatches 分发器的事件批次，为 {@code null} 时批量处理器逐个事件执行
+     * @throws Exception 处理异常
+     */
+    public void doHandler(DisruptorDataEvent event, long sequence, EventBatches eventBatches) throws Exception {
+
+        // 已通过前置处理的处理器数量
+        int entered = 0;
+        Exception failure = null;
+        try {
+            boolean completed = true;
+            for (int i = 0; i < this.handlers.length; i++) {
+                AdviceDisruptorHandler advice = this.advices[i];
+                if (advice != null && !advice.preHandle(event)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Handler chain interrupted by '{}'.", this.beanNames[i]);
+                    }
+                    completed = false;
+                    break;
+                }
+                entered = i + 1;
+                if (eventBatches != null && this.batches[i] != null) {
+                    eventBatches.add(this.batches[i], event, sequence);
+                } else {
+                    this.handlers[i].doHandler(event);
+                }
+            }
+            if (completed) {
+                for (int i = entered - 1; i >= 0; i--) {
+                    if (this.advices[i] != null) {
+                        this.advices[i].postHandle(event);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            for (int i = entered - 1; i >= 0; i--) {
+                if (this.advices[i] != null) {
+                    try {
+                        this.advices[i].afterCompletion(event, failure);
+                    } catch (Exception ex) {
+                        LOG.error("AdviceDisruptorHandler '" + this.beanNames[i] + "' afterCompletion threw exception", ex);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 异步执行处理器链，{@link AsyncDisruptorHandler}之后的处理器在其完成后执行，
+     * 前置、后置处理以及中断处理器链的语义与{@link #doHandler}相同.
+     *
+     * @param event 数据事件
+     * @return 处理器链完成的{@link CompletionStage}，处理器抛出的异常作为异常完成
+     */
+    public CompletionStage<Void> doHandlerAsync(DisruptorDataEvent event) {
+        // 已通过前置处理的处理器数量
+        int[] entered = new int[1];
+        CompletableFuture<Boolean> completed;
+        try {
+            completed = proceed(event, 0, entered);
+        } catch (Exception ex) {
+            completed = new CompletableFuture<>();
+            completed.completeExceptionally(ex);
+        }
+        if (!this.advised) {
+            return completed.thenApply(result -> null);
+        }
+        return completed.handle((result, throwable) -> {
+            Exception failure = unwrap(throwable);
+            if (failure == null && result) {
+                try {
+                    for (int i = entered[0] - 1; i >= 0; i--) {
+                        if (this.advices[i] != null) {
+                            this.advices[i].postHandle(event);
+                        }
+                    }
+                } catch (Exception ex) {
+                    failure = ex;
+                }
+            }
+            for (int i = entered[0] - 1; i >= 0; i--) {
+                if (this.advices[i] != null) {
+                    try {
+                        this.advices[i].afterCompletion(event, failure);
+                    } catch (Exception ex) {
+                        LOG.error("AdviceDisruptorHandler '" + this.beanNames[i] + "' afterCompletion threw exception", ex);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new CompletionException(failure);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 从第 index 个处理器开始执行，遇到{@link AsyncDisruptorHandler}时在其完成后继续.
+     *
+     * @return 是否执行完所有处理器，被前置处理中断时为 {@code false}
+     */
+    private CompletableFuture<Boolean> proceed(DisruptorDataEvent event, int index, int[] entered) throws Exception {
+        for (int i = index; i < this.handlers.length; i++) {
+            AdviceDisruptorHandler advice = this.advices[i];
+            if (advice != null && !advice.preHandle(event)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Handler chain interrupted by '{}'.", this.beanNames[i]);
+                }
+                return CompletableFuture.completedFuture(Boolean.FALSE);
+            }
+            entered[0] = i + 1;
+            if (this.asyncs[i] != null) {
+                final int next = i + 1;
+                return this.asyncs[i].doHandlerAsync(event).toCompletableFuture().thenCompose(result -> {
+                    try {
+                        return proceed(event, next, entered);
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                });
+            }
+            this.handlers[i].doHandler(event);
+        }
+        return CompletableFuture.completedFuture(Boolean.TRUE);
+    }
+
+    private static Exception unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause == null || cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    /**
+     * 是否包含{@link BatchDisruptorHandler}.
+     *
+     * @return 是否包含批量处理器
+     */
+    public boolean isBatched() {
+        return this.batched;
+    }
+
+    /**
+     * 是否包含{@link AsyncDisruptorHandler}.
+     *
+     * @return 是否包含异步处理器
+     */
+    public boolean isAsync() {
+        return this.async;
+    }
+
+    /**
+     * 返回处理器 Bean name，按执行顺序排列.
+     *
+     * @return 处理器 Bean name
+     */
+    public String[] getBeanNames() {
+        return this.beanNames.clone();
+    }
+
+    /**
+     * 是否包含{@link BlockingDisruptorHandler}.
+     *
+     * @return 是否包含阻塞处理器
+     */
+    public boolean isBlocking() {
+        return this.blocking;
+    }
+
+    /**
+     * 返回处理器数量.
+     *
+     * @return 处理器数量
+     */
+    public int size() {
+        return this.handlers.length;
+    }
+
+    @Override
+    public String toString() {
+        return "HandlerChain" + Arrays.toString(this.beanNames);
+    }
+}
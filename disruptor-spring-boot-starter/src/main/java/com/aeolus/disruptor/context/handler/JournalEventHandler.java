@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.config.JournalDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.store.MappedJournal;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutHandler;
+
+/**
+ * 预写日志阶段，位于所有分发器之前.
+ *
+ * <p>每个事件追加到{@link MappedJournal}，条目编号为日志打开时的下一个编号加 RingBuffer 序号.
+ * 一批事件结束时按组提交间隔刷写，刷写完成后本阶段的序号才前进，分发器才能看到这批事件.
+ *
+ * <p>确认进度为 RingBuffer 的最小 gating sequence，即所有末端消费者、卸载执行和批次缓存都已完成的序号，
+ * 在每批事件结束、等待策略超时和关闭时记录.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see JournalDefinition
+ */
+public class JournalEventHandler implements EventHandler<DisruptorDataEvent>, TimeoutHandler, LifecycleAware {
+
+    private final MappedJournal journal;
+
+    private final RingBuffer<DisruptorDataEvent> ringBuffer;
+
+    /** RingBuffer 序号0对应的条目编号 */
+    private final long baseId;
+
+    private final boolean fsync;
+
+    private final long fsyncIntervalNanos;
+
+    /** 上次刷写的时间 */
+    private long lastSyncNanos;
+
+    /** 上次刷写后是否有新的条目 */
+    private boolean dirty;
+
+
+    /**
+     * 构造方法
+     *
+     * @param journal 预写日志
+     * @param ringBuffer RingBuffer，尚未发布任何事件
+     * @param definition 预写日志定义
+     */
+    public JournalEventHandler(MappedJournal journal, RingBuffer<DisruptorDataEvent> ringBuffer,
+                               JournalDefinition definition) {
+        this.journal = journal;
+        this.ringBuffer = ringBuffer;
+        this.baseId = journal.getNextId();
+        this.fsync = definition.isFsync();
+        this.fsyncIntervalNanos = definition.getFsyncInterval().toNanos();
+    }
+
+    @Override
+    public void onEvent(DisruptorDataEvent event, long sequence, boolean endOfBatch) throws Exception {
+        this.journal.append(this.baseId + sequence, event);
+        this.dirty = true;
+        if (endOfBatch) {
+            commit(false);
+        }
+    }
+
+    /**
+     * 组提交：到达刷写间隔时刷写日志，并记录确认进度.
+     */
+    private void commit(boolean force) {
+        long now = System.nanoTime();
+        boolean sync = this.fsync && (force || now - this.lastSyncNanos >= this.fsyncIntervalNanos);
+        if (sync && this.dirty) {
+            this.journal.sync();
+            this.dirty = false;
+            this.lastSyncNanos = now;
+        }
+        long acknowledged = this.ringBuffer.getMinimumGatingSequence();
+        if (acknowledged >= 0) {
+            this.journal.acknowledge(this.baseId + acknowledged, sync);
+        }
+    }
+
+    @Override
+    public void onTimeout(long sequence) {
+        commit(this.dirty);
+    }
+
+    @Override
+    public void onStart() {
+    }
+
+    @Override
+    public void onShutdown() {
+        commit(true);
+    }
+
+    public MappedJournal getJournal() {
+        return this.journal;
+    }
+}
@@ -16,66 +16,254 @@
 
 package com.aeolus.disruptor.context.handler;
 
+import com.aeolus.disruptor.context.config.RouteDefinition;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
-import org.apache.commons.lang3.StringUtils;
+import com.aeolus.disruptor.context.event.HandlerDefinitionRefreshedEvent;
+import com.aeolus.disruptor.context.route.RouteCache;
+import com.aeolus.disruptor.context.route.RouteKeyTable;
+import com.aeolus.disruptor.context.route.RouteTrie;
+import com.aeolus.disruptor.context.route.RouteVocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
+import org.springframework.context.ApplicationListener;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
-public class PathMatchingHandlerChainResolver {
+/**
+ * 基于规则表达式的处理器解析类.
+ *
+ * <p>创建时将所有规则编译为{@link RouteTrie}，事件分发时按 {@code /event/tag/key} 逐段查找，
+ * 解析代价只与路径深度有关. 匹配的所有路由定义按{@link RouteDefinition#getOrder()}升序
+ * （相同时按{@link RouteTrie}定义的优先级，越具体越靠前）组成不可变的{@link HandlerChain}，
+ * 同一个处理器在链中只出现一次. 处理器链随路由一起缓存，每条路由只解析一次.
+ *
+ * <p>前缀树之前有一层以 (event, tag, key) 为键的{@link RouteCache}，重复出现的事件直接命中缓存.
+ * 事件携带{@link RouteVocabulary}预先注册的路由键、且没有规则约束 key 时，直接按路由键的数组下标解析.
+ * 收到{@link HandlerDefinitionRefreshedEvent}时重新编译规则，并整体替换缓存.
+ *
+ * <p>编译时同时复制规则引用的处理器实例，分发线程只读取已编译的路由表，不访问运行时注册处理器的共享集合.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see RouteTrie
+ * @see RouteCache
+ */
+public class PathMatchingHandlerChainResolver implements ApplicationListener<HandlerDefinitionRefreshedEvent> {
 
     private static final Logger LOG = LoggerFactory.getLogger(PathMatchingHandlerChainResolver.class);
 
     private final Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler;
 
-    private final Map<String, String> handlerDefinition;
+    private final List<RouteDefinition> routeDefinitions;
+
+    /**
+     * 参与解析的处理器 Bean name，处理阶段只解析本阶段的处理器
+     */
+    private final Predicate<String> beanFilter;
+
+    /**
+     * 已编译的规则前缀树、处理器实例和对应的路由缓存，总是一起替换
+     */
+    private volatile RouteTable routeTable;
 
     public PathMatchingHandlerChainResolver(Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler,
-                                            Map<String, String> handlerDefinition) {
-        this.disruptorHandler = disruptorHandler;
-        this.handlerDefinition = handlerDefinition;
+                                            List<RouteDefinition> routeDefinitions) {
+        this(disruptorHandler, routeDefinitions, RouteCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param disruptorHandler DisruptorHandler的实例: key-beanName
+     * @param routeDefinitions 路由定义
+     * @param routeCacheSize 路由缓存容量，小于等于0时不使用缓存
+     */
+    public PathMatchingHandlerChainResolver(Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler,
+                                            List<RouteDefinition> routeDefinitions,
+                                            int routeCacheSize) {
+        this(disruptorHandler, routeDefinitions, routeCacheSize, beanName -> true);
     }
 
     /**
-     * 路径匹配器
+     * 构造方法
+     *
+     * @param disruptorHandler DisruptorHandler的实例: key-beanName
+     * @param routeDefinitions 路由定义
+     * @param routeCacheSize 路由缓存容量，小于等于0时不使用缓存
+     * @param beanFilter 参与解析的处理器 Bean name，规则变化重新编译时同样生效
      */
-    private PathMatcher pathMatcher = new AntPathMatcher();
+    public PathMatchingHandlerChainResolver(Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler,
+                                            List<RouteDefinition> routeDefinitions,
+                                            int routeCacheSize,
+                                            Predicate<String> beanFilter) {
+        this.disruptorHandler = disruptorHandler;
+        this.routeDefinitions = routeDefinitions;
+        this.beanFilter = beanFilter;
+        this.routeTable = compile(routeCacheSize > 0 ? new RouteCache<>(routeCacheSize) : null);
+    }
 
 
     /**
      * 获取事件中表达式是否在当前应用中存在.
      *
      * @param event 数据事件
-     * @return DisruptorHandler instance
+     * @return 处理器链，没有匹配的规则时返回 {@code null}
      * @throws Exception
      */
-    public DisruptorHandler getExecutionChain(DisruptorDataEvent event) throws Exception {
-        DisruptorHandler disruptorHandler = null;
+    public HandlerChain getExecutionChain(DisruptorDataEvent event) throws Exception {
+        RouteTable routeTable = this.routeTable;
+        String eventName = event.getEvent();
+        String tag = event.getTag();
+        String key = event.getKey();
+        long routeKey = event.getRouteKey();
 
-        String expression = event.getRouteExpression();
-        if (StringUtils.isBlank(expression)) {
-            throw new NullPointerException("Event Expression must not be null!");
+        HandlerChain handlerChain;
+        if (routeKey != RouteVocabulary.NO_ROUTE_KEY && !routeTable.trie.isKeySensitive() && isPlainKey(key)) {
+            // 没有规则约束 key 时，解析结果只由路由键决定
+            RouteCache.Entry<HandlerChain> resolved = routeTable.routeKeys.get(routeKey);
+            if (resolved != null) {
+                handlerChain = resolved.getValue();
+            } else {
+                handlerChain = resolve(routeTable, eventName, tag, key);
+                routeTable.routeKeys.put(routeKey, eventName, tag, handlerChain);
+            }
+        } else {
+            RouteCache.Entry<HandlerChain> cached = routeTable.cache == null ? null : routeTable.cache.get(eventName, tag, key);
+            if (cached != null) {
+                handlerChain = cached.getValue();
+            } else {
+                handlerChain = resolve(routeTable, eventName, tag, key);
+                if (routeTable.cache != null) {
+                    routeTable.cache.put(eventName, tag, key, handlerChain);
+                }
+            }
         }
 
-        for (String pattern: this.handlerDefinition.keySet()) {
-            if (pathMatcher.match(pattern, expression)) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Matched path pattern [{}] for expression [{}].  " +
-                            "Utilizing corresponding handler chain...", pattern, expression);
-                }
-                String beanName = this.handlerDefinition.get(pattern);
-                disruptorHandler = this.disruptorHandler.get(beanName);
+        if (LOG.isDebugEnabled()) {
+            if (handlerChain == null) {
+                // 处理阶段只解析本阶段的处理器，没有匹配的规则是常态
+                LOG.debug("No matched path pattern for expression [{}].  Will not be processed.", event.getRouteExpression());
+            } else {
+                LOG.debug("Matched {} for expression [{}].  " +
+                        "Utilizing corresponding handler chain...", handlerChain, event.getRouteExpression());
             }
         }
 
-        if (disruptorHandler == null) {
-            LOG.info("No matched path pattern for the current event.  Will not be processed.");
+        return handlerChain;
+    }
+
+
+    /**
+     * 重新编译处理器链定义，并失效路由缓存.
+     */
+    public synchronized void refresh() {
+        RouteTable current = this.routeTable;
+        this.routeTable = compile(current.cache == null ? null : current.cache.newGeneration());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Refreshed {} path patterns, route cache invalidated.", this.routeTable.trie.size());
         }
+    }
 
-        return disruptorHandler;
+    /**
+     * 处理器链定义变更时重新编译.
+     *
+     * @param event 处理器链定义变更事件
+     */
+    @Override
+    public void onApplicationEvent(HandlerDefinitionRefreshedEvent event) {
+        refresh();
+    }
+
+    /**
+     * 返回路由缓存.
+     *
+     * @return 路由缓存，未启用时返回 {@code null}
+     */
+    public RouteCache<HandlerChain> getRouteCache() {
+        return this.routeTable.cache;
+    }
+
+
+    private static boolean isPlainKey(String key) {
+        return key != null && !key.isEmpty() && key.indexOf('/') == -1;
+    }
+
+    /**
+     * 将路由定义编译为前缀树，并复制规则引用的处理器实例.
+     *
+     * @param cache 路由缓存，可以为null
+     * @return 路由表
+     */
+    private RouteTable compile(RouteCache<HandlerChain> cache) {
+        RouteTrie<RouteDefinition> trie = new RouteTrie<>();
+        Map<String, DisruptorHandler<DisruptorDataEvent>> handlers = new HashMap<>();
+        for (RouteDefinition definition : this.routeDefinitions) {
+            if (!this.beanFilter.test(definition.getBeanName())) {
+                continue;
+            }
+            DisruptorHandler<DisruptorDataEvent> handler = this.disruptorHandler.get(definition.getBeanName());
+            if (handler == null) {
+                LOG.warn("Not found DisruptorHandler with Bean name '{}' for path pattern [{}].",
+                        definition.getBeanName(), definition.getExpress());
+            } else if (!trie.add(definition.getExpress(), definition)) {
+                LOG.warn("Path pattern [{}] of Bean '{}' must start with '/', it will never match any event.",
+                        definition.getExpress(), definition.getBeanName());
+            } else {
+                handlers.put(definition.getBeanName(), handler);
+            }
+        }
+        return new RouteTable(trie, handlers, cache);
+    }
+
+    /**
+     * 解析路由对应的处理器链.
+     *
+     * @return 处理器链，没有匹配的规则时返回 {@code null}
+     */
+    private HandlerChain resolve(RouteTable routeTable, String event, String tag, String key) {
+        List<RouteDefinition> matched = routeTable.trie.matchAll(event, tag, key);
+        if (matched.isEmpty()) {
+            return null;
+        }
+        // 稳定排序，order 相同时保持前缀树的优先级顺序
+        matched.sort(Comparator.comparingInt(RouteDefinition::getOrder));
+
+        List<String> beanNames = new ArrayList<>(matched.size());
+        List<DisruptorHandler> handlers = new ArrayList<>(matched.size());
+        for (RouteDefinition definition : matched) {
+            if (!beanNames.contains(definition.getBeanName())) {
+                beanNames.add(definition.getBeanName());
+                handlers.add(routeTable.handlers.get(definition.getBeanName()));
+            }
+        }
+        return new HandlerChain(beanNames, handlers);
+    }
+
+
+    /**
+     * 规则前缀树、处理器实例与路由缓存.
+     */
+    private static final class RouteTable {
+
+        private final RouteTrie<RouteDefinition> trie;
+
+        /** 编译时复制的处理器实例，编译后不再修改: key-beanName */
+        private final Map<String, DisruptorHandler<DisruptorDataEvent>> handlers;
+
+        private final RouteCache<HandlerChain> cache;
+
+        private final RouteKeyTable<HandlerChain> routeKeys = new RouteKeyTable<>();
+
+        RouteTable(RouteTrie<RouteDefinition> trie, Map<String, DisruptorHandler<DisruptorDataEvent>> handlers,
+                   RouteCache<HandlerChain> cache) {
+            this.trie = trie;
+            this.handlers = handlers;
+            this.cache = cache;
+        }
     }
 
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 定长的数据对象池.
+ *
+ * <p>生产者通过{@link #acquire()}取出数据对象，填充后发布；槽位清理时回收同一类型的数据对象，
+ * 重置后放回对象池. 对象池已满时丢弃回收的对象，为空时创建新的对象.
+ *
+ * <p>作为{@link PayloadRecycler} Bean 声明后自动用于默认实例和命名实例的槽位清理:
+ * <pre>
+ * &#64;Bean
+ * public PayloadPool&lt;Order&gt; orderPool() {
+ *     return new PayloadPool&lt;&gt;(Order.class, 4096, Order::new, Order::reset);
+ * }
+ * </pre>
+ *
+ * @param <T> 数据对象类型
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class PayloadPool<T> implements PayloadRecycler {
+
+    private final Class<T> type;
+
+    private final ArrayBlockingQueue<T> pool;
+
+    private final Supplier<T> factory;
+
+    private final Consumer<T> reset;
+
+
+    /**
+     * 构造方法
+     *
+     * @param type 数据对象类型，只回收该类型的实例
+     * @param capacity 对象池容量
+     * @param factory 对象池为空时创建数据对象
+     * @param reset 放回对象池前重置数据对象，可以为null
+     */
+    public PayloadPool(Class<T> type, int capacity, Supplier<T> factory, Consumer<T> reset) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Payload pool capacity must be > 0: " + capacity);
+        }
+        this.type = type;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * 取出一个数据对象，对象池为空时创建新的对象.
+     *
+     * @return 数据对象
+     */
+    public T acquire() {
+        T data = this.pool.poll();
+        return data != null ? data : this.factory.get();
+    }
+
+    @Override
+    public boolean recycle(Object data) {
+        if (!this.type.isInstance(data)) {
+            return false;
+        }
+        T payload = this.type.cast(data);
+        if (this.reset != null) {
+            this.reset.accept(payload);
+        }
+        this.pool.offer(payload);
+        return true;
+    }
+
+    /**
+     * 返回对象池中可用的数据对象数量.
+     *
+     * @return 可用的数据对象数量
+     */
+    public int getAvailable() {
+        return this.pool.size();
+    }
+
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadPool{" +
+                "type=" + type.getName() +
+                ", available=" + pool.size() +
+                ", capacity=" + (pool.size() + pool.remainingCapacity()) +
+                '}';
+    }
+}
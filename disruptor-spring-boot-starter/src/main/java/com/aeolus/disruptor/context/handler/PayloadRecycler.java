@@ -0,0 +1,42 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+/**
+ * 数据对象回收器.
+ *
+ * <p>槽位被所有消费者处理完成后，{@link SlotClearingProcessor}在清理槽位前将数据对象交给回收器，
+ * 回收器可以将热点类型的数据对象放回对象池，由生产者再次取出复用，避免重复创建.
+ * 多个回收器按顺序尝试，第一个接收的回收器之后不再继续. 只在开启 {@code clear-slots} 时生效.
+ *
+ * <p>只能回收处理器不会在处理完成后继续引用的数据对象.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see PayloadPool
+ */
+@FunctionalInterface
+public interface PayloadRecycler {
+
+    /**
+     * 回收数据对象，在清理线程上调用.
+     *
+     * @param data 数据对象，不为null
+     * @return 是否已接收数据对象
+     */
+    boolean recycle(Object data);
+}
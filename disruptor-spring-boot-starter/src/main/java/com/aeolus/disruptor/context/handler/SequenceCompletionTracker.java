@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 卸载执行的事件完成进度.
+ *
+ * <p>作为 RingBuffer 的额外 gating sequence，值为最早一个未完成事件的前一个序号，
+ * 没有未完成事件时为 {@link Long#MAX_VALUE}，不限制生产者. 分发线程在事件处理期间由消费者自身的序号保护，
+ * 卸载前登记事件序号，因此事件在处理器链执行完成前不会被覆盖.
+ *
+ * <p>只能由一个分发线程按序号递增的顺序登记，可以由任意线程完成.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public final class SequenceCompletionTracker {
+
+    private final Sequence sequence = new Sequence(Long.MAX_VALUE);
+
+    /** 未完成的事件，按序号递增排列 */
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+
+    /**
+     * 构造方法，将完成进度注册为 RingBuffer 的 gating sequence.
+     *
+     * @param ringBuffer RingBuffer
+     */
+    public SequenceCompletionTracker(RingBuffer<?> ringBuffer) {
+        ringBuffer.addGatingSequences(this.sequence);
+        // 注册时会被设置为当前游标
+        this.sequence.set(Long.MAX_VALUE);
+    }
+
+    /**
+     * 登记一个即将卸载执行的事件.
+     *
+     * @param sequence 事件序号
+     * @return 未完成事件，完成时传给{@link #complete(Pending)}
+     */
+    public synchronized Pending begin(long sequence) {
+        Pending entry = new Pending(sequence);
+        if (this.pending.isEmpty()) {
+            this.sequence.set(sequence - 1);
+        }
+        this.pending.addLast(entry);
+        return entry;
+    }
+
+    /**
+     * 标记事件已完成，完成进度推进到最早一个未完成事件之前.
+     *
+     * @param entry 未完成事件
+     */
+    public synchronized void complete(Pending entry) {
+        entry.done = true;
+        while (!this.pending.isEmpty() && this.pending.peekFirst().done) {
+            this.pending.pollFirst();
+        }
+        if (this.pending.isEmpty()) {
+            this.sequence.set(Long.MAX_VALUE);
+            notifyAll();
+        } else {
+            this.sequence.set(this.pending.peekFirst().sequence - 1);
+        }
+    }
+
+    /**
+     * 等待所有已登记的事件完成.
+     *
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 是否全部完成
+     * @throws InterruptedException 等待被中断
+     */
+    public synchronized boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!this.pending.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * 返回未完成的事件数量.
+     *
+     * @return 未完成的事件数量
+     */
+    public synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public Sequence getSequence() {
+        return this.sequence;
+    }
+
+    @Override
+    public String toString() {
+        return "SequenceCompletionTracker{" +
+                "sequence=" + sequence.get() +
+                ", pending=" + getPendingCount() +
+                '}';
+    }
+
+
+    /**
+     * 未完成事件.
+     */
+    public static final class Pending {
+
+        private final long sequence;
+
+        private boolean done;
+
+        Pending(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.Sequencer;
+import com.lmax.disruptor.dsl.EventProcessorFactory;
+import com.lmax.disruptor.util.ThreadHints;
+import com.lmax.disruptor.util.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 槽位清理阶段，作为最后一个消费者在所有消费者处理完成后清空槽位的 data、event、tag、key.
+ *
+ * <p>槽位在 RingBuffer 绕回前一直引用发布的数据对象，RingBuffer 较大时大量已处理的数据对象无法回收，
+ * 并随着停留时间晋升到老年代. 清理阶段依赖所有消费者的序号，以及分发器额外注册的 gating sequence，
+ * 即卸载执行的处理器链和 linger 批次仍在引用的槽位不会被清理.
+ *
+ * <p>设置了{@link PayloadRecycler}时，数据对象在清理前依次交给回收器.
+ *
+ * <p>清理不需要及时，没有可清理的槽位时先自旋、让出，再休眠，休眠时间从 10 微秒逐次翻倍到 1 毫秒，
+ * 不使用 RingBuffer 的等待策略，空闲或等待卸载执行的处理器链完成时每秒最多唤醒约一千次.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see #factory(List, Sequence...)
+ */
+public final class SlotClearingProcessor implements EventProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlotClearingProcessor.class);
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long MIN_PARK_NANOS = 10_000L;
+
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<DisruptorDataEvent> ringBuffer;
+
+    /** 依赖的消费者序号与额外的 gating sequence */
+    private final Sequence[] dependentSequences;
+
+    private final PayloadRecycler[] recyclers;
+
+
+    /**
+     * 构造方法
+     *
+     * @param ringBuffer RingBuffer
+     * @param dependentSequences 依赖的消费者序号与额外的 gating sequence，不能为空
+     * @param recyclers 数据对象回收器，可以为空
+     */
+    public SlotClearingProcessor(RingBuffer<DisruptorDataEvent> ringBuffer, Sequence[] dependentSequences,
+                                 List<PayloadRecycler> recyclers) {
+        if (dependentSequences.length == 0) {
+            throw new IllegalArgumentException("Slot clearing requires at least one dependent sequence");
+        }
+        this.ringBuffer = ringBuffer;
+        this.dependentSequences = dependentSequences;
+        this.recyclers = recyclers.toArray(new PayloadRecycler[0]);
+    }
+
+    /**
+     * 创建清理阶段，用于{@link com.lmax.disruptor.dsl.EventHandlerGroup#handleEventsWith(EventProcessorFactory[])}.
+     *
+     * @param recyclers 数据对象回收器，可以为空
+     * @param gatingSequences 分发器额外注册的 gating sequence
+     * @return 清理阶段
+     */
+    public static EventProcessorFactory<DisruptorDataEvent> factory(List<PayloadRecycler> recyclers,
+                                                                   Sequence... gatingSequences) {
+        List<PayloadRecycler> recyclerList = recyclers == null ? Collections.emptyList() : recyclers;
+        return (ringBuffer, barrierSequences) -> {
+            Sequence[] dependents = Arrays.copyOf(barrierSequences, barrierSequences.length + gatingSequences.length);
+            System.arraycopy(gatingSequences, 0, dependents, barrierSequences.length, gatingSequences.length);
+            return new SlotClearingProcessor(ringBuffer, dependents, recyclerList);
+        };
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return this.sequence;
+    }
+
+    @Override
+    public void halt() {
+        this.running.set(false);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    @Override
+    public void run() {
+        if (!this.running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        long nextSequence = this.sequence.get() + 1L;
+        int idle = 0;
+        while (this.running.get()) {
+            long availableSequence = Util.getMinimumSequence(this.dependentSequences);
+            if (availableSequence < nextSequence) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            while (nextSequence <= availableSequence) {
+                clear(this.ringBuffer.get(nextSequence));
+                nextSequence++;
+            }
+            this.sequence.set(availableSequence);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void clear(DisruptorDataEvent event) {
+        Object data = event.getData();
+        if (data != null) {
+            event.setData(null);
+            recycle(data);
+        }
+        event.setEvent(null).setTag(null).setKey(null).setRouteKey(0L);
+        if (event instanceof NumericDataEvent) {
+            ((NumericDataEvent) event).clearValues();
+        }
+    }
+
+    private void recycle(Object data) {
+        for (PayloadRecycler recycler : this.recyclers) {
+            try {
+                if (recycler.recycle(data)) {
+                    return;
+                }
+            } catch (Throwable ex) {
+                LOG.warn("Payload recycler {} failed on {}.", recycler, data.getClass().getName(), ex);
+            }
+        }
+    }
+
+    private static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            ThreadHints.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            long parkNanos = MIN_PARK_NANOS << Math.min(idle - SPIN_TRIES - YIELD_TRIES, 7);
+            if (parkNanos >= MAX_PARK_NANOS) {
+                LockSupport.parkNanos(MAX_PARK_NANOS);
+                return idle;
+            }
+            LockSupport.parkNanos(parkNanos);
+        }
+        return idle + 1;
+    }
+}
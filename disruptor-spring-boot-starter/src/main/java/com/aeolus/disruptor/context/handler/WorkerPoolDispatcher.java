@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.handler;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.WorkProcessor;
+
+/**
+ * 工作池事件分发处理类.
+ *
+ * <p>多个工作者共享同一个 RingBuffer，每个事件只由其中一个工作者处理，
+ * 路由解析在各工作者的{@link WorkHandler}中进行. 事件处理不保证顺序，
+ * 只适用于无状态或线程安全的处理器，例如 I/O 密集的通知类处理器.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see WorkProcessor
+ * @see AsyncListenerDispatcher
+ */
+public class WorkerPoolDispatcher implements WorkHandler<DisruptorDataEvent> {
+
+
+    private PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver;
+
+
+    public WorkerPoolDispatcher(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver) {
+        this.pathMatchingHandlerChainResolver = pathMatchingHandlerChainResolver;
+    }
+
+    /**
+     * 创建工作者，每个工作者由各自的{@link WorkProcessor}驱动.
+     *
+     * @param pathMatchingHandlerChainResolver 处理器解析类
+     * @param workers 工作者数量
+     * @return 工作者
+     */
+    public static WorkerPoolDispatcher[] workers(PathMatchingHandlerChainResolver pathMatchingHandlerChainResolver,
+                                                 int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker pool size must be > 0: " + workers);
+        }
+        WorkerPoolDispatcher[] dispatchers = new WorkerPoolDispatcher[workers];
+        for (int i = 0; i < workers; i++) {
+            dispatchers[i] = new WorkerPoolDispatcher(pathMatchingHandlerChainResolver);
+        }
+        return dispatchers;
+    }
+
+    @Override
+    public void onEvent(DisruptorDataEvent dataEvent) throws Exception {
+        HandlerChain handlerChain = this.pathMatchingHandlerChainResolver.getExecutionChain(dataEvent);
+        if (handlerChain != null) {
+            handlerChain.doHandler(dataEvent);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+import com.aeolus.disruptor.context.route.RouteVocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 堆外 RingBuffer 槽位的可复用视图（flyweight）.
+ *
+ * <p>槽位为固定布局：8字节写入时间、8字节路由键、8字节 key、4字节 data 长度、4字节标志位，之后是内联的 data.
+ * 路由键由{@link RouteVocabulary}注册得到，key 为数值形式的分区键.
+ *
+ * <p>RingBuffer 关联了{@link PayloadArena}时，data 也可以写入 arena，槽位中只保存 data 在 arena 中的偏移和长度，
+ * 读取方式与内联的 data 相同.
+ *
+ * <p>视图通过{@link OffHeapRing#get(long, OffHeapEvent)}定位到槽位，读写都直接作用于堆外内存，不创建对象.
+ * 视图不是线程安全的，每个发布线程和消费者各自持有一个.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see OffHeapRing
+ */
+public final class OffHeapEvent {
+
+    static final int TIMESTAMP_OFFSET = 0;
+
+    static final int ROUTE_KEY_OFFSET = 8;
+
+    static final int KEY_OFFSET = 16;
+
+    static final int DATA_LENGTH_OFFSET = 24;
+
+    static final int FLAGS_OFFSET = 28;
+
+    /** 槽位头部长度 */
+    static final int HEADER_SIZE = 32;
+
+    /** 标志位的最高位保留，表示 data 在 arena 中 */
+    private static final int PAYLOAD_FLAG = 0x80000000;
+
+    private final OffHeapRing ring;
+
+    private final ByteBuffer buffer;
+
+    /** data 的只读视图，每次读取时重新定位 */
+    private final ByteBuffer dataView;
+
+    private final int slotSize;
+
+    /** arena 的写入视图与只读视图，第一次访问 arena 时创建 */
+    private ByteBuffer payloadBuffer;
+
+    private ByteBuffer payloadView;
+
+    private long sequence = -1L;
+
+    /** 槽位在缓冲区中的偏移 */
+    private int base;
+
+
+    OffHeapEvent(OffHeapRing ring, ByteBuffer slab, int slotSize) {
+        this.ring = ring;
+        this.buffer = slab.duplicate().order(ByteOrder.nativeOrder());
+        this.dataView = slab.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+        this.slotSize = slotSize;
+    }
+
+    OffHeapEvent wrap(long sequence, int base) {
+        this.sequence = sequence;
+        this.base = base;
+        return this;
+    }
+
+    /**
+     * 返回视图当前定位的序号.
+     *
+     * @return 序号，没有定位时为 -1
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public long getTimestamp() {
+        return this.buffer.getLong(this.base + TIMESTAMP_OFFSET);
+    }
+
+    public OffHeapEvent setTimestamp(long timestamp) {
+        this.buffer.putLong(this.base + TIMESTAMP_OFFSET, timestamp);
+        return this;
+    }
+
+    /**
+     * 返回路由键.
+     *
+     * @return 路由键，未设置时为{@link RouteVocabulary#NO_ROUTE_KEY}
+     */
+    public long getRouteKey() {
+        return this.buffer.getLong(this.base + ROUTE_KEY_OFFSET);
+    }
+
+    public OffHeapEvent setRouteKey(long routeKey) {
+        this.buffer.putLong(this.base + ROUTE_KEY_OFFSET, routeKey);
+        return this;
+    }
+
+    /** @return 路由键中的事件名编号 */
+    public int getEventId() {
+        return RouteVocabulary.eventId(getRouteKey());
+    }
+
+    /** @return 路由键中的事件标签编号 */
+    public int getTagId() {
+        return RouteVocabulary.tagId(getRouteKey());
+    }
+
+    public long getKey() {
+        return this.buffer.getLong(this.base + KEY_OFFSET);
+    }
+
+    public OffHeapEvent setKey(long key) {
+        this.buffer.putLong(this.base + KEY_OFFSET, key);
+        return this;
+    }
+
+    /**
+     * 返回应用自定义的标志位.
+     *
+     * @return 标志位，最高位保留
+     */
+    public int getFlags() {
+        return this.buffer.getInt(this.base + FLAGS_OFFSET) & ~PAYLOAD_FLAG;
+    }
+
+    public OffHeapEvent setFlags(int flags) {
+        int reserved = this.buffer.getInt(this.base + FLAGS_OFFSET) & PAYLOAD_FLAG;
+        this.buffer.putInt(this.base + FLAGS_OFFSET, (flags & ~PAYLOAD_FLAG) | reserved);
+        return this;
+    }
+
+    /** @return data 是否在{@link PayloadArena}中 */
+    public boolean isPayload() {
+        return (this.buffer.getInt(this.base + FLAGS_OFFSET) & PAYLOAD_FLAG) != 0;
+    }
+
+    public int getDataLength() {
+        return this.buffer.getInt(this.base + DATA_LENGTH_OFFSET);
+    }
+
+    /** @return 槽位可以内联的 data 的最大长度 */
+    public int getDataCapacity() {
+        return this.slotSize - HEADER_SIZE;
+    }
+
+    /**
+     * 写入 data.
+     *
+     * @param src 来源
+     * @param offset 来源中的起始位置
+     * @param length 长度
+     * @return 当前视图
+     * @throws IllegalArgumentException 长度超过槽位容量
+     */
+    public OffHeapEvent putData(byte[] src, int offset, int length) {
+        checkCapacity(length);
+        this.buffer.position(this.base + HEADER_SIZE);
+        this.buffer.put(src, offset, length);
+        this.buffer.putInt(this.base + DATA_LENGTH_OFFSET, length);
+        setPayload(false);
+        return this;
+    }
+
+    public OffHeapEvent putData(byte[] src) {
+        return putData(src, 0, src.length);
+    }
+
+    /**
+     * 写入 data，读取来源中剩余的全部字节.
+     *
+     * @param src 来源
+     * @return 当前视图
+     * @throws IllegalArgumentException 长度超过槽位容量
+     */
+    public OffHeapEvent putData(ByteBuffer src) {
+        int length = src.remaining();
+        checkCapacity(length);
+        this.buffer.position(this.base + HEADER_SIZE);
+        this.buffer.put(src);
+        this.buffer.putInt(this.base + DATA_LENGTH_OFFSET, length);
+        setPayload(false);
+        return this;
+    }
+
+    /**
+     * 将 data 写入{@link PayloadArena}中为当前序号预留的区域，槽位只保存偏移和长度.
+     * 当前序号必须通过{@link PayloadArena#claim(int)}申请，长度与申请时相同.
+     *
+     * @param src 来源
+     * @param offset 来源中的起始位置
+     * @param length 长度
+     * @return 当前视图
+     * @throws IllegalArgumentException 长度与预留的长度不同
+     */
+    public OffHeapEvent putPayload(byte[] src, int offset, int length) {
+        int index = reservation(length);
+        ByteBuffer target = payloadBuffer();
+        target.position(index);
+        target.put(src, offset, length);
+        return this;
+    }
+
+    public OffHeapEvent putPayload(byte[] src) {
+        return putPayload(src, 0, src.length);
+    }
+
+    /**
+     * 将来源中剩余的全部字节写入{@link PayloadArena}中为当前序号预留的区域.
+     *
+     * @param src 来源
+     * @return 当前视图
+     * @throws IllegalArgumentException 长度与预留的长度不同
+     */
+    public OffHeapEvent putPayload(ByteBuffer src) {
+        int index = reservation(src.remaining());
+        ByteBuffer target = payloadBuffer();
+        target.position(index);
+        target.put(src);
+        return this;
+    }
+
+    private int reservation(int length) {
+        PayloadArena arena = arena();
+        int index = arena.reservation(this.sequence, length);
+        this.buffer.putInt(this.base + HEADER_SIZE, index);
+        this.buffer.putInt(this.base + DATA_LENGTH_OFFSET, length);
+        setPayload(true);
+        return index;
+    }
+
+    private void setPayload(boolean payload) {
+        int flags = this.buffer.getInt(this.base + FLAGS_OFFSET);
+        this.buffer.putInt(this.base + FLAGS_OFFSET, payload ? flags | PAYLOAD_FLAG : flags & ~PAYLOAD_FLAG);
+    }
+
+    private PayloadArena arena() {
+        PayloadArena arena = this.ring.getPayloadArena();
+        if (arena == null) {
+            throw new IllegalStateException("Off-heap ring '" + this.ring.getName() + "' has no payload arena");
+        }
+        return arena;
+    }
+
+    private ByteBuffer payloadBuffer() {
+        if (this.payloadBuffer == null) {
+            this.payloadBuffer = arena().newWriter();
+        }
+        return this.payloadBuffer;
+    }
+
+    private ByteBuffer payloadView() {
+        if (this.payloadView == null) {
+            this.payloadView = arena().newReader();
+        }
+        return this.payloadView;
+    }
+
+    /**
+     * 复制 data 到目标数组.
+     *
+     * @param dst 目标数组，长度不能小于 data 长度
+     * @return data 长度
+     */
+    public int getData(byte[] dst) {
+        int length = getDataLength();
+        if (isPayload()) {
+            ByteBuffer source = payloadView();
+            source.limit(source.capacity());
+            source.position(this.buffer.getInt(this.base + HEADER_SIZE));
+            source.get(dst, 0, length);
+        } else {
+            this.buffer.position(this.base + HEADER_SIZE);
+            this.buffer.get(dst, 0, length);
+        }
+        return length;
+    }
+
+    /**
+     * 返回 data 的只读视图，不创建对象. 视图随当前对象复用，下一次调用后失效，需要保留时复制其内容.
+     *
+     * @return 整个堆外缓冲区或 arena 的只读视图，position 为 data 起始位置，limit 为 data 结束位置
+     */
+    public ByteBuffer getData() {
+        ByteBuffer view;
+        int start;
+        if (isPayload()) {
+            view = payloadView();
+            start = this.buffer.getInt(this.base + HEADER_SIZE);
+        } else {
+            view = this.dataView;
+            start = this.base + HEADER_SIZE;
+        }
+        view.limit(view.capacity());
+        view.position(start);
+        view.limit(start + getDataLength());
+        return view;
+    }
+
+    /**
+     * 清空槽位头部，data 长度归零. arena 中的 data 在所有消费者处理完成后按序号顺序回收，不受影响.
+     *
+     * @return 当前视图
+     */
+    public OffHeapEvent clear() {
+        this.buffer.putLong(this.base + TIMESTAMP_OFFSET, 0L);
+        this.buffer.putLong(this.base + ROUTE_KEY_OFFSET, 0L);
+        this.buffer.putLong(this.base + KEY_OFFSET, 0L);
+        this.buffer.putInt(this.base + DATA_LENGTH_OFFSET, 0);
+        this.buffer.putInt(this.base + FLAGS_OFFSET, 0);
+        return this;
+    }
+
+    private void checkCapacity(int length) {
+        if (length > getDataCapacity()) {
+            throw new IllegalArgumentException("Data length " + length + " exceeds off-heap slot capacity "
+                    + getDataCapacity());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapEvent{" +
+                "sequence=" + sequence +
+                ", timestamp=" + getTimestamp() +
+                ", routeKey=" + getRouteKey() +
+                ", key=" + getKey() +
+                ", dataLength=" + getDataLength() +
+                ", payload=" + isPayload() +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+/**
+ * 堆外 RingBuffer 的事件处理器.
+ *
+ * <p>实现{@link com.lmax.disruptor.LifecycleAware}时在消费者线程启动和关闭时收到通知，
+ * 实现{@link com.lmax.disruptor.TimeoutHandler}时在支持超时的等待策略超时时收到通知.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see OffHeapEventProcessor
+ */
+@FunctionalInterface
+public interface OffHeapEventHandler {
+
+    /**
+     * 处理事件. 视图只在本次调用内有效，需要保留的内容应复制出来.
+     *
+     * @param event 槽位视图
+     * @param sequence 序号
+     * @param endOfBatch 是否本批次的最后一个事件
+     * @throws Exception 处理失败
+     */
+    void onEvent(OffHeapEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
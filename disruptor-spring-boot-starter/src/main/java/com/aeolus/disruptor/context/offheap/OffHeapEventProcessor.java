@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.EventProcessor;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.Sequencer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.TimeoutHandler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 堆外 RingBuffer 的消费者，与{@link com.lmax.disruptor.BatchEventProcessor}的批处理循环相同，
+ * 每个消费者持有一个槽位视图，逐个定位到可用的槽位后交给处理器.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see OffHeapRing#handleEventsWith(OffHeapEventHandler...)
+ */
+public final class OffHeapEventProcessor implements EventProcessor {
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final OffHeapRing ring;
+
+    private final SequenceBarrier barrier;
+
+    private final OffHeapEventHandler handler;
+
+    private final ExceptionHandler<Object> exceptionHandler;
+
+    private final OffHeapEvent event;
+
+
+    OffHeapEventProcessor(OffHeapRing ring, SequenceBarrier barrier, OffHeapEventHandler handler,
+                          ExceptionHandler<Object> exceptionHandler) {
+        this.ring = ring;
+        this.barrier = barrier;
+        this.handler = handler;
+        this.exceptionHandler = exceptionHandler;
+        this.event = ring.newEvent();
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return this.sequence;
+    }
+
+    public OffHeapEventHandler getHandler() {
+        return this.handler;
+    }
+
+    @Override
+    public void halt() {
+        this.running.set(false);
+        this.barrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    @Override
+    public void run() {
+        if (!this.running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        this.barrier.clearAlert();
+        notifyStart();
+        try {
+            long nextSequence = this.sequence.get() + 1L;
+            while (true) {
+                try {
+                    long availableSequence = this.barrier.waitFor(nextSequence);
+                    while (nextSequence <= availableSequence) {
+                        this.ring.get(nextSequence, this.event);
+                        this.handler.onEvent(this.event, nextSequence, nextSequence == availableSequence);
+                        nextSequence++;
+                    }
+                    this.sequence.set(availableSequence);
+                } catch (TimeoutException e) {
+                    notifyTimeout(this.sequence.get());
+                } catch (AlertException e) {
+                    if (!this.running.get()) {
+                        break;
+                    }
+                } catch (Throwable e) {
+                    this.exceptionHandler.handleEventException(e, nextSequence, this.event);
+                    this.sequence.set(nextSequence);
+                    nextSequence++;
+                }
+            }
+        } finally {
+            notifyShutdown();
+            this.running.set(false);
+        }
+    }
+
+    private void notifyTimeout(long availableSequence) {
+        if (this.handler instanceof TimeoutHandler) {
+            try {
+                ((TimeoutHandler) this.handler).onTimeout(availableSequence);
+            } catch (Throwable e) {
+                this.exceptionHandler.handleEventException(e, availableSequence, null);
+            }
+        }
+    }
+
+    private void notifyStart() {
+        if (this.handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) this.handler).onStart();
+            } catch (Throwable e) {
+                this.exceptionHandler.handleOnStartException(e);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (this.handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) this.handler).onShutdown();
+            } catch (Throwable e) {
+                this.exceptionHandler.handleOnShutdownException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+/**
+ * 将参数写入堆外 RingBuffer 槽位. 实现不捕获变量时可以作为常量复用，发布不创建对象.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @param <A> 参数类型
+ * @see OffHeapRing#publishEvent(OffHeapEvent, OffHeapEventTranslator, Object)
+ */
+@FunctionalInterface
+public interface OffHeapEventTranslator<A> {
+
+    /**
+     * 写入槽位.
+     *
+     * @param event 已定位到槽位的视图
+     * @param sequence 序号
+     * @param arg 参数
+     */
+    void translateTo(OffHeapEvent event, long sequence, A arg);
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.MultiProducerSequencer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.Sequencer;
+import com.lmax.disruptor.SingleProducerSequencer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 堆外 RingBuffer.
+ *
+ * <p>槽位不是 Java 对象，而是一块连续的直接内存或内存映射文件中固定大小的区域，布局见{@link OffHeapEvent}.
+ * 序号的申请、发布和等待沿用 Disruptor 的{@link Sequencer}，生产者和消费者通过可复用的{@link OffHeapEvent}
+ * 视图读写槽位，稳定运行时发布和分发都不创建对象，也没有老年代对象引用带来的卡表标记开销.
+ *
+ * <p>发布示例：
+ * <pre>
+ * OffHeapEvent event = ring.newEvent();     // 每个发布线程一个
+ * long sequence = ring.next();
+ * try {
+ *     ring.get(sequence, event).setTimestamp(now).setRouteKey(routeKey).setKey(orderId).putData(bytes);
+ * } finally {
+ *     ring.publish(sequence);
+ * }
+ * </pre>
+ *
+ * <p>所有处理器作为同一阶段并行消费每个事件. 超过槽位容量的变长 data 可以写入关联的{@link PayloadArena}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.config.OffHeapRingDefinition
+ */
+public class OffHeapRing implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapRing.class);
+
+    /** 槽位按8字节对齐 */
+    private static final int SLOT_ALIGNMENT = 8;
+
+    private final String name;
+
+    private final int bufferSize;
+
+    private final int slotSize;
+
+    private final int indexMask;
+
+    private final Sequencer sequencer;
+
+    private final ByteBuffer slab;
+
+    /** 内存映射文件，使用直接内存时为 {@code null} */
+    private final Path file;
+
+    private final List<OffHeapEventProcessor> processors = new ArrayList<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private ExceptionHandler<Object> exceptionHandler = new FatalExceptionHandler();
+
+    /** 变长 data 的堆外区域，没有关联时为 {@code null} */
+    private volatile PayloadArena payloadArena;
+
+
+    /**
+     * 构造方法
+     *
+     * @param name 名称
+     * @param bufferSize 槽位数量，必须为2的幂
+     * @param slotSize 槽位大小，向上按8字节对齐，包括32字节的头部
+     * @param producerType 生产者模式
+     * @param waitStrategy 等待策略
+     * @param file 内存映射文件，为 {@code null} 时使用直接内存
+     * @throws IOException 创建内存映射文件失败
+     */
+    public OffHeapRing(String name, int bufferSize, int slotSize, ProducerType producerType, WaitStrategy waitStrategy,
+                       Path file) throws IOException {
+        if (slotSize <= OffHeapEvent.HEADER_SIZE) {
+            throw new IllegalArgumentException("Off-heap slot size must be > " + OffHeapEvent.HEADER_SIZE + ": " + slotSize);
+        }
+        this.name = name;
+        this.slotSize = (slotSize + SLOT_ALIGNMENT - 1) & -SLOT_ALIGNMENT;
+        long capacity = (long) bufferSize * this.slotSize;
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Off-heap ring '" + name + "' needs " + capacity
+                    + " bytes, buffer size * slot size must be <= " + Integer.MAX_VALUE);
+        }
+        this.sequencer = producerType == ProducerType.SINGLE
+                ? new SingleProducerSequencer(bufferSize, waitStrategy)
+                : new MultiProducerSequencer(bufferSize, waitStrategy);
+        this.bufferSize = bufferSize;
+        this.indexMask = bufferSize - 1;
+        this.file = file;
+        if (file == null) {
+            this.slab = ByteBuffer.allocateDirect((int) capacity);
+        } else {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.slab = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+    }
+
+    /**
+     * 创建槽位视图，每个发布线程持有一个并重复使用.
+     *
+     * @return 未定位的视图
+     */
+    public OffHeapEvent newEvent() {
+        return new OffHeapEvent(this, this.slab, this.slotSize);
+    }
+
+    /**
+     * 将视图定位到序号对应的槽位.
+     *
+     * @param sequence 序号
+     * @param event 视图
+     * @return 定位后的视图
+     */
+    public OffHeapEvent get(long sequence, OffHeapEvent event) {
+        return event.wrap(sequence, (int) (sequence & this.indexMask) * this.slotSize);
+    }
+
+    /**
+     * 申请下一个序号，没有空闲槽位时等待.
+     *
+     * @return 序号
+     */
+    public long next() {
+        return this.sequencer.next();
+    }
+
+    /**
+     * 申请连续的 n 个序号，没有足够的空闲槽位时等待.
+     *
+     * @param n 数量
+     * @return 最大的序号
+     */
+    public long next(int n) {
+        return this.sequencer.next(n);
+    }
+
+    /**
+     * 申请下一个序号，不等待.
+     *
+     * @return 序号
+     * @throws InsufficientCapacityException 没有空闲槽位
+     */
+    public long tryNext() throws InsufficientCapacityException {
+        return this.sequencer.tryNext();
+    }
+
+    public void publish(long sequence) {
+        this.sequencer.publish(sequence);
+    }
+
+    public void publish(long lo, long hi) {
+        this.sequencer.publish(lo, hi);
+    }
+
+    /**
+     * 申请序号、写入槽位并发布.
+     *
+     * @param event 发布线程持有的视图
+     * @param translator 写入槽位
+     * @param arg 参数
+     * @param <A> 参数类型
+     */
+    public <A> void publishEvent(OffHeapEvent event, OffHeapEventTranslator<A> translator, A arg) {
+        long sequence = this.sequencer.next();
+        try {
+            translator.translateTo(get(sequence, event), sequence, arg);
+        } finally {
+            this.sequencer.publish(sequence);
+        }
+    }
+
+    /**
+     * 没有空闲槽位时不等待的{@link #publishEvent(OffHeapEvent, OffHeapEventTranslator, Object)}.
+     *
+     * @return 是否已发布
+     */
+    public <A> boolean tryPublishEvent(OffHeapEvent event, OffHeapEventTranslator<A> translator, A arg) {
+        long sequence;
+        try {
+            sequence = this.sequencer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return false;
+        }
+        try {
+            translator.translateTo(get(sequence, event), sequence, arg);
+        } finally {
+            this.sequencer.publish(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * 添加处理器，所有处理器作为同一阶段并行消费每个事件. 必须在{@link #start(ThreadFactory)}之前调用.
+     *
+     * @param handlers 处理器
+     * @return 消费者
+     */
+    public synchronized OffHeapEventProcessor[] handleEventsWith(OffHeapEventHandler... handlers) {
+        if (!this.threads.isEmpty()) {
+            throw new IllegalStateException("Off-heap ring '" + this.name + "' is already started");
+        }
+        SequenceBarrier barrier = this.sequencer.newBarrier();
+        OffHeapEventProcessor[] added = new OffHeapEventProcessor[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            added[i] = new OffHeapEventProcessor(this, barrier, handlers[i], this.exceptionHandler);
+            this.sequencer.addGatingSequences(added[i].getSequence());
+            this.processors.add(added[i]);
+        }
+        return added;
+    }
+
+    /**
+     * 设置之后添加的处理器的异常处理，默认与 Disruptor 相同，记录异常后停止消费者.
+     *
+     * @param exceptionHandler 异常处理
+     */
+    public void setExceptionHandler(ExceptionHandler<Object> exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * 为每个消费者启动一个线程.
+     *
+     * @param threadFactory 线程工厂
+     */
+    public synchronized void start(ThreadFactory threadFactory) {
+        if (!this.threads.isEmpty()) {
+            throw new IllegalStateException("Off-heap ring '" + this.name + "' is already started");
+        }
+        for (OffHeapEventProcessor processor : this.processors) {
+            Thread thread = threadFactory.newThread(processor);
+            this.threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * 等待已发布的事件处理完成后停止消费者.
+     *
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @return 超时前是否已处理完成
+     */
+    public synchronized boolean shutdown(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained;
+        while (!(drained = isDrained()) && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+        this.processors.forEach(OffHeapEventProcessor::halt);
+        for (Thread thread : this.threads) {
+            try {
+                thread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return drained;
+    }
+
+    private boolean isDrained() {
+        long cursor = this.sequencer.getCursor();
+        for (OffHeapEventProcessor processor : this.processors) {
+            if (processor.isRunning() && processor.getSequence().get() < cursor) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 停止消费者，使用内存映射文件时删除文件.
+     */
+    @Override
+    public void close() {
+        if (!shutdown(10, TimeUnit.SECONDS)) {
+            LOG.warn("Off-heap ring '{}' closed before all published events were handled.", this.name);
+        }
+        if (this.file != null) {
+            try {
+                Files.deleteIfExists(this.file);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete off-heap ring file {}", this.file, e);
+            }
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    public int getSlotSize() {
+        return this.slotSize;
+    }
+
+    public long getCursor() {
+        return this.sequencer.getCursor();
+    }
+
+    public long remainingCapacity() {
+        return this.sequencer.remainingCapacity();
+    }
+
+    /**
+     * 返回所有消费者中最小的序号，之前（包括）的槽位可以被覆盖.
+     *
+     * @return 最小的消费者序号
+     */
+    public long getMinimumGatingSequence() {
+        return this.sequencer.getMinimumSequence();
+    }
+
+    /**
+     * 添加门控序号，槽位在门控序号越过之前不会被覆盖.
+     *
+     * @param gatingSequences 门控序号
+     */
+    public void addGatingSequences(Sequence... gatingSequences) {
+        this.sequencer.addGatingSequences(gatingSequences);
+    }
+
+    public boolean removeGatingSequence(Sequence sequence) {
+        return this.sequencer.removeGatingSequence(sequence);
+    }
+
+    /**
+     * 返回关联的 arena.
+     *
+     * @return arena，没有关联时为 {@code null}
+     */
+    public PayloadArena getPayloadArena() {
+        return this.payloadArena;
+    }
+
+    synchronized void attach(PayloadArena payloadArena) {
+        if (this.payloadArena != null) {
+            throw new IllegalStateException("Off-heap ring '" + this.name + "' already has a payload arena");
+        }
+        this.payloadArena = payloadArena;
+    }
+
+    public boolean isMapped() {
+        return this.file != null;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRing{" +
+                "name='" + name + '\'' +
+                ", bufferSize=" + bufferSize +
+                ", slotSize=" + slotSize +
+                ", file=" + file +
+                ", cursor=" + getCursor() +
+                '}';
+    }
+}
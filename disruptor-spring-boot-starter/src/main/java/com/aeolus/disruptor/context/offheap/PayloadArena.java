@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 堆外 RingBuffer 变长 data 的堆外区域.
+ *
+ * <p>arena 是一块环形的直接内存. {@link #claim(int)}在申请 RingBuffer 序号的同时按序号顺序预留一段连续区域，
+ * 发布线程通过{@link OffHeapEvent#putPayload(byte[])}复制 data，槽位中只保存偏移和长度，
+ * 消费者通过{@link OffHeapEvent#getData()}得到只读视图. 区域不会跨越 arena 的末尾，放不下时跳到 arena 起始位置.
+ *
+ * <p>所有门控序号越过某个序号后，该序号及之前预留的区域按顺序回收；剩余空间不足时申请线程等待消费者.
+ * 预留与申请序号在同一个锁内完成，多个发布线程按序号顺序预留，复制 data 不持有锁.
+ *
+ * <p>发布示例：
+ * <pre>
+ * OffHeapEvent event = ring.newEvent();     // 每个发布线程一个
+ * long sequence = arena.claim(bytes.length);
+ * try {
+ *     ring.get(sequence, event).setTimestamp(now).setKey(orderId).putPayload(bytes);
+ * } finally {
+ *     ring.publish(sequence);
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see OffHeapRing#getPayloadArena()
+ */
+public class PayloadArena {
+
+    /** 剩余空间不足时申请线程每次休眠的时间 */
+    private static final long PARK_NANOS = 1_000L;
+
+    private final OffHeapRing ring;
+
+    private final ByteBuffer slab;
+
+    private final int capacity;
+
+    private final int indexMask;
+
+    /** 各序号预留的区域，按 {@code sequence & indexMask} 索引，由申请序号的发布线程读取 */
+    private final long[] reservedSequences;
+
+    private final int[] reservedStarts;
+
+    private final int[] reservedLengths;
+
+    /** 尚未回收的预留：序号与结束位置，按序号递增 */
+    private final long[] pendingSequences;
+
+    private final long[] pendingEnds;
+
+    private long pendingHead;
+
+    private long pendingTail;
+
+    /** 已预留的字节总数 */
+    private volatile long head;
+
+    /** 已回收的字节总数 */
+    private volatile long tail;
+
+
+    /**
+     * 构造方法，创建 arena 并关联到 RingBuffer.
+     *
+     * @param ring 堆外 RingBuffer
+     * @param capacity arena 大小
+     */
+    public PayloadArena(OffHeapRing ring, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Payload arena capacity must be > 0: " + capacity);
+        }
+        this.ring = ring;
+        this.capacity = capacity;
+        this.slab = ByteBuffer.allocateDirect(capacity);
+        int bufferSize = ring.getBufferSize();
+        this.indexMask = bufferSize - 1;
+        this.reservedSequences = new long[bufferSize];
+        this.reservedStarts = new int[bufferSize];
+        this.reservedLengths = new int[bufferSize];
+        this.pendingSequences = new long[bufferSize];
+        this.pendingEnds = new long[bufferSize];
+        Arrays.fill(this.reservedSequences, -1L);
+        ring.attach(this);
+    }
+
+    /**
+     * 申请下一个 RingBuffer 序号并预留 data 区域，RingBuffer 已满或 arena 空间不足时等待.
+     *
+     * @param length data 长度
+     * @return 序号
+     * @throws IllegalArgumentException 长度超过 arena 大小
+     */
+    public synchronized long claim(int length) {
+        if (length < 0 || length > this.capacity) {
+            throw new IllegalArgumentException("Payload length " + length + " exceeds arena capacity " + this.capacity);
+        }
+        long sequence = this.ring.next();
+        long start = this.head;
+        int index = (int) (start % this.capacity);
+        if (this.capacity - index < length) {
+            start += this.capacity - index;
+        }
+        long end = start + length;
+        while (end - release(start) > this.capacity) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+
+        int slot = (int) (sequence & this.indexMask);
+        this.reservedSequences[slot] = sequence;
+        this.reservedStarts[slot] = (int) (start % this.capacity);
+        this.reservedLengths[slot] = length;
+        int pending = (int) (this.pendingTail++ & this.indexMask);
+        this.pendingSequences[pending] = sequence;
+        this.pendingEnds[pending] = end;
+        this.head = end;
+        return sequence;
+    }
+
+    /**
+     * 回收所有门控序号已越过的预留.
+     *
+     * @param start 本次预留的起始位置，没有尚未回收的预留时其之前的空间都可以使用
+     * @return 已回收的字节总数
+     */
+    private long release(long start) {
+        long gatingSequence = this.ring.getMinimumGatingSequence();
+        long released = this.tail;
+        while (this.pendingHead < this.pendingTail) {
+            int pending = (int) (this.pendingHead & this.indexMask);
+            if (this.pendingSequences[pending] > gatingSequence) {
+                break;
+            }
+            released = this.pendingEnds[pending];
+            this.pendingHead++;
+        }
+        if (this.pendingHead == this.pendingTail) {
+            released = start;
+        }
+        this.tail = released;
+        return released;
+    }
+
+    /**
+     * 返回序号预留的区域在 arena 中的偏移.
+     *
+     * @param sequence 序号
+     * @param length data 长度
+     * @return 偏移
+     * @throws IllegalArgumentException 序号没有通过{@link #claim(int)}申请或长度不同
+     */
+    int reservation(long sequence, int length) {
+        int slot = (int) (sequence & this.indexMask);
+        if (this.reservedSequences[slot] != sequence || this.reservedLengths[slot] != length) {
+            throw new IllegalArgumentException("Sequence " + sequence + " has no payload reservation of " + length
+                    + " bytes, claim it from the payload arena");
+        }
+        return this.reservedStarts[slot];
+    }
+
+    ByteBuffer newWriter() {
+        return this.slab.duplicate();
+    }
+
+    ByteBuffer newReader() {
+        return this.slab.asReadOnlyBuffer();
+    }
+
+    /**
+     * 申请序号、将 data 写入 arena、写入槽位的其它字段并发布.
+     *
+     * @param event 发布线程持有的视图
+     * @param translator 写入槽位的其它字段
+     * @param arg 参数
+     * @param payload data
+     * @param <A> 参数类型
+     */
+    public <A> void publishEvent(OffHeapEvent event, OffHeapEventTranslator<A> translator, A arg, byte[] payload) {
+        long sequence = claim(payload.length);
+        try {
+            this.ring.get(sequence, event).putPayload(payload);
+            translator.translateTo(event, sequence, arg);
+        } finally {
+            this.ring.publish(sequence);
+        }
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * 返回尚未回收的字节数，包括跳过 arena 末尾的空间. 回收在申请时进行，空闲时不会减少.
+     *
+     * @return 尚未回收的字节数
+     */
+    public long getUsedBytes() {
+        return this.head - this.tail;
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadArena{" +
+                "capacity=" + capacity +
+                ", usedBytes=" + getUsedBytes() +
+                '}';
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.route;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 路由解析结果缓存，以 (event, tag, key) 三元组为键.
+ *
+ * <p>固定容量的两路组相联缓存：三元组哈希到一个组，每组两个槽位. 查找只比较字符串，不创建对象；
+ * 只有未命中后写入时才会创建一个不可变的缓存项. 解析结果为 {@code null}（没有匹配的规则）时同样会被缓存.
+ *
+ * <p>淘汰策略为组内的 CLOCK（二次机会）：命中会标记缓存项，写入时优先淘汰组内未被标记的缓存项，
+ * 都被标记时清除组内的标记并淘汰第二个槽位.
+ *
+ * <p>缓存项不可变，槽位的并发读写是良性竞争，可在多个消费者线程间共享.
+ * 规则变化时通过{@link #newGeneration()}整体替换，命中统计在各代之间累计.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @param <V> 缓存的解析结果类型
+ */
+public class RouteCache<V> {
+
+    /** 默认缓存容量 */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Entry<V>[] table;
+
+    private final int mask;
+
+    private final Stats stats;
+
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 缓存容量，向上取整为2的幂，最小为2
+     */
+    public RouteCache(int capacity) {
+        this(capacity, new Stats());
+    }
+
+    @SuppressWarnings("unchecked")
+    private RouteCache(int capacity, Stats stats) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Route cache capacity must be > 0: " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.table = new Entry[size];
+        this.mask = size - 1;
+        this.stats = stats;
+    }
+
+    /**
+     * 查找缓存项.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @return 缓存项，未命中时返回 {@code null}
+     */
+    public Entry<V> get(String event, String tag, String key) {
+        int index = indexFor(hash(event, tag, key));
+        Entry<V> entry = this.table[index];
+        if (entry == null || !entry.matches(event, tag, key)) {
+            entry = this.table[index ^ 1];
+            if (entry == null || !entry.matches(event, tag, key)) {
+                this.stats.misses.increment();
+                return null;
+            }
+        }
+        entry.referenced = true;
+        this.stats.hits.increment();
+        return entry;
+    }
+
+    /**
+     * 写入缓存项.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @param value 解析结果，可以为 {@code null}
+     */
+    public void put(String event, String tag, String key, V value) {
+        int index = indexFor(hash(event, tag, key));
+        int victim = index;
+        Entry<V> first = this.table[index];
+        Entry<V> second = this.table[index ^ 1];
+        if (first != null) {
+            if (second == null || !second.referenced) {
+                victim = index ^ 1;
+            } else if (first.referenced) {
+                first.referenced = false;
+                second.referenced = false;
+                victim = index ^ 1;
+            }
+        }
+        if (this.table[victim] != null) {
+            this.stats.evictions.increment();
+        }
+        this.table[victim] = new Entry<>(event, tag, key, value);
+    }
+
+    /**
+     * 创建同等容量的空缓存，命中统计与当前缓存共享.
+     *
+     * @return 新一代缓存
+     */
+    public RouteCache<V> newGeneration() {
+        this.stats.invalidations.increment();
+        return new RouteCache<>(this.table.length, this.stats);
+    }
+
+    public int getCapacity() {
+        return this.table.length;
+    }
+
+    public long getHitCount() {
+        return this.stats.hits.sum();
+    }
+
+    public long getMissCount() {
+        return this.stats.misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return this.stats.evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return this.stats.invalidations.sum();
+    }
+
+    private int indexFor(int hash) {
+        // 组的起始位置为偶数，组内另一个槽位为 index ^ 1
+        return (hash ^ (hash >>> 16)) & this.mask & ~1;
+    }
+
+    private static int hash(String event, String tag, String key) {
+        return (Objects.hashCode(event) * 31 + Objects.hashCode(tag)) * 31 + Objects.hashCode(key);
+    }
+
+    @Override
+    public String toString() {
+        return "RouteCache{" +
+                "capacity=" + getCapacity() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                ", invalidations=" + getInvalidationCount() +
+                '}';
+    }
+
+
+    /**
+     * 缓存项.
+     */
+    public static final class Entry<V> {
+
+        private final String event;
+
+        private final String tag;
+
+        private final String key;
+
+        private final V value;
+
+        /** CLOCK 标记位 */
+        private boolean referenced;
+
+        Entry(String event, String tag, String key, V value) {
+            this.event = event;
+            this.tag = tag;
+            this.key = key;
+            this.value = value;
+        }
+
+        boolean matches(String event, String tag, String key) {
+            return Objects.equals(this.key, key) && Objects.equals(this.tag, tag)
+                    && Objects.equals(this.event, event);
+        }
+
+        /**
+         * 返回解析结果.
+         *
+         * @return 解析结果，没有匹配的规则时为 {@code null}
+         */
+        public V getValue() {
+            return this.value;
+        }
+    }
+
+    /**
+     * 命中统计，在各代缓存之间共享.
+     */
+    private static final class Stats {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder evictions = new LongAdder();
+
+        private final LongAdder invalidations = new LongAdder();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.route;
+
+import java.util.Arrays;
+
+/**
+ * 以路由键为索引的路由解析结果表.
+ *
+ * <p>路由键中的事件名编号、事件标签编号都是从1开始的连续整数，这里按 {@code [eventId][tagId]}
+ * 以二维数组保存解析结果，查找只有两次数组下标访问. 解析结果为 {@code null} 时同样会被保存.
+ *
+ * <p>数组只增不减，写入是良性竞争，可在多个消费者线程间共享. 规则变化时整体替换.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @param <V> 解析结果类型
+ * @see RouteVocabulary
+ */
+public class RouteKeyTable<V> {
+
+    private volatile RouteCache.Entry<V>[][] rows = newRows(0);
+
+
+    /**
+     * 查找解析结果.
+     *
+     * @param routeKey 路由键
+     * @return 解析结果，未解析过时返回 {@code null}
+     */
+    public RouteCache.Entry<V> get(long routeKey) {
+        RouteCache.Entry<V>[][] rows = this.rows;
+        int eventId = RouteVocabulary.eventId(routeKey);
+        if (eventId >= rows.length) {
+            return null;
+        }
+        RouteCache.Entry<V>[] row = rows[eventId];
+        int tagId = RouteVocabulary.tagId(routeKey);
+        return row == null || tagId >= row.length ? null : row[tagId];
+    }
+
+    /**
+     * 写入解析结果.
+     *
+     * @param routeKey 路由键
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param value 解析结果，可以为 {@code null}
+     */
+    public void put(long routeKey, String event, String tag, V value) {
+        int eventId = RouteVocabulary.eventId(routeKey);
+        int tagId = RouteVocabulary.tagId(routeKey);
+        if (eventId <= 0 || tagId <= 0) {
+            return;
+        }
+        RouteCache.Entry<V>[] row = row(eventId, tagId);
+        row[tagId] = new RouteCache.Entry<>(event, tag, null, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized RouteCache.Entry<V>[] row(int eventId, int tagId) {
+        RouteCache.Entry<V>[][] rows = this.rows;
+        if (eventId >= rows.length) {
+            rows = Arrays.copyOf(rows, eventId + 1);
+        }
+        RouteCache.Entry<V>[] row = rows[eventId];
+        if (row == null || tagId >= row.length) {
+            row = row == null ? new RouteCache.Entry[tagId + 1] : Arrays.copyOf(row, tagId + 1);
+            rows[eventId] = row;
+        }
+        this.rows = rows;
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> RouteCache.Entry<V>[][] newRows(int size) {
+        return new RouteCache.Entry[size][];
+    }
+}
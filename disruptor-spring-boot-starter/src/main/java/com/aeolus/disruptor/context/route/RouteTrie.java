@@ -0,0 +1,435 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.route;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路由前缀树.
+ *
+ * <p>启动时将Ant风格的规则表达式按 {@code /event/tag/key} 分段编译为一棵前缀树：
+ * 普通分段使用哈希节点精确匹配，{@code *}、{@code **} 以及含通配符的分段（如 {@code Tag*}）作为通配边，
+ * 解析路由的代价只与路径深度有关，而与规则数量无关.
+ *
+ * <p>匹配结果与{@link AntPathMatcher#match(String, String)}保持一致. 多个规则同时匹配时的优先级：
+ * 从左到右逐段比较，精确分段 &gt; 含通配符的分段 &gt; {@code *} &gt; {@code **}，
+ * {@code **} 优先匹配更少的分段；落在同一节点上的规则按注册顺序排列.
+ *
+ * <p>编译完成后只读，可在多个消费者线程间共享.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @param <V> 规则绑定的值类型
+ * @see AntPathMatcher
+ */
+public class RouteTrie<V> {
+
+    private static final char PATH_SEPARATOR = '/';
+
+    private static final String WILDCARD = "*";
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    /** 含通配符分段的匹配器 */
+    private final PathMatcher segmentMatcher = new AntPathMatcher();
+
+    private final Node<V> root = new Node<>();
+
+    private int size = 0;
+
+    /** 是否存在约束 key 分段的规则 */
+    private boolean keySensitive = false;
+
+
+    /**
+     * 添加规则表达式.
+     *
+     * <p>不以 {@code /} 开头的规则永远不会匹配路由表达式，不会被编译.
+     *
+     * @param pattern 规则表达式
+     * @param value 规则绑定的值
+     * @return 是否已编译进前缀树
+     */
+    public boolean add(String pattern, V value) {
+        if (pattern == null || pattern.isEmpty() || pattern.charAt(0) != PATH_SEPARATOR) {
+            return false;
+        }
+
+        String[] segments = tokenize(pattern);
+        boolean doubleWildcard = false;
+        Node<V> node = this.root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!DOUBLE_WILDCARD.equals(segment) && !WILDCARD.equals(segment) && (i >= 2 || doubleWildcard)) {
+                // 第三段及之后的分段，或 ** 之后的分段，可能落在 key 上
+                this.keySensitive = true;
+            }
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                doubleWildcard = true;
+                if (node.doubleWildcard == null) {
+                    node.doubleWildcard = new Node<>();
+                }
+                node = node.doubleWildcard;
+            } else if (WILDCARD.equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node<>();
+                }
+                node = node.wildcard;
+            } else if (isPattern(segment)) {
+                node = node.patternChild(segment);
+            } else {
+                node = node.literalChild(segment);
+            }
+        }
+
+        boolean endsWithSeparator = pattern.charAt(pattern.length() - 1) == PATH_SEPARATOR;
+        node.addRoute(new Route<>(pattern, value, this.size++, doubleWildcard, endsWithSeparator));
+        return true;
+    }
+
+    /**
+     * 返回优先级最高的匹配值.
+     *
+     * @param path 路由表达式
+     * @return 匹配值，没有匹配的规则时返回 {@code null}
+     */
+    public V match(String path) {
+        Route<V> route = firstRoute(path);
+        return route == null ? null : route.value;
+    }
+
+    /**
+     * 返回优先级最高的匹配值，等价于 {@code match(event.getRouteExpression())}.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @return 匹配值，没有匹配的规则时返回 {@code null}
+     */
+    public V match(String event, String tag, String key) {
+        if (isPlainSegment(event) && isPlainSegment(tag) && isPlainSegment(key)) {
+            Collector<V> collector = new Collector<>(true);
+            collect(this.root, new String[] {String.valueOf(event), String.valueOf(tag), String.valueOf(key)},
+                    0, false, collector);
+            return collector.first == null ? null : collector.first.value;
+        }
+        return match(expression(event, tag, key));
+    }
+
+    /**
+     * 按优先级顺序返回所有匹配值.
+     *
+     * @param path 路由表达式
+     * @return 匹配值列表，没有匹配的规则时返回空列表
+     */
+    public List<V> matchAll(String path) {
+        if (path == null || path.isEmpty() || path.charAt(0) != PATH_SEPARATOR) {
+            return Collections.emptyList();
+        }
+        Collector<V> collector = new Collector<>(false);
+        collect(this.root, tokenize(path), 0, path.charAt(path.length() - 1) == PATH_SEPARATOR, collector);
+        return collector.values();
+    }
+
+    /**
+     * 按优先级顺序返回所有匹配值，等价于 {@code matchAll(event.getRouteExpression())}.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @return 匹配值列表，没有匹配的规则时返回空列表
+     */
+    public List<V> matchAll(String event, String tag, String key) {
+        if (isPlainSegment(event) && isPlainSegment(tag) && isPlainSegment(key)) {
+            Collector<V> collector = new Collector<>(false);
+            collect(this.root, new String[] {String.valueOf(event), String.valueOf(tag), String.valueOf(key)},
+                    0, false, collector);
+            return collector.values();
+        }
+        return matchAll(expression(event, tag, key));
+    }
+
+    /**
+     * 已编译的规则数量.
+     *
+     * @return 规则数量
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * 是否存在约束 key 分段的规则.
+     *
+     * <p>返回 {@code false} 时，对于不为空且不含 {@code /} 的 key，匹配结果只由 event 和 tag 决定.
+     *
+     * @return 是否存在约束 key 分段的规则
+     */
+    public boolean isKeySensitive() {
+        return this.keySensitive;
+    }
+
+
+    private Route<V> firstRoute(String path) {
+        if (path == null || path.isEmpty() || path.charAt(0) != PATH_SEPARATOR) {
+            return null;
+        }
+        Collector<V> collector = new Collector<>(true);
+        collect(this.root, tokenize(path), 0, path.charAt(path.length() - 1) == PATH_SEPARATOR, collector);
+        return collector.first;
+    }
+
+    /**
+     * 深度优先遍历，遍历顺序即优先级顺序.
+     *
+     * @return 是否停止遍历
+     */
+    private boolean collect(Node<V> node, String[] segments, int index, boolean endsWithSeparator,
+                            Collector<V> collector) {
+        if (index == segments.length) {
+            if (node.routes != null) {
+                for (Route<V> route : node.routes) {
+                    // 不含 ** 的规则与路径需同时以分隔符结尾（或同时不以分隔符结尾）
+                    if ((route.doubleWildcard || route.endsWithSeparator == endsWithSeparator)
+                            && collector.accept(route)) {
+                        return true;
+                    }
+                }
+            }
+            // 与AntPathMatcher一致：/a/b/* 可以匹配 /a/b/
+            if (endsWithSeparator && node.wildcard != null && node.wildcard.routes != null) {
+                for (Route<V> route : node.wildcard.routes) {
+                    if (!route.doubleWildcard && collector.accept(route)) {
+                        return true;
+                    }
+                }
+            }
+        } else {
+            String segment = segments[index];
+            if (node.literals != null) {
+                Node<V> child = node.literals.get(segment);
+                if (child != null && collect(child, segments, index + 1, endsWithSeparator, collector)) {
+                    return true;
+                }
+            }
+            if (node.patterns != null) {
+                for (int i = 0; i < node.patterns.size(); i++) {
+                    Node<V> child = node.patterns.get(i);
+                    if (this.segmentMatcher.match(child.segment, segment)
+                            && collect(child, segments, index + 1, endsWithSeparator, collector)) {
+                        return true;
+                    }
+                }
+            }
+            if (node.wildcard != null
+                    && collect(node.wildcard, segments, index + 1, endsWithSeparator, collector)) {
+                return true;
+            }
+        }
+
+        if (node.doubleWildcard != null) {
+            // ** 可以匹配零个或多个分段，优先匹配更少的分段
+            for (int i = index; i <= segments.length; i++) {
+                if (collect(node.doubleWildcard, segments, i, endsWithSeparator, collector)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1;
+    }
+
+    private static boolean isPlainSegment(String segment) {
+        return segment == null || (!segment.isEmpty() && segment.indexOf(PATH_SEPARATOR) == -1);
+    }
+
+    private static String expression(String event, String tag, String key) {
+        return new StringBuilder("/").append(event).append("/").append(tag).append("/").append(key).toString();
+    }
+
+    /**
+     * 按分隔符拆分，忽略空分段且不去除空白，与{@link AntPathMatcher}的分段方式一致.
+     */
+    private static String[] tokenize(String path) {
+        List<String> segments = new ArrayList<>(4);
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == PATH_SEPARATOR) {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+
+    /**
+     * 前缀树节点.
+     */
+    private static final class Node<V> {
+
+        /** 当前节点对应的分段，仅含通配符的分段使用 */
+        private final String segment;
+
+        private Map<String, Node<V>> literals;
+
+        private List<Node<V>> patterns;
+
+        private Node<V> wildcard;
+
+        private Node<V> doubleWildcard;
+
+        /** 在此节点结束的规则 */
+        private List<Route<V>> routes;
+
+        Node() {
+            this(null);
+        }
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node<V> literalChild(String segment) {
+            if (this.literals == null) {
+                this.literals = new HashMap<>(8);
+            }
+            return this.literals.computeIfAbsent(segment, s -> new Node<>());
+        }
+
+        Node<V> patternChild(String segment) {
+            if (this.patterns == null) {
+                this.patterns = new ArrayList<>(2);
+            }
+            for (Node<V> child : this.patterns) {
+                if (child.segment.equals(segment)) {
+                    return child;
+                }
+            }
+            Node<V> child = new Node<>(segment);
+            this.patterns.add(child);
+            return child;
+        }
+
+        void addRoute(Route<V> route) {
+            if (this.routes == null) {
+                this.routes = new ArrayList<>(1);
+            }
+            this.routes.add(route);
+        }
+    }
+
+    /**
+     * 已编译的规则.
+     */
+    private static final class Route<V> {
+
+        private final String pattern;
+
+        private final V value;
+
+        /** 注册顺序 */
+        private final int index;
+
+        /** 规则中是否包含 ** 分段 */
+        private final boolean doubleWildcard;
+
+        /** 规则是否以分隔符结尾 */
+        private final boolean endsWithSeparator;
+
+        Route(String pattern, V value, int index, boolean doubleWildcard, boolean endsWithSeparator) {
+            this.pattern = pattern;
+            this.value = value;
+            this.index = index;
+            this.doubleWildcard = doubleWildcard;
+            this.endsWithSeparator = endsWithSeparator;
+        }
+
+        @Override
+        public String toString() {
+            return "Route{" +
+                    "pattern='" + pattern + '\'' +
+                    ", index=" + index +
+                    '}';
+        }
+    }
+
+    /**
+     * 遍历结果收集器. {@code **} 可能使同一规则被多次访问，这里按首次访问的顺序去重.
+     */
+    private static final class Collector<V> {
+
+        private final boolean firstOnly;
+
+        private Route<V> first;
+
+        private List<Route<V>> routes;
+
+        Collector(boolean firstOnly) {
+            this.firstOnly = firstOnly;
+        }
+
+        boolean accept(Route<V> route) {
+            if (this.first == null) {
+                this.first = route;
+                return this.firstOnly;
+            }
+            if (this.first == route) {
+                return false;
+            }
+            if (this.routes == null) {
+                this.routes = new ArrayList<>(4);
+            }
+            for (Route<V> r : this.routes) {
+                if (r == route) {
+                    return false;
+                }
+            }
+            this.routes.add(route);
+            return false;
+        }
+
+        List<V> values() {
+            if (this.first == null) {
+                return Collections.emptyList();
+            }
+            List<V> values = new ArrayList<>(this.routes == null ? 1 : this.routes.size() + 1);
+            values.add(this.first.value);
+            if (this.routes != null) {
+                for (Route<V> route : this.routes) {
+                    values.add(route.value);
+                }
+            }
+            return values;
+        }
+    }
+}
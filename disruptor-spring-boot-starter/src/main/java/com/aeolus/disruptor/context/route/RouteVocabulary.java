@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.route;
+
+import com.aeolus.disruptor.context.event.DisruptorBindEvent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 路由词表.
+ *
+ * <p>生产者在启动时预先注册事件名（event）和事件标签（tag），得到一个64位的路由键：
+ * 高32位为事件名编号，低32位为事件标签编号，编号均从1开始，{@code 0} 表示未注册.
+ * 路由键随事件写入 ringbuffer 槽位，分发线程据此按数组下标解析路由，不需要拼接路由表达式.
+ *
+ * <p>注册的名称会被保存为唯一的字符串实例，{@link #bind(DisruptorBindEvent, long)}写入槽位的也是这些实例，
+ * 因此{@link DisruptorBindEvent#getRouteExpression()}依然可用.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class RouteVocabulary {
+
+    /** 未注册的路由键 */
+    public static final long NO_ROUTE_KEY = 0L;
+
+    private final Map<String, Integer> eventIds = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> tagIds = new ConcurrentHashMap<>();
+
+    /** 按编号索引的事件名，下标0不使用 */
+    private volatile String[] events = new String[1];
+
+    /** 按编号索引的事件标签，下标0不使用 */
+    private volatile String[] tags = new String[1];
+
+
+    /**
+     * 注册事件名和事件标签.
+     *
+     * @param event 事件名，不能为空且不能包含 {@code /}
+     * @param tag 事件标签，不能为空且不能包含 {@code /}
+     * @return 路由键
+     */
+    public synchronized long register(String event, String tag) {
+        int eventId = eventIds.computeIfAbsent(checkName(event), name -> {
+            this.events = append(this.events, name);
+            return this.events.length - 1;
+        });
+        int tagId = tagIds.computeIfAbsent(checkName(tag), name -> {
+            this.tags = append(this.tags, name);
+            return this.tags.length - 1;
+        });
+        return routeKey(eventId, tagId);
+    }
+
+    /**
+     * 返回已注册的路由键.
+     *
+     * @param event 事件名
+     * @param tag 事件标签
+     * @return 路由键，未注册时返回{@link #NO_ROUTE_KEY}
+     */
+    public long getRouteKey(String event, String tag) {
+        if (event == null || tag == null) {
+            return NO_ROUTE_KEY;
+        }
+        Integer eventId = eventIds.get(event);
+        Integer tagId = eventId == null ? null : tagIds.get(tag);
+        return tagId == null ? NO_ROUTE_KEY : routeKey(eventId, tagId);
+    }
+
+    /**
+     * 返回路由键对应的事件名.
+     *
+     * @param routeKey 路由键
+     * @return 事件名，未注册时返回 {@code null}
+     */
+    public String getEvent(long routeKey) {
+        String[] events = this.events;
+        int eventId = eventId(routeKey);
+        return eventId > 0 && eventId < events.length ? events[eventId] : null;
+    }
+
+    /**
+     * 返回路由键对应的事件标签.
+     *
+     * @param routeKey 路由键
+     * @return 事件标签，未注册时返回 {@code null}
+     */
+    public String getTag(long routeKey) {
+        String[] tags = this.tags;
+        int tagId = tagId(routeKey);
+        return tagId > 0 && tagId < tags.length ? tags[tagId] : null;
+    }
+
+    /**
+     * 将路由键以及对应的事件名、事件标签写入事件.
+     *
+     * @param event 事件
+     * @param routeKey 已注册的路由键
+     * @return 事件
+     */
+    public <T extends DisruptorBindEvent> T bind(T event, long routeKey) {
+        String eventName = getEvent(routeKey);
+        String tag = getTag(routeKey);
+        if (eventName == null || tag == null) {
+            throw new IllegalArgumentException("Route key " + Long.toHexString(routeKey) + " is not registered");
+        }
+        event.setEvent(eventName);
+        event.setTag(tag);
+        event.setRouteKey(routeKey);
+        return event;
+    }
+
+    public static long routeKey(int eventId, int tagId) {
+        return ((long) eventId << 32) | (tagId & 0xFFFFFFFFL);
+    }
+
+    public static int eventId(long routeKey) {
+        return (int) (routeKey >>> 32);
+    }
+
+    public static int tagId(long routeKey) {
+        return (int) routeKey;
+    }
+
+    private static String checkName(String name) {
+        if (name == null || name.isEmpty() || name.indexOf('/') != -1) {
+            throw new IllegalArgumentException("Route name must not be empty or contain '/': " + name);
+        }
+        return name;
+    }
+
+    private static String[] append(String[] names, String name) {
+        String[] copy = Arrays.copyOf(names, names.length + 1);
+        copy[names.length] = name;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteVocabulary{" +
+                "events=" + eventIds.keySet() +
+                ", tags=" + tagIds.keySet() +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 目录的独占锁，同一时间只有一个进程（以及进程内的一个实例）可以使用日志或溢出文件目录.
+ *
+ * <p>锁文件为目录中的 {@code .lock}，关闭时先删除锁文件再释放锁，等待中的进程总是锁定新创建的文件.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+final class DirectoryLock implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryLock.class);
+
+    static final String LOCK_FILE = ".lock";
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final FileLock lock;
+
+
+    private DirectoryLock(Path path, FileChannel channel, FileLock lock) {
+        this.path = path;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * 锁定目录.
+     *
+     * @param directory 目录，必须已经存在
+     * @return 目录锁
+     * @throws IOException 创建锁文件失败
+     * @throws IllegalStateException 目录已被其它进程或本进程的其它实例锁定
+     */
+    static DirectoryLock acquire(Path directory) throws IOException {
+        Path path = directory.resolve(LOCK_FILE);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Directory " + directory + " is locked by another process or instance");
+        }
+        return new DirectoryLock(path, channel, lock);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(this.path);
+        } catch (IOException e) {
+            LOG.debug("Failed to delete directory lock {}", this.path, e);
+        }
+        try {
+            this.lock.release();
+            this.channel.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to release directory lock {}", this.path, e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.store;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 数据事件的二进制记录格式.
+ *
+ * <p>依次为 event、tag、key 三个字符串和 data，字符串为长度加 UTF-8 字节，data 为长度加{@link PayloadCodec}编码的字节，
+ * 长度为 {@code -1} 表示 {@code null}. 路由键只在当前进程内有效，不写入记录，重新发布时由事件转换类补充.
+ *
+ * <p>{@link NumericDataEvent}在 data 之后依次写入 long、double、int 数值，没有这部分的记录读取时数值为0.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public final class EventRecords {
+
+    private static final int NULL_LENGTH = -1;
+
+    /** 数值部分的长度 */
+    private static final int NUMERIC_SIZE = Long.BYTES + Double.BYTES + Integer.BYTES;
+
+    private EventRecords() {
+    }
+
+    /**
+     * 将数据事件写入输出流.
+     *
+     * @param out 输出流
+     * @param event 数据事件
+     * @param codec data 的编解码
+     * @throws IOException 写入失败
+     */
+    public static void write(DataOutputStream out, DisruptorDataEvent event, PayloadCodec codec) throws IOException {
+        writeString(out, event.getEvent());
+        writeString(out, event.getTag());
+        writeString(out, event.getKey());
+        Object data = event.getData();
+        if (data == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            byte[] bytes = codec.encode(data);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        if (event instanceof NumericDataEvent) {
+            NumericDataEvent numeric = (NumericDataEvent) event;
+            out.writeLong(numeric.getLongValue());
+            out.writeDouble(numeric.getDoubleValue());
+            out.writeInt(numeric.getIntValue());
+        }
+    }
+
+    /**
+     * 将数据事件编码为字节.
+     *
+     * @param event 数据事件
+     * @param codec data 的编解码
+     * @return 记录的字节
+     */
+    public static byte[] encode(DisruptorDataEvent event, PayloadCodec codec) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            write(new DataOutputStream(bytes), event, codec);
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从缓冲区当前位置读取一条记录到数据事件，缓冲区的 limit 为记录末尾，读取后缓冲区位置移动到记录末尾.
+     *
+     * @param buffer 缓冲区
+     * @param target 目标数据事件
+     * @param codec data 的编解码
+     */
+    @SuppressWarnings("unchecked")
+    public static void read(ByteBuffer buffer, DisruptorDataEvent target, PayloadCodec codec) {
+        target.setEvent(readString(buffer));
+        target.setTag(readString(buffer));
+        target.setKey(readString(buffer));
+        target.setRouteKey(0L);
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            target.setData(null);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            target.setData(codec.decode(bytes));
+        }
+        if (target instanceof NumericDataEvent) {
+            NumericDataEvent numeric = (NumericDataEvent) target;
+            if (buffer.remaining() >= NUMERIC_SIZE) {
+                numeric.setLongValue(buffer.getLong());
+                numeric.setDoubleValue(buffer.getDouble());
+                numeric.setIntValue(buffer.getInt());
+            } else {
+                numeric.clearValues();
+            }
+        }
+    }
+
+    /**
+     * 只读取记录中的 key，不解码 data. 缓冲区位置不变.
+     *
+     * @param buffer 位置在记录开头的缓冲区
+     * @return key，可以为 {@code null}
+     */
+    public static String readKey(ByteBuffer buffer) {
+        ByteBuffer record = buffer.duplicate();
+        skipString(record);
+        skipString(record);
+        return readString(record);
+    }
+
+    /**
+     * 计算 key 的64位哈希，用于日志的 key 索引.
+     *
+     * @param key key，不为 {@code null}
+     * @return 哈希值
+     */
+    public static long hashKey(String key) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash;
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
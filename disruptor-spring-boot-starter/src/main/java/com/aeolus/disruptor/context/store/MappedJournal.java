@@ -0,0 +1,842 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.store;
+
+import com.aeolus.disruptor.context.config.JournalDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的预写日志.
+ *
+ * <p>日志由按首个条目编号命名的分段组成，每个条目为：4字节长度、4字节 CRC32、8字节条目编号、
+ * 8字节写入时间和{@link EventRecords}格式的记录. 长度最后写入，长度为0或校验失败的位置视为日志末尾.
+ * 条目编号跨进程单调递增，确认进度保存在 checkpoint 文件中.
+ *
+ * <p>打开时扫描已有分段，恢复下一个条目编号；新的条目总是写入新的分段. 分段写满或超过 roll-interval 时滚动.
+ *
+ * <p>分段滚动时写入同名的 {@code .index} 索引文件：文件头为条目数量、写入时间范围、最后的条目编号和分段有效长度，
+ * 之后是按 key 哈希排序的 (哈希, 偏移) 数组. 按 key 重放时二分查找各分段的索引，按时间范围重放时跳过范围之外的分段，
+ * 不需要扫描所有分段. 没有索引的分段在打开时扫描重建.
+ *
+ * <p>已确认的分段按{@link JournalDefinition}的保留期限删除；开启压缩时，保留的已确认分段合并为一个分段，
+ * 每个 key 只保留最新的条目. 压缩后的分段先写入临时文件，再原子替换.
+ *
+ * <p>写入方法只由日志阶段的消费者线程调用，重放、保留和压缩可以由其它线程调用.
+ *
+ * <p>打开时锁定日志目录，目录已被其它进程或实例锁定时打开失败，关闭时释放.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class MappedJournal implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final String INDEX_SUFFIX = ".index";
+
+    private static final String TEMP_SUFFIX = ".compacting";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /** 长度、校验和、条目编号、写入时间 */
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+
+    private static final int ID_OFFSET = Integer.BYTES * 2;
+
+    private static final int TIMESTAMP_OFFSET = ID_OFFSET + Long.BYTES;
+
+    /** 索引文件头：标识、条目数量、最早和最晚的写入时间、最后的条目编号、分段有效长度 */
+    private static final int INDEX_MAGIC = 0x4A494458;
+
+    private static final int INDEX_HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES * 3;
+
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long rollIntervalMillis;
+
+    private final long retentionMillis;
+
+    private final long retentionBytes;
+
+    private final boolean retained;
+
+    private final PayloadCodec codec;
+
+    /** 日志目录的独占锁 */
+    private final DirectoryLock directoryLock;
+
+    private final Object lock = new Object();
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private final MappedByteBuffer checkpoint;
+
+    private final CRC32 crc = new CRC32();
+
+    /** 打开时最后一个有效条目的编号，之前的条目可以重放 */
+    private final long recoveredId;
+
+    /** 打开时的确认进度，重放完成前确认进度不会超过它 */
+    private final long replayFrom;
+
+    /** 是否已重放打开时尚未确认的条目 */
+    private volatile boolean replayed;
+
+    /** 下一个条目编号 */
+    private long nextId;
+
+    /** 当前写入的分段 */
+    private Segment tail;
+
+    /** 最后确认的条目编号 */
+    private volatile long acknowledged;
+
+
+    /**
+     * 构造方法，打开或创建日志，已确认的分段立即删除.
+     *
+     * @param directory 日志目录
+     * @param segmentSize 分段大小
+     * @param codec data 的编解码
+     * @throws IOException 读取或创建日志失败
+     */
+    public MappedJournal(Path directory, int segmentSize, PayloadCodec codec) throws IOException {
+        this(directory, new JournalDefinition().setSegmentSize(DataSize.ofBytes(segmentSize)), codec);
+    }
+
+    /**
+     * 构造方法，打开或创建日志.
+     *
+     * @param directory 日志目录
+     * @param definition 日志定义，使用其中的分段大小、滚动间隔和保留期限
+     * @param codec data 的编解码
+     * @throws IOException 读取或创建日志失败
+     * @throws IllegalStateException 日志目录已被其它进程或实例锁定
+     */
+    public MappedJournal(Path directory, JournalDefinition definition, PayloadCodec codec) throws IOException {
+        long segmentBytes = definition.getSegmentSize().toBytes();
+        if (segmentBytes < 64) {
+            throw new IllegalArgumentException("Journal segment size must be >= 64 bytes: " + segmentBytes);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, segmentBytes);
+        this.rollIntervalMillis = definition.getRollInterval().toMillis();
+        this.retentionMillis = definition.getRetentionTime().toMillis();
+        this.retentionBytes = definition.getRetentionSize().toBytes();
+        this.retained = definition.isRetained();
+        this.codec = codec;
+        this.directoryLock = DirectoryLock.acquire(this.directory);
+        long lastId;
+        try {
+            try (FileChannel channel = FileChannel.open(this.directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+            }
+            this.acknowledged = this.checkpoint.getLong(0);
+
+            deleteFiles("*" + TEMP_SUFFIX);
+            lastId = this.acknowledged;
+            for (Path path : listFiles("*" + SEGMENT_SUFFIX)) {
+                Segment segment = openSegment(path);
+                this.segments.addLast(segment);
+                if (segment.lastId >= 0) {
+                    lastId = Math.max(lastId, segment.lastId);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            this.directoryLock.close();
+            throw e;
+        }
+        this.recoveredId = lastId;
+        this.replayFrom = this.acknowledged;
+        this.replayed = this.recoveredId == this.replayFrom;
+        this.nextId = lastId + 1;
+    }
+
+    /**
+     * 追加一个条目.
+     *
+     * @param id 条目编号，必须大于之前追加的条目
+     * @param event 数据事件
+     * @throws IOException 创建分段失败
+     */
+    public void append(long id, DisruptorDataEvent event) throws IOException {
+        byte[] record = EventRecords.encode(event, this.codec);
+        int length = HEADER_SIZE + record.length;
+        long now = System.currentTimeMillis();
+        synchronized (this.lock) {
+            if (this.tail == null || this.tail.buffer.capacity() - this.tail.writePosition < length
+                    || (this.rollIntervalMillis > 0 && this.tail.lastId >= 0
+                        && now - this.tail.firstTimestamp >= this.rollIntervalMillis)) {
+                roll(id, length);
+            }
+            Segment segment = this.tail;
+            int position = segment.writePosition;
+            ByteBuffer entry = segment.buffer.duplicate();
+            entry.position(position + ID_OFFSET);
+            entry.putLong(id);
+            entry.putLong(now);
+            entry.put(record);
+
+            entry.limit(position + length);
+            entry.position(position + ID_OFFSET);
+            this.crc.reset();
+            this.crc.update(entry);
+            segment.buffer.putInt(position + Integer.BYTES, (int) this.crc.getValue());
+            // 长度最后写入，写入中断时该位置仍为日志末尾
+            segment.buffer.putInt(position, record.length);
+            segment.writePosition += length;
+            segment.add(event.getKey(), position, id, now);
+            this.nextId = id + 1;
+        }
+    }
+
+    /**
+     * 将当前分段写入的内容刷写到磁盘.
+     */
+    public void sync() {
+        Segment segment = this.tail;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * 确认条目编号之前（包括）的所有条目已处理完成. 重放完成前只记录在内存中，
+     * 避免尚未重放的条目在重启后被视为已确认.
+     *
+     * @param id 条目编号
+     * @param sync 是否将确认进度刷写到磁盘
+     */
+    public void acknowledge(long id, boolean sync) {
+        if (id <= this.acknowledged) {
+            return;
+        }
+        this.acknowledged = id;
+        if (!this.replayed) {
+            return;
+        }
+        this.checkpoint.putLong(0, id);
+        if (sync) {
+            this.checkpoint.force();
+        }
+    }
+
+    /**
+     * 按顺序重放打开日志时尚未确认的条目.
+     *
+     * @param consumer 接收重放的数据事件，每个条目一个新的数据事件
+     * @return 重放的条目数量
+     */
+    public long replay(Consumer<DisruptorDataEvent> consumer) {
+        long replayed = 0;
+        long from = this.replayFrom;
+        for (Segment segment : snapshot()) {
+            if (segment.lastId <= from || segment.firstId > this.recoveredId) {
+                continue;
+            }
+            int position = 0;
+            int limit = segment.writePosition;
+            while (position < limit) {
+                int length = segment.buffer.getInt(position);
+                long id = segment.buffer.getLong(position + ID_OFFSET);
+                if (id > from && id <= this.recoveredId) {
+                    consumer.accept(read(segment, position, length));
+                    replayed++;
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+        this.replayed = true;
+        return replayed;
+    }
+
+    /**
+     * 按条目编号顺序重放日志中保留的指定 key 的条目，通过各分段的 key 索引定位.
+     *
+     * @param key key
+     * @param consumer 接收重放的数据事件，每个条目一个新的数据事件
+     * @return 重放的条目数量
+     */
+    public long replay(String key, Consumer<DisruptorDataEvent> consumer) {
+        Objects.requireNonNull(key, "key");
+        long hash = EventRecords.hashKey(key);
+        long replayed = 0;
+        for (Segment segment : snapshot()) {
+            for (int position : segment.positionsOf(hash)) {
+                int length = segment.buffer.getInt(position);
+                ByteBuffer record = segment.buffer.duplicate();
+                record.position(position + HEADER_SIZE);
+                if (key.equals(EventRecords.readKey(record))) {
+                    consumer.accept(read(segment, position, length));
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 按条目编号顺序重放日志中保留的、写入时间在范围内的条目，跳过时间范围之外的分段.
+     *
+     * @param fromMillis 最早的写入时间（包括），单位毫秒
+     * @param toMillis 最晚的写入时间（不包括），单位毫秒
+     * @param consumer 接收重放的数据事件，每个条目一个新的数据事件
+     * @return 重放的条目数量
+     */
+    public long replay(long fromMillis, long toMillis, Consumer<DisruptorDataEvent> consumer) {
+        long replayed = 0;
+        for (Segment segment : snapshot()) {
+            if (segment.lastId < 0 || segment.lastTimestamp < fromMillis || segment.firstTimestamp >= toMillis) {
+                continue;
+            }
+            int position = 0;
+            int limit = segment.writePosition;
+            while (position < limit) {
+                int length = segment.buffer.getInt(position);
+                long timestamp = segment.buffer.getLong(position + TIMESTAMP_OFFSET);
+                if (timestamp >= fromMillis && timestamp < toMillis) {
+                    consumer.accept(read(segment, position, length));
+                    replayed++;
+                }
+                position += HEADER_SIZE + length;
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * 删除超过保留期限的已确认分段. 未设置保留期限时删除所有已确认的分段.
+     */
+    public void retain() {
+        synchronized (this.lock) {
+            release();
+        }
+    }
+
+    /**
+     * 压缩保留的已确认分段，合并为一个分段，每个 key 只保留最新的条目，没有 key 的条目全部保留.
+     *
+     * @return 删除的条目数量
+     * @throws IOException 写入压缩后的分段失败
+     */
+    public long compact() throws IOException {
+        List<Segment> candidates = new ArrayList<>();
+        synchronized (this.lock) {
+            long released = releasedId();
+            for (Segment segment : this.segments) {
+                if (segment == this.tail || segment.lastId < 0 || segment.lastId > released) {
+                    break;
+                }
+                candidates.add(segment);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        // 每个 key 最新条目的位置: 分段下标 << 32 | 偏移
+        Map<String, Long> latest = new HashMap<>();
+        int entries = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Segment segment = candidates.get(i);
+            int position = 0;
+            while (position < segment.writePosition) {
+                String key = keyAt(segment, position);
+                if (key != null) {
+                    latest.put(key, ((long) i << 32) | position);
+                }
+                entries++;
+                position += HEADER_SIZE + segment.buffer.getInt(position);
+            }
+        }
+        long removed = 0;
+        int size = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Segment segment = candidates.get(i);
+            int position = 0;
+            while (position < segment.writePosition) {
+                int length = HEADER_SIZE + segment.buffer.getInt(position);
+                String key = keyAt(segment, position);
+                if (key == null || latest.get(key) == (((long) i << 32) | position)) {
+                    size += length;
+                } else {
+                    removed++;
+                }
+                position += length;
+            }
+        }
+        if (removed == 0) {
+            return 0;
+        }
+
+        Segment first = candidates.get(0);
+        Segment last = candidates.get(candidates.size() - 1);
+        Path temp = this.directory.resolve(first.path.getFileName() + TEMP_SUFFIX);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, 1));
+        }
+        // 压缩后的分段沿用第一个分段的编号，最后的条目编号沿用最后一个分段，保证确认进度的判断不变
+        Segment compacted = new Segment(first.path, first.firstId, buffer);
+        for (int i = 0; i < candidates.size(); i++) {
+            Segment segment = candidates.get(i);
+            int position = 0;
+            while (position < segment.writePosition) {
+                int length = HEADER_SIZE + segment.buffer.getInt(position);
+                String key = keyAt(segment, position);
+                if (key == null || latest.get(key) == (((long) i << 32) | position)) {
+                    ByteBuffer entry = segment.buffer.duplicate();
+                    entry.position(position);
+                    entry.limit(position + length);
+                    ByteBuffer target = buffer.duplicate();
+                    target.position(compacted.writePosition);
+                    target.put(entry);
+                    compacted.add(key, compacted.writePosition, segment.buffer.getLong(position + ID_OFFSET),
+                            segment.buffer.getLong(position + TIMESTAMP_OFFSET));
+                    compacted.writePosition += length;
+                }
+                position += length;
+            }
+        }
+        compacted.lastId = last.lastId;
+        buffer.force();
+
+        synchronized (this.lock) {
+            List<Segment> head = new ArrayList<>(candidates.size());
+            for (Segment segment : this.segments) {
+                if (head.size() == candidates.size()) {
+                    break;
+                }
+                head.add(segment);
+            }
+            if (!head.equals(candidates)) {
+                // 压缩期间分段已被删除
+                Files.deleteIfExists(temp);
+                return 0;
+            }
+            // 先删除旧索引，替换分段后再写入新索引，中途失败时打开日志会重建索引
+            Files.deleteIfExists(indexPath(first.path));
+            Files.move(temp, first.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (int i = 1; i < candidates.size(); i++) {
+                delete(candidates.get(i));
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                this.segments.pollFirst();
+            }
+            compacted.seal(indexPath(compacted.path));
+            this.segments.addFirst(compacted);
+        }
+        LOG.info("Compacted {} journal segments in {}, removed {} of {} entries.", candidates.size(), this.directory,
+                removed, entries);
+        return removed;
+    }
+
+    /**
+     * 返回打开日志时尚未确认的条目数量的上限，中间有条目损坏时实际重放的数量会更少.
+     *
+     * @return 尚未确认的条目数量
+     */
+    public long getUnacknowledgedCount() {
+        return this.recoveredId - this.replayFrom;
+    }
+
+    /** @return 下一个条目编号 */
+    public long getNextId() {
+        return this.nextId;
+    }
+
+    /** @return 最后确认的条目编号 */
+    public long getAcknowledged() {
+        return this.acknowledged;
+    }
+
+    /** @return 分段数量 */
+    public int getSegmentCount() {
+        synchronized (this.lock) {
+            return this.segments.size();
+        }
+    }
+
+    /** @return 所有分段有效内容的字节数 */
+    public long getBytes() {
+        synchronized (this.lock) {
+            long bytes = 0;
+            for (Segment segment : this.segments) {
+                bytes += segment.writePosition;
+            }
+            return bytes;
+        }
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * 刷写当前分段和确认进度，写入当前分段的索引，删除超过保留期限的已确认分段，释放日志目录的锁.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            try {
+                sync();
+                if (this.replayed) {
+                    this.checkpoint.putLong(0, this.acknowledged);
+                }
+                this.checkpoint.force();
+                sealTail();
+                release();
+            } finally {
+                this.directoryLock.close();
+            }
+        }
+    }
+
+    private long releasedId() {
+        return this.replayed ? this.acknowledged : this.replayFrom;
+    }
+
+    /**
+     * 删除超过保留期限的已确认分段，当前写入的分段不会被删除. 调用方持有锁.
+     */
+    private void release() {
+        long released = releasedId();
+        long now = System.currentTimeMillis();
+        long bytes = 0;
+        for (Segment segment : this.segments) {
+            bytes += segment.writePosition;
+        }
+        while (!this.segments.isEmpty()) {
+            Segment segment = this.segments.peekFirst();
+            if (segment == this.tail || segment.lastId > released) {
+                break;
+            }
+            boolean expired = segment.lastId < 0 || !this.retained
+                    || (this.retentionMillis > 0 && now - segment.lastTimestamp > this.retentionMillis)
+                    || (this.retentionBytes > 0 && bytes > this.retentionBytes);
+            if (!expired) {
+                break;
+            }
+            this.segments.pollFirst();
+            bytes -= segment.writePosition;
+            delete(segment);
+        }
+    }
+
+    private void roll(long id, int length) throws IOException {
+        sealTail();
+        release();
+        Path path = this.directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(this.segmentSize, length));
+        }
+        this.tail = new Segment(path, id, buffer);
+        this.segments.addLast(this.tail);
+    }
+
+    /**
+     * 刷写当前分段并写入索引，之后不再写入.
+     */
+    private void sealTail() {
+        if (this.tail == null) {
+            return;
+        }
+        this.tail.buffer.force();
+        try {
+            this.tail.seal(indexPath(this.tail.path));
+        } catch (IOException e) {
+            LOG.warn("Failed to write journal index of {}, it is rebuilt on the next start.", this.tail.path, e);
+        }
+        this.tail = null;
+    }
+
+    private List<Segment> snapshot() {
+        synchronized (this.lock) {
+            return new ArrayList<>(this.segments);
+        }
+    }
+
+    private DisruptorDataEvent read(Segment segment, int position, int length) {
+        ByteBuffer record = segment.buffer.duplicate();
+        record.position(position + HEADER_SIZE);
+        record.limit(position + HEADER_SIZE + length);
+        DisruptorDataEvent event = new NumericDataEvent(this);
+        EventRecords.read(record, event, this.codec);
+        return event;
+    }
+
+    private static String keyAt(Segment segment, int position) {
+        ByteBuffer record = segment.buffer.duplicate();
+        record.position(position + HEADER_SIZE);
+        return EventRecords.readKey(record);
+    }
+
+    private List<Path> listFiles(String glob) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, glob)) {
+            stream.forEach(paths::add);
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private void deleteFiles(String glob) throws IOException {
+        for (Path path : listFiles(glob)) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+            Files.deleteIfExists(indexPath(segment.path));
+        } catch (IOException e) {
+            LOG.warn("Failed to delete journal segment {}", segment.path, e);
+        }
+    }
+
+    private Segment openSegment(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long firstId = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Segment segment = new Segment(path, firstId, buffer);
+        Path index = indexPath(path);
+        if (Files.exists(index) && segment.load(index)) {
+            return segment;
+        }
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer entry = buffer.duplicate();
+            entry.position(position + ID_OFFSET);
+            entry.limit(position + HEADER_SIZE + length);
+            this.crc.reset();
+            this.crc.update(entry);
+            if ((int) this.crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                LOG.warn("Journal segment {} is corrupted at {}, following entries are ignored.", path, position);
+                break;
+            }
+            segment.add(keyAt(segment, position), position, buffer.getLong(position + ID_OFFSET),
+                    buffer.getLong(position + TIMESTAMP_OFFSET));
+            position += HEADER_SIZE + length;
+            segment.writePosition = position;
+        }
+        segment.seal(index);
+        return segment;
+    }
+
+
+    /**
+     * 日志分段. 写入中的分段在内存中累积 key 索引，滚动后写入索引文件.
+     */
+    private static final class Segment {
+
+        private final Path path;
+
+        /** 首个条目编号 */
+        private final long firstId;
+
+        private final MappedByteBuffer buffer;
+
+        /** 最后一个条目编号，没有条目时为 -1 */
+        private volatile long lastId = -1;
+
+        /** 有效内容的长度，之前的内容不再改变 */
+        private volatile int writePosition;
+
+        private volatile long firstTimestamp = Long.MAX_VALUE;
+
+        private volatile long lastTimestamp = Long.MIN_VALUE;
+
+        /** 写入中的 key 索引 */
+        private long[] hashes = new long[64];
+
+        private int[] positions = new int[64];
+
+        private int indexSize;
+
+        /** 滚动后的 key 索引文件 */
+        private MappedByteBuffer index;
+
+        private int indexCount;
+
+        Segment(Path path, long firstId, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstId = firstId;
+            this.buffer = buffer;
+        }
+
+        synchronized void add(String key, int position, long id, long timestamp) {
+            if (key != null) {
+                if (this.indexSize == this.hashes.length) {
+                    this.hashes = Arrays.copyOf(this.hashes, this.indexSize * 2);
+                    this.positions = Arrays.copyOf(this.positions, this.indexSize * 2);
+                }
+                this.hashes[this.indexSize] = EventRecords.hashKey(key);
+                this.positions[this.indexSize] = position;
+                this.indexSize++;
+            }
+            this.lastId = Math.max(this.lastId, id);
+            this.firstTimestamp = Math.min(this.firstTimestamp, timestamp);
+            this.lastTimestamp = Math.max(this.lastTimestamp, timestamp);
+        }
+
+        /**
+         * 返回 key 哈希相同的条目偏移，按偏移升序排列.
+         */
+        synchronized int[] positionsOf(long hash) {
+            int limit = this.writePosition;
+            if (this.index == null) {
+                int[] matched = new int[4];
+                int count = 0;
+                for (int i = 0; i < this.indexSize && this.positions[i] < limit; i++) {
+                    if (this.hashes[i] == hash) {
+                        if (count == matched.length) {
+                            matched = Arrays.copyOf(matched, count * 2);
+                        }
+                        matched[count++] = this.positions[i];
+                    }
+                }
+                return Arrays.copyOf(matched, count);
+            }
+            int low = 0;
+            int high = this.indexCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.index.getLong(INDEX_HEADER_SIZE + mid * INDEX_ENTRY_SIZE) < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int end = low;
+            while (end < this.indexCount && this.index.getLong(INDEX_HEADER_SIZE + end * INDEX_ENTRY_SIZE) == hash) {
+                end++;
+            }
+            int[] matched = new int[end - low];
+            for (int i = low; i < end; i++) {
+                matched[i - low] = this.index.getInt(INDEX_HEADER_SIZE + i * INDEX_ENTRY_SIZE + Long.BYTES);
+            }
+            return matched;
+        }
+
+        /**
+         * 按 (哈希, 偏移) 排序写入索引文件，之后按索引文件查找.
+         */
+        synchronized void seal(Path indexPath) throws IOException {
+            Integer[] order = new Integer[this.indexSize];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> this.hashes[a] != this.hashes[b]
+                    ? Long.compare(this.hashes[a], this.hashes[b]) : Integer.compare(this.positions[a], this.positions[b]));
+            Path temp = indexPath.resolveSibling(indexPath.getFileName() + TEMP_SUFFIX);
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        INDEX_HEADER_SIZE + (long) order.length * INDEX_ENTRY_SIZE);
+            }
+            mapped.putInt(INDEX_MAGIC).putInt(order.length)
+                    .putLong(this.firstTimestamp).putLong(this.lastTimestamp).putLong(this.lastId)
+                    .putInt(this.writePosition);
+            for (Integer i : order) {
+                mapped.putLong(this.hashes[i]).putInt(this.positions[i]);
+            }
+            mapped.force();
+            Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.index = mapped;
+            this.indexCount = order.length;
+            this.hashes = null;
+            this.positions = null;
+        }
+
+        /**
+         * 读取索引文件，索引与分段不一致时返回 {@code false}.
+         */
+        synchronized boolean load(Path indexPath) throws IOException {
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+                if (channel.size() < INDEX_HEADER_SIZE) {
+                    return false;
+                }
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            int count = mapped.getInt(Integer.BYTES);
+            int writePosition = mapped.getInt(INDEX_HEADER_SIZE - Integer.BYTES);
+            if (mapped.getInt(0) != INDEX_MAGIC || writePosition > this.buffer.capacity()
+                    || mapped.capacity() != INDEX_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE) {
+                return false;
+            }
+            this.firstTimestamp = mapped.getLong(Integer.BYTES * 2);
+            this.lastTimestamp = mapped.getLong(Integer.BYTES * 2 + Long.BYTES);
+            this.lastId = mapped.getLong(Integer.BYTES * 2 + Long.BYTES * 2);
+            this.writePosition = writePosition;
+            this.index = mapped;
+            this.indexCount = count;
+            this.hashes = null;
+            this.positions = null;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.store;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 基于内存映射文件的先进先出队列，只追加写入.
+ *
+ * <p>文件按分段滚动，每条记录为4字节长度加{@link EventRecords}格式的记录. 读完的分段立即删除，
+ * 队列读空且只剩一个分段时从头复用该分段. 映射的内存在分段对象被回收后释放.
+ *
+ * <p>打开时锁定分段文件目录，只删除自己持有的目录中的分段，目录已被其它进程或实例锁定时打开失败.
+ *
+ * <p>非线程安全，由调用方加锁.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class MappedSpillQueue implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedSpillQueue.class);
+
+    private static final String SEGMENT_SUFFIX = ".spill";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final PayloadCodec codec;
+
+    /** 分段文件目录的独占锁 */
+    private final DirectoryLock directoryLock;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    /** 下一个分段的编号 */
+    private long nextIndex;
+
+    /** 队列中的记录数量 */
+    private long depth;
+
+    /** 队列中的记录字节数 */
+    private long bytes;
+
+
+    /**
+     * 构造方法，锁定目录并删除目录中残留的分段文件.
+     *
+     * @param directory 分段文件目录
+     * @param segmentSize 分段大小
+     * @param codec data 的编解码
+     * @throws IOException 创建目录失败
+     * @throws IllegalStateException 目录已被其它进程或实例锁定
+     */
+    public MappedSpillQueue(Path directory, int segmentSize, PayloadCodec codec) throws IOException {
+        if (segmentSize < 64) {
+            throw new IllegalArgumentException("Spill segment size must be >= 64 bytes: " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        this.directoryLock = DirectoryLock.acquire(this.directory);
+        int stale = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                Files.deleteIfExists(path);
+                stale++;
+            }
+        } catch (IOException | RuntimeException e) {
+            this.directoryLock.close();
+            throw e;
+        }
+        if (stale > 0) {
+            LOG.warn("Deleted {} stale spill segments in {}, events spilled before the last shutdown are lost.",
+                    stale, this.directory);
+        }
+    }
+
+    /**
+     * 追加一条记录.
+     *
+     * @param event 数据事件
+     * @throws IOException 创建分段失败
+     */
+    public void append(DisruptorDataEvent event) throws IOException {
+        byte[] record = EventRecords.encode(event, this.codec);
+        int length = Integer.BYTES + record.length;
+        Segment tail = this.segments.peekLast();
+        if (tail == null || tail.buffer.capacity() - tail.writePosition < length) {
+            tail = newSegment(Math.max(this.segmentSize, length));
+        }
+        ByteBuffer buffer = tail.buffer;
+        buffer.putInt(tail.writePosition, record.length);
+        ByteBuffer target = buffer.duplicate();
+        target.position(tail.writePosition + Integer.BYTES);
+        target.put(record);
+        tail.writePosition += length;
+        this.depth++;
+        this.bytes += length;
+    }
+
+    /**
+     * 读取并移除最早的一条记录.
+     *
+     * @param target 目标数据事件
+     * @return 队列为空时返回 {@code false}
+     */
+    public boolean poll(DisruptorDataEvent target) {
+        Segment head = this.segments.peekFirst();
+        while (head != null && head.readPosition == head.writePosition) {
+            if (head == this.segments.peekLast()) {
+                // 只剩一个分段，从头复用
+                head.readPosition = 0;
+                head.writePosition = 0;
+                return false;
+            }
+            this.segments.pollFirst();
+            delete(head);
+            head = this.segments.peekFirst();
+        }
+        if (head == null) {
+            return false;
+        }
+        int length = head.buffer.getInt(head.readPosition);
+        ByteBuffer record = head.buffer.duplicate();
+        record.position(head.readPosition + Integer.BYTES);
+        record.limit(head.readPosition + Integer.BYTES + length);
+        head.readPosition += Integer.BYTES + length;
+        this.depth--;
+        this.bytes -= Integer.BYTES + length;
+        EventRecords.read(record, target, this.codec);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return this.depth == 0;
+    }
+
+    /** @return 队列中的记录数量 */
+    public long getDepth() {
+        return this.depth;
+    }
+
+    /** @return 队列中的记录字节数 */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /** @return 分段数量 */
+    public int getSegmentCount() {
+        return this.segments.size();
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * 删除所有分段并释放目录的锁，队列中剩余的记录被丢弃.
+     */
+    @Override
+    public void close() {
+        Segment segment;
+        while ((segment = this.segments.pollFirst()) != null) {
+            delete(segment);
+        }
+        this.depth = 0;
+        this.bytes = 0;
+        this.directoryLock.close();
+    }
+
+    private Segment newSegment(int size) throws IOException {
+        Path path = this.directory.resolve(String.format("%020d%s", this.nextIndex++, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        Segment segment = new Segment(path, buffer);
+        this.segments.addLast(segment);
+        return segment;
+    }
+
+    private static void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete spill segment {}", segment.path, e);
+        }
+    }
+
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        private int writePosition;
+
+        private int readPosition;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.store;
+
+/**
+ * 数据事件 data 的编解码，用于将事件写入溢出文件或日志.
+ *
+ * <p>默认实现为{@link SerializationPayloadCodec}，可以声明 {@code PayloadCodec} 类型的 Bean 替换，
+ * 例如使用 JSON 或 Protobuf.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public interface PayloadCodec {
+
+    /**
+     * 编码数据对象.
+     *
+     * @param data 数据对象，不为 {@code null}
+     * @return 编码后的字节
+     */
+    byte[] encode(Object data);
+
+    /**
+     * 解码数据对象.
+     *
+     * @param bytes 编码后的字节
+     * @return 数据对象
+     */
+    Object decode(byte[] bytes);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.store;
+
+import org.springframework.util.SerializationUtils;
+
+/**
+ * 基于 JDK 序列化的编解码，数据对象需要实现{@link java.io.Serializable}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class SerializationPayloadCodec implements PayloadCodec {
+
+    @Override
+    public byte[] encode(Object data) {
+        return SerializationUtils.serialize(data);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return SerializationUtils.deserialize(bytes);
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.config.BackpressureDefinition;
+import com.aeolus.disruptor.context.config.BackpressurePolicy;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.aeolus.disruptor.context.handler.HandlerChain;
+import com.aeolus.disruptor.context.handler.PathMatchingHandlerChainResolver;
+import com.aeolus.disruptor.context.route.RouteTrie;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Disruptor 实例的发布背压.
+ *
+ * <p>先尝试发布，有空闲槽位时直接返回；RingBuffer 已满时才按路由规则选择{@link BackpressurePolicy}，
+ * 没有匹配的规则时使用实例的默认策略. 各策略在 RingBuffer 已满时的处理次数分别计数.
+ *
+ * <p>caller-runs 策略把事件复制到新的事件对象后再交给处理器链，发布方复用的事件对象（如线程内复用的数值事件）
+ * 在处理器链中再次发布时不会被覆盖.
+ *
+ * <p>默认策略为 spill 时，溢出文件中有尚未回填的事件期间，所有事件都写入溢出文件，保持发布顺序.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see BackpressureDefinition
+ */
+public final class Backpressure implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Backpressure.class);
+
+    /** 等待空闲槽位时每次休眠的时间 */
+    private static final long PARK_NANOS = 10_000L;
+
+    private final String name;
+
+    private final BackpressurePolicy policy;
+
+    private final long timeoutNanos;
+
+    private final RouteTrie<BackpressurePolicy> routes = new RouteTrie<>();
+
+    /** caller-runs 策略使用的处理器解析类，可以为 {@code null} */
+    private final PathMatchingHandlerChainResolver resolver;
+
+    /** spill 策略的溢出文件，可以为 {@code null} */
+    private final Spill spill;
+
+    private final LongAdder blocked = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    private final LongAdder droppedNewest = new LongAdder();
+
+    private final LongAdder callerRuns = new LongAdder();
+
+    /** 是否已记录 RingBuffer 已满的警告 */
+    private volatile boolean overflowWarned;
+
+
+    /**
+     * 构造方法
+     *
+     * @param name 实例名
+     * @param definition 发布策略定义
+     * @param resolver caller-runs 策略使用的处理器解析类，可以为null
+     */
+    public Backpressure(String name, BackpressureDefinition definition, PathMatchingHandlerChainResolver resolver) {
+        this(name, definition, resolver, null);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param name 实例名
+     * @param definition 发布策略定义
+     * @param resolver caller-runs 策略使用的处理器解析类，可以为null
+     * @param spill spill 策略的溢出文件，默认策略不是 spill 时可以为null
+     */
+    public Backpressure(String name, BackpressureDefinition definition, PathMatchingHandlerChainResolver resolver,
+                        Spill spill) {
+        this.name = name;
+        this.policy = definition.getPolicy();
+        this.timeoutNanos = definition.getTimeout().toNanos();
+        this.resolver = resolver;
+        this.spill = spill;
+        definition.getRoutes().forEach((pattern, routePolicy) -> {
+            if (!this.routes.add(pattern, routePolicy)) {
+                LOG.warn("Backpressure route [{}] of Disruptor instance '{}' must start with '/', it will never match any event.",
+                        pattern, name);
+            }
+        });
+        checkPolicy(this.policy);
+        definition.getRoutes().values().forEach(this::checkPolicy);
+        if (definition.getRoutes().containsValue(BackpressurePolicy.SPILL)) {
+            throw new IllegalArgumentException("Backpressure policy spill of Disruptor instance '" + name
+                    + "' can only be the default policy");
+        }
+    }
+
+    /**
+     * 默认策略为{@link BackpressurePolicy#BLOCK}的发布背压.
+     *
+     * @param name 实例名
+     * @return 发布背压
+     */
+    public static Backpressure block(String name) {
+        return new Backpressure(name, new BackpressureDefinition(), null);
+    }
+
+    /**
+     * 按路由规则选择的策略发布事件.
+     *
+     * @param ringBuffer RingBuffer
+     * @param translator 事件转换类
+     * @param event 数据事件
+     * @return 事件是否已发布或已由发布线程处理
+     */
+    public boolean publish(RingBuffer<DisruptorDataEvent> ringBuffer,
+                           EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                           DisruptorDataEvent event) {
+        return publish(ringBuffer, translator, event, null, this.timeoutNanos);
+    }
+
+    /**
+     * 按指定策略发布事件.
+     *
+     * @param ringBuffer RingBuffer
+     * @param translator 事件转换类
+     * @param event 数据事件
+     * @param policy 发布策略，为 {@code null} 时按路由规则选择
+     * @param timeoutNanos timeout 的最长等待时间，单位纳秒
+     * @return 事件是否已发布或已由发布线程处理
+     */
+    public boolean publish(RingBuffer<DisruptorDataEvent> ringBuffer,
+                           EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                           DisruptorDataEvent event, BackpressurePolicy policy, long timeoutNanos) {
+        if (this.spill != null && this.spill.isActive() && this.spill.offer(event)) {
+            return true;
+        }
+        if (ringBuffer.tryPublishEvent(translator, event)) {
+            return true;
+        }
+        if (policy == null) {
+            policy = policyOf(event);
+        }
+        warnOverflow(policy);
+        switch (policy) {
+            case TRY:
+                this.rejected.increment();
+                return false;
+            case TIMEOUT:
+                if (awaitPublish(ringBuffer, translator, event, timeoutNanos)) {
+                    return true;
+                }
+                this.timedOut.increment();
+                return false;
+            case DROP_NEWEST:
+                this.droppedNewest.increment();
+                return false;
+            case CALLER_RUNS:
+                this.callerRuns.increment();
+                runOnCaller(translator, event);
+                return true;
+            case SPILL:
+                if (this.spill != null && this.spill.offer(event)) {
+                    return true;
+                }
+                // 写入溢出文件失败时等待空闲槽位
+                this.blocked.increment();
+                ringBuffer.publishEvent(translator, event);
+                return true;
+            default:
+                this.blocked.increment();
+                ringBuffer.publishEvent(translator, event);
+                return true;
+        }
+    }
+
+    /**
+     * 批量发布事件.
+     *
+     * <p>每次通过{@link RingBuffer#tryNext(int)}申请一段连续序号，依次写入槽位后一次性发布，
+     * 超过 RingBuffer 容量的批次分段发布. 剩余容量不足一段时，默认策略为 block 且没有按路由规则覆盖的策略，
+     * 则通过{@link RingBuffer#next(int)}等待整段容量；否则逐个事件按发布策略处理，有空闲容量后恢复整段发布.
+     *
+     * @param ringBuffer RingBuffer
+     * @param translator 事件转换类
+     * @param events 数据事件
+     * @param from 第一个事件的下标
+     * @param count 事件数量
+     * @return 已发布或已由发布线程处理的事件数量
+     */
+    public int publishEvents(RingBuffer<DisruptorDataEvent> ringBuffer,
+                             EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                             DisruptorDataEvent[] events, int from, int count) {
+        int bufferSize = ringBuffer.getBufferSize();
+        boolean blocking = this.policy == BackpressurePolicy.BLOCK && this.routes.isEmpty();
+        int published = 0;
+        int offset = from;
+        int end = from + count;
+        while (offset < end) {
+            if (this.spill != null && this.spill.isActive()) {
+                // 排在已溢出的事件之后
+                if (publish(ringBuffer, translator, events[offset])) {
+                    published++;
+                }
+                offset++;
+                continue;
+            }
+            int batchSize = Math.min(bufferSize, end - offset);
+            long hi;
+            try {
+                hi = ringBuffer.tryNext(batchSize);
+            } catch (InsufficientCapacityException e) {
+                if (!blocking) {
+                    if (publish(ringBuffer, translator, events[offset])) {
+                        published++;
+                    }
+                    offset++;
+                    continue;
+                }
+                warnOverflow(this.policy);
+                this.blocked.increment();
+                hi = ringBuffer.next(batchSize);
+            }
+            long lo = hi - (batchSize - 1);
+            try {
+                for (int i = 0; i < batchSize; i++) {
+                    translator.translateTo(ringBuffer.get(lo + i), lo + i, events[offset + i]);
+                }
+            } finally {
+                ringBuffer.publish(lo, hi);
+            }
+            published += batchSize;
+            offset += batchSize;
+        }
+        return published;
+    }
+
+    /**
+     * 返回事件的发布策略.
+     *
+     * @param event 数据事件
+     * @return 路由规则匹配的策略，没有匹配时为默认策略
+     */
+    public BackpressurePolicy policyOf(DisruptorDataEvent event) {
+        if (this.routes.isEmpty()) {
+            return this.policy;
+        }
+        BackpressurePolicy routePolicy = this.routes.match(event.getEvent(), event.getTag(), event.getKey());
+        return routePolicy == null ? this.policy : routePolicy;
+    }
+
+    private boolean awaitPublish(RingBuffer<DisruptorDataEvent> ringBuffer,
+                                 EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                                 DisruptorDataEvent event, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.parkNanos(PARK_NANOS);
+            if (ringBuffer.tryPublishEvent(translator, event)) {
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    private void runOnCaller(EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                             DisruptorDataEvent event) {
+        try {
+            // 处理器链可能在同一线程上再次发布，覆盖发布方复用的事件对象
+            DisruptorDataEvent copy = new NumericDataEvent(this);
+            translator.translateTo(copy, -1L, event);
+            HandlerChain handlerChain = this.resolver.getExecutionChain(copy);
+            if (handlerChain != null) {
+                handlerChain.doHandler(copy);
+            }
+        } catch (Exception ex) {
+            LOG.error("Handler chain failed on event " + event + " run by the publishing thread", ex);
+        }
+    }
+
+    private void checkPolicy(BackpressurePolicy policy) {
+        if (policy == BackpressurePolicy.CALLER_RUNS && this.resolver == null) {
+            throw new IllegalArgumentException("Backpressure policy caller-runs of Disruptor instance '" + this.name
+                    + "' requires a handler chain resolver");
+        }
+        if (policy == BackpressurePolicy.SPILL && this.spill == null) {
+            throw new IllegalArgumentException("Backpressure policy spill of Disruptor instance '" + this.name
+                    + "' requires a spill file");
+        }
+    }
+
+    private void warnOverflow(BackpressurePolicy policy) {
+        if (!this.overflowWarned) {
+            this.overflowWarned = true;
+            LOG.warn("RingBuffer of Disruptor instance '{}' is full, applying backpressure policy {}, " +
+                    "further occurrences are only counted.", this.name, policy);
+        }
+    }
+
+    /**
+     * 溢出文件中是否有尚未回填的事件，此时新的事件需要排在溢出的事件之后.
+     *
+     * @return 是否有尚未回填的溢出事件
+     */
+    public boolean isSpilling() {
+        return this.spill != null && this.spill.isActive();
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return this.policy;
+    }
+
+    /** @return block 策略等待空闲槽位的次数 */
+    public long getBlockedCount() {
+        return this.blocked.sum();
+    }
+
+    /** @return try 策略发布失败的次数 */
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /** @return timeout 策略超时的次数 */
+    public long getTimedOutCount() {
+        return this.timedOut.sum();
+    }
+
+    /** @return 丢弃新发布事件的次数 */
+    public long getDroppedNewestCount() {
+        return this.droppedNewest.sum();
+    }
+
+    /** @return caller-runs 策略在发布线程上执行的次数 */
+    public long getCallerRunsCount() {
+        return this.callerRuns.sum();
+    }
+
+    /**
+     * 返回 spill 策略的溢出文件.
+     *
+     * @return 溢出文件，默认策略不是 spill 时为 {@code null}
+     */
+    public Spill getSpill() {
+        return this.spill;
+    }
+
+    /** @return 写入溢出文件的事件数量 */
+    public long getSpilledCount() {
+        return this.spill == null ? 0L : this.spill.getSpilledCount();
+    }
+
+    /** @return 溢出文件中尚未回填的事件数量 */
+    public long getSpillDepth() {
+        return this.spill == null ? 0L : this.spill.getDepth();
+    }
+
+    /** @return 溢出文件中尚未回填的字节数 */
+    public long getSpillBytes() {
+        return this.spill == null ? 0L : this.spill.getBytes();
+    }
+
+    /**
+     * 关闭溢出文件，等待溢出的事件回填.
+     */
+    @Override
+    public void close() {
+        if (this.spill != null) {
+            this.spill.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Backpressure{" +
+                "policy=" + policy +
+                ", blocked=" + getBlockedCount() +
+                ", rejected=" + getRejectedCount() +
+                ", timedOut=" + getTimedOutCount() +
+                ", droppedNewest=" + getDroppedNewestCount() +
+                ", callerRuns=" + getCallerRunsCount() +
+                ", spilled=" + getSpilledCount() +
+                ", spillDepth=" + getSpillDepth() +
+                ", spillBytes=" + getSpillBytes() +
+                '}';
+    }
+}
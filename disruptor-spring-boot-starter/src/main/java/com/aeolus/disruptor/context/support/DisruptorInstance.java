@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.thread.AffinityThreadFactory;
+import com.aeolus.disruptor.thread.ThreadAffinity;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 命名 Disruptor 实例.
+ *
+ * <p>单生产者实例只能由同一个线程发布事件，{@link #checkProducerThread()}检测到其它线程发布时记录一次警告.
+ *
+ * <p>配置了发布线程的CPU列表时，专用的发布线程可以显式调用{@link #pinProducerThread()}绑定到这些CPU，
+ * 发布事件时不会自动绑定.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see DisruptorInstanceRegistry
+ */
+public final class DisruptorInstance {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DisruptorInstance.class);
+
+    private final String name;
+
+    private final Disruptor<DisruptorDataEvent> disruptor;
+
+    /** 是否单生产者 */
+    private final boolean singleProducer;
+
+    /** 等待策略 */
+    private final WaitStrategy waitStrategy;
+
+    /** 消费者线程工厂 */
+    private final ThreadFactory threadFactory;
+
+    /** 发布线程绑定的CPU列表，为 {@code null} 时不绑定 */
+    private final String producerCpus;
+
+    /** 当前线程是否已尝试绑定CPU */
+    private final ThreadLocal<Boolean> producerPinned = new ThreadLocal<>();
+
+    /** RingBuffer 已满时的发布背压 */
+    private final Backpressure backpressure;
+
+    /** 单生产者模式下第一个发布事件的线程 */
+    private final AtomicReference<Thread> producerThread = new AtomicReference<>();
+
+    /** 是否已记录跨线程发布的警告 */
+    private volatile boolean crossThreadWarned;
+
+
+    /**
+     * 构造方法
+     *
+     * @param name 实例名
+     * @param disruptor Disruptor
+     * @param singleProducer 是否单生产者
+     * @param waitStrategy 等待策略
+     */
+    public DisruptorInstance(String name, Disruptor<DisruptorDataEvent> disruptor, boolean singleProducer,
+                             WaitStrategy waitStrategy) {
+        this(name, disruptor, singleProducer, waitStrategy, null, null, Backpressure.block(name));
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param name 实例名
+     * @param disruptor Disruptor
+     * @param singleProducer 是否单生产者
+     * @param waitStrategy 等待策略
+     * @param threadFactory 消费者线程工厂，可以为null
+     * @param producerCpus 发布线程绑定的CPU列表，可以为null
+     * @param backpressure RingBuffer 已满时的发布背压
+     */
+    public DisruptorInstance(String name, Disruptor<DisruptorDataEvent> disruptor, boolean singleProducer,
+                             WaitStrategy waitStrategy, ThreadFactory threadFactory, String producerCpus,
+                             Backpressure backpressure) {
+        this.name = name;
+        this.disruptor = disruptor;
+        this.singleProducer = singleProducer;
+        this.waitStrategy = waitStrategy;
+        this.threadFactory = threadFactory;
+        this.backpressure = backpressure;
+        this.producerCpus = producerCpus == null || producerCpus.trim().isEmpty() ? null : producerCpus;
+        if (this.producerCpus != null) {
+            ThreadAffinity.parseCpuList(this.producerCpus);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Disruptor<DisruptorDataEvent> getDisruptor() {
+        return disruptor;
+    }
+
+    public RingBuffer<DisruptorDataEvent> getRingBuffer() {
+        return disruptor.getRingBuffer();
+    }
+
+    public boolean isSingleProducer() {
+        return singleProducer;
+    }
+
+    /**
+     * 返回等待策略，{@link com.aeolus.disruptor.context.waitstrategy.AdaptiveWaitStrategy}可以查看当前状态.
+     *
+     * @return 等待策略
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    /**
+     * 返回消费者线程实际的CPU分布.
+     *
+     * @return key-thread name; value-cpu list，没有绑定CPU时为空
+     */
+    public Map<String, String> getConsumerPlacements() {
+        return threadFactory instanceof AffinityThreadFactory
+                ? ((AffinityThreadFactory) threadFactory).getPlacements() : Collections.emptyMap();
+    }
+
+    /**
+     * 配置了发布线程的CPU列表时，将当前线程绑定到这些CPU，每个线程只绑定一次.
+     *
+     * <p>只应由应用自己创建的专用发布线程调用，不要在 Web 容器、{@code ForkJoinPool} 等共享线程池的线程上调用.
+     * 绑定时会执行 {@code taskset}，可能阻塞数秒.
+     */
+    public void pinProducerThread() {
+        if (producerCpus == null || producerPinned.get() != null) {
+            return;
+        }
+        producerPinned.set(Boolean.TRUE);
+        ThreadAffinity.pinCurrentThread(producerCpus);
+    }
+
+    /**
+     * 单生产者实例检查发布线程，其它线程发布时记录一次警告.
+     */
+    public void checkProducerThread() {
+        if (!singleProducer) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        Thread owner = producerThread.get();
+        if (owner == current || crossThreadWarned) {
+            return;
+        }
+        if (owner == null && producerThread.compareAndSet(null, current)) {
+            return;
+        }
+        crossThreadWarned = true;
+        LOG.warn("Disruptor '{}' runs with a single producer but events are published from threads '{}' and '{}', " +
+                "set producer-type to 'multi'.", name, producerThread.get().getName(), current.getName());
+    }
+
+    @Override
+    public String toString() {
+        return "DisruptorInstance{" +
+                "name='" + name + '\'' +
+                ", bufferSize=" + disruptor.getBufferSize() +
+                ", singleProducer=" + singleProducer +
+                ", waitStrategy=" + waitStrategy +
+                ", consumerPlacements=" + getConsumerPlacements() +
+                ", producerCpus=" + producerCpus +
+                ", backpressure=" + backpressure +
+                '}';
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.route.RouteCache;
+import com.aeolus.disruptor.context.route.RouteTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 命名 Disruptor 实例注册表.
+ *
+ * <p>每个实例注册一组路由规则，发布事件时按 {@code /event/tag/key} 匹配路由规则选择实例，
+ * 多个实例的规则同时匹配时按{@link RouteTrie}的优先级选择最具体的规则，没有匹配的规则时使用默认实例.
+ * 路由结果以 (event, tag, key) 为键缓存. 没有注册命名实例时直接返回默认实例.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see DisruptorInstance
+ */
+public class DisruptorInstanceRegistry {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DisruptorInstanceRegistry.class);
+
+    /** 默认实例名 */
+    public static final String DEFAULT_INSTANCE = "default";
+
+    private final Map<String, DisruptorInstance> instances = new LinkedHashMap<>();
+
+    private final DisruptorInstance defaultInstance;
+
+    private final RouteTrie<DisruptorInstance> routes = new RouteTrie<>();
+
+    private final RouteCache<DisruptorInstance> routeCache = new RouteCache<>(RouteCache.DEFAULT_CAPACITY);
+
+
+    /**
+     * 构造方法
+     *
+     * @param defaultInstance 默认实例
+     */
+    public DisruptorInstanceRegistry(DisruptorInstance defaultInstance) {
+        this.defaultInstance = defaultInstance;
+        this.instances.put(defaultInstance.getName(), defaultInstance);
+    }
+
+    /**
+     * 注册命名实例，只在启动时调用.
+     *
+     * @param instance 实例
+     * @param routePatterns 发布到此实例的路由规则
+     */
+    public synchronized void register(DisruptorInstance instance, Collection<String> routePatterns) {
+        if (this.instances.containsKey(instance.getName())) {
+            throw new IllegalStateException("Disruptor instance '" + instance.getName() + "' already registered");
+        }
+        this.instances.put(instance.getName(), instance);
+        for (String pattern : routePatterns) {
+            if (!this.routes.add(pattern, instance)) {
+                LOG.warn("Route [{}] of Disruptor instance '{}' must start with '/', it will never match any event.",
+                        pattern, instance.getName());
+            }
+        }
+    }
+
+    /**
+     * 按名称查找实例.
+     *
+     * @param name 实例名
+     * @return 实例
+     * @throws IllegalArgumentException 实例不存在
+     */
+    public DisruptorInstance get(String name) {
+        DisruptorInstance instance = this.instances.get(name);
+        if (instance == null) {
+            throw new IllegalArgumentException("No Disruptor instance named '" + name + "'");
+        }
+        return instance;
+    }
+
+    /**
+     * 按事件路由选择实例.
+     *
+     * @param event 数据事件
+     * @return 实例，没有匹配的路由规则时返回默认实例
+     */
+    public DisruptorInstance route(DisruptorDataEvent event) {
+        return route(event.getEvent(), event.getTag(), event.getKey());
+    }
+
+    /**
+     * 按事件名、事件标签和事件键选择实例.
+     *
+     * @param eventName 事件名
+     * @param tag 事件标签
+     * @param key 事件键
+     * @return 实例，没有匹配的路由规则时返回默认实例
+     */
+    public DisruptorInstance route(String eventName, String tag, String key) {
+        if (this.routes.isEmpty()) {
+            return this.defaultInstance;
+        }
+        RouteCache.Entry<DisruptorInstance> cached = this.routeCache.get(eventName, tag, key);
+        if (cached != null) {
+            return cached.getValue();
+        }
+        DisruptorInstance instance = this.routes.match(eventName, tag, key);
+        if (instance == null) {
+            instance = this.defaultInstance;
+        }
+        this.routeCache.put(eventName, tag, key, instance);
+        return instance;
+    }
+
+    public DisruptorInstance getDefaultInstance() {
+        return this.defaultInstance;
+    }
+
+    public Map<String, DisruptorInstance> getInstances() {
+        return Collections.unmodifiableMap(this.instances);
+    }
+
+    /**
+     * 关闭所有命名实例，默认实例由其 Bean 自行关闭. 关闭前等待各实例溢出文件中的事件回填.
+     */
+    public void shutdown() {
+        for (DisruptorInstance instance : this.instances.values()) {
+            instance.getBackpressure().close();
+            if (instance != this.defaultInstance) {
+                instance.getDisruptor().shutdown();
+            }
+        }
+    }
+}
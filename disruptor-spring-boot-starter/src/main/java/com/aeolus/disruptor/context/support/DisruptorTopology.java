@@ -0,0 +1,285 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.config.BatchDefinition;
+import com.aeolus.disruptor.context.config.RouteDefinition;
+import com.aeolus.disruptor.context.config.StageDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.handler.AsyncDisruptorHandler;
+import com.aeolus.disruptor.context.handler.AsyncListenerDispatcher;
+import com.aeolus.disruptor.context.handler.BatchDisruptorHandler;
+import com.aeolus.disruptor.context.handler.BlockingDisruptorHandler;
+import com.aeolus.disruptor.context.handler.BlockingHandlerExecutor;
+import com.aeolus.disruptor.context.handler.DisruptorHandler;
+import com.aeolus.disruptor.context.handler.PathMatchingHandlerChainResolver;
+import com.aeolus.disruptor.context.handler.WorkerPoolDispatcher;
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.dsl.EventProcessorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按处理阶段定义构建 Disruptor 的消费者依赖图.
+ *
+ * <p>每个阶段创建一组分区分发器，各自由{@link com.lmax.disruptor.BatchEventProcessor}驱动，
+ * 只解析本阶段处理器的路由定义. 没有依赖的阶段通过{@link Disruptor#handleEventsWith}并行消费，
+ * 有依赖的阶段通过{@link EventHandlerGroup#and}合并所依赖阶段后再{@link EventHandlerGroup#handleEventsWith}，
+ * 从而构建流水线、扇出、菱形等拓扑. 没有归属任何阶段的处理器组成{@link #DEFAULT_STAGE}阶段.
+ *
+ * <p>工作池模式的阶段创建一组{@link WorkerPoolDispatcher}，通过 {@code handleEventsWithWorkerPool} 竞争消费.
+ *
+ * <p>分区阶段卸载执行的阻塞、异步处理器链和设置了 linger 的批次在分发器序号之外额外注册 gating sequence，
+ * 依赖它的分区阶段同时等待这些序号，只在卸载的处理器链完成、批次交付之后处理同一事件.
+ * 工作池阶段无法等待额外的序号，不能依赖包含阻塞、异步处理器或 linger 批量处理器的阶段.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see StageDefinition
+ */
+public final class DisruptorTopology {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DisruptorTopology.class);
+
+    /** 默认阶段名 */
+    public static final String DEFAULT_STAGE = "default";
+
+    /** 声明{@code @EventRule(workerPool = true)}的处理器所在的工作池阶段名 */
+    public static final String WORKER_POOL_STAGE = "worker-pool";
+
+    private final Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler;
+
+    private final List<RouteDefinition> routeDefinitions;
+
+    private final Map<String, StageDefinition> stages = new LinkedHashMap<>();
+
+    private final Map<String, String> stageOfBean = new HashMap<>();
+
+    private final Map<String, PathMatchingHandlerChainResolver> resolvers = new LinkedHashMap<>();
+
+    /** 各分区阶段分发器额外注册的 gating sequence */
+    private final List<Sequence> gatingSequences = new ArrayList<>();
+
+    /** 各阶段分发器额外注册的 gating sequence: key-stage name */
+    private final Map<String, Sequence[]> stageGatingSequences = new HashMap<>();
+
+    /** 没有声明、由未归属阶段的处理器组成的默认阶段 */
+    private StageDefinition implicitDefaultStage;
+
+
+    /**
+     * 构造方法
+     *
+     * @param disruptorHandler DisruptorHandler的实例: key-beanName
+     * @param routeDefinitions 路由定义
+     * @param stageDefinitions 处理阶段定义
+     */
+    public DisruptorTopology(Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler,
+                             List<RouteDefinition> routeDefinitions,
+                             List<StageDefinition> stageDefinitions) {
+        this.disruptorHandler = disruptorHandler;
+        this.routeDefinitions = routeDefinitions;
+        for (StageDefinition stage : stageDefinitions) {
+            if (stage.getName() == null || stage.getName().isEmpty()) {
+                throw new IllegalArgumentException("Stage name must not be empty: " + stage);
+            }
+            if (this.stages.putIfAbsent(stage.getName(), stage) != null) {
+                throw new IllegalArgumentException("Duplicate stage '" + stage.getName() + "'");
+            }
+            for (String beanName : stage.getHandlers()) {
+                String previous = this.stageOfBean.put(beanName, stage.getName());
+                if (previous != null && !previous.equals(stage.getName())) {
+                    throw new IllegalArgumentException("Handler '" + beanName + "' declared in stages '"
+                            + previous + "' and '" + stage.getName() + "'");
+                }
+            }
+        }
+        // 没有归属任何阶段的处理器，或被其它阶段依赖时才需要默认阶段
+        boolean unassigned = routeDefinitions.stream().anyMatch(route -> !this.stageOfBean.containsKey(route.getBeanName()));
+        boolean referenced = stageDefinitions.stream().anyMatch(stage -> stage.getAfter().contains(DEFAULT_STAGE));
+        if ((unassigned || referenced) && !this.stages.containsKey(DEFAULT_STAGE)) {
+            this.implicitDefaultStage = new StageDefinition().setName(DEFAULT_STAGE);
+            this.stages.put(DEFAULT_STAGE, this.implicitDefaultStage);
+        }
+    }
+
+    /**
+     * 在 Disruptor 上构建消费者依赖图.
+     *
+     * @param disruptor 未启动的 Disruptor
+     * @param partitions 阶段未指定分区数量时使用的分区消费者数量
+     * @param workerPool 未声明的默认阶段是否使用工作池模式
+     * @param routeCacheSize 路由缓存容量
+     * @param blockingExecutor 分区阶段阻塞处理器链的卸载执行器，可以为null
+     * @param batch 分区阶段批量处理器的批次定义
+     * @param head 没有依赖的阶段之前的消费者组，例如预写日志阶段，可以为null
+     * @return 各阶段最后的消费者组: key-stage name
+     * @throws IllegalArgumentException 依赖的阶段不存在、存在循环依赖，
+     *                                  或工作池阶段依赖卸载执行处理器链、缓存 linger 批次的阶段
+     */
+    public Map<String, EventHandlerGroup<DisruptorDataEvent>> wire(Disruptor<DisruptorDataEvent> disruptor,
+                                                                   int partitions, boolean workerPool,
+                                                                   int routeCacheSize,
+                                                                   BlockingHandlerExecutor blockingExecutor,
+                                                                   BatchDefinition batch,
+                                                                   EventHandlerGroup<DisruptorDataEvent> head) {
+        Map<String, EventHandlerGroup<DisruptorDataEvent>> groups = new LinkedHashMap<>();
+        for (String stage : sort()) {
+            StageDefinition definition = this.stages.get(stage);
+            PathMatchingHandlerChainResolver resolver = new PathMatchingHandlerChainResolver(this.disruptorHandler,
+                    this.routeDefinitions, routeCacheSize, beanName -> stage.equals(stageOf(beanName)));
+            this.resolvers.put(stage, resolver);
+            int consumers = definition.getPartitions() > 0 ? definition.getPartitions() : partitions;
+
+            EventHandlerGroup<DisruptorDataEvent> barrier = definition.getAfter().isEmpty() ? head : null;
+            List<Sequence> dependentSequences = new ArrayList<>();
+            for (String dependency : definition.getAfter()) {
+                barrier = barrier == null ? groups.get(dependency) : barrier.and(groups.get(dependency));
+                dependentSequences.addAll(Arrays.asList(this.stageGatingSequences.get(dependency)));
+            }
+            EventHandlerGroup<DisruptorDataEvent> group;
+            boolean pooled = definition.isWorkerPool() || (workerPool && definition == this.implicitDefaultStage);
+            if (pooled) {
+                for (String dependency : definition.getAfter()) {
+                    if (offloads(dependency, blockingExecutor, batch)) {
+                        throw new IllegalArgumentException("Worker pool stage '" + stage + "' cannot run after stage '"
+                                + dependency + "' which offloads blocking or async handlers or lingers batches");
+                    }
+                }
+                WorkerPoolDispatcher[] workers = WorkerPoolDispatcher.workers(resolver, consumers);
+                group = barrier == null ? disruptor.handleEventsWithWorkerPool(workers) : barrier.handleEventsWithWorkerPool(workers);
+                this.stageGatingSequences.put(stage, new Sequence[0]);
+            } else {
+                AsyncListenerDispatcher[] dispatchers = AsyncListenerDispatcher.partitioned(resolver, consumers,
+                        blockingExecutor, batch, disruptor.getRingBuffer());
+                if (barrier == null) {
+                    group = disruptor.handleEventsWith(dispatchers);
+                } else if (dependentSequences.isEmpty()) {
+                    group = barrier.handleEventsWith(dispatchers);
+                } else {
+                    group = barrier.handleEventsWith(after(dispatchers, dependentSequences.toArray(new Sequence[0])));
+                }
+                List<Sequence> stageSequences = new ArrayList<>();
+                for (AsyncListenerDispatcher dispatcher : dispatchers) {
+                    stageSequences.addAll(Arrays.asList(dispatcher.getGatingSequences()));
+                }
+                this.gatingSequences.addAll(stageSequences);
+                this.stageGatingSequences.put(stage, stageSequences.toArray(new Sequence[0]));
+            }
+            groups.put(stage, group);
+            LOG.info("Stage '{}' after {} with {} {}.", stage, definition.getAfter(), consumers,
+                    pooled ? "pooled workers" : "partitioned consumer threads");
+        }
+        return groups;
+    }
+
+    /**
+     * 返回各阶段的处理器解析类，{@link #wire}之后可用.
+     *
+     * @return 处理器解析类: key-stage name
+     */
+    public Map<String, PathMatchingHandlerChainResolver> getResolvers() {
+        return this.resolvers;
+    }
+
+    /**
+     * 返回各分区阶段分发器在自身序号之外额外注册的 gating sequence，{@link #wire}之后可用.
+     *
+     * @return 额外的 gating sequence
+     * @see AsyncListenerDispatcher#getGatingSequences()
+     */
+    public Sequence[] getGatingSequences() {
+        return this.gatingSequences.toArray(new Sequence[0]);
+    }
+
+    /**
+     * 创建依赖额外 gating sequence 的分发器消费者，同一事件在所依赖阶段卸载的处理器链完成、批次交付之后才会处理.
+     */
+    @SuppressWarnings("unchecked")
+    private static EventProcessorFactory<DisruptorDataEvent>[] after(AsyncListenerDispatcher[] dispatchers,
+                                                                     Sequence[] dependentSequences) {
+        EventProcessorFactory<DisruptorDataEvent>[] factories = new EventProcessorFactory[dispatchers.length];
+        for (int i = 0; i < dispatchers.length; i++) {
+            AsyncListenerDispatcher dispatcher = dispatchers[i];
+            factories[i] = (ringBuffer, barrierSequences) -> {
+                Sequence[] sequences = Arrays.copyOf(barrierSequences, barrierSequences.length + dependentSequences.length);
+                System.arraycopy(dependentSequences, 0, sequences, barrierSequences.length, dependentSequences.length);
+                return new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(sequences), dispatcher);
+            };
+        }
+        return factories;
+    }
+
+    /**
+     * 阶段是否包含卸载执行的阻塞、异步处理器，或设置了 linger 时的批量处理器.
+     */
+    private boolean offloads(String stage, BlockingHandlerExecutor blockingExecutor, BatchDefinition batch) {
+        boolean lingers = batch.getLinger() != null && !batch.getLinger().isZero();
+        return this.routeDefinitions.stream()
+                .filter(route -> stage.equals(stageOf(route.getBeanName())))
+                .map(route -> this.disruptorHandler.get(route.getBeanName()))
+                .anyMatch(handler -> (blockingExecutor != null
+                        && (handler instanceof BlockingDisruptorHandler || handler instanceof AsyncDisruptorHandler))
+                        || (lingers && handler instanceof BatchDisruptorHandler));
+    }
+
+    private String stageOf(String beanName) {
+        return this.stageOfBean.getOrDefault(beanName, DEFAULT_STAGE);
+    }
+
+    /**
+     * 按依赖关系拓扑排序，被依赖的阶段在前.
+     */
+    private List<String> sort() {
+        List<String> sorted = new ArrayList<>(this.stages.size());
+        Set<String> visited = new HashSet<>();
+        for (String stage : this.stages.keySet()) {
+            visit(stage, visited, new HashSet<>(), sorted);
+        }
+        return sorted;
+    }
+
+    private void visit(String stage, Set<String> visited, Set<String> visiting, List<String> sorted) {
+        if (visited.contains(stage)) {
+            return;
+        }
+        if (!visiting.add(stage)) {
+            throw new IllegalArgumentException("Cyclic stage dependency at '" + stage + "'");
+        }
+        StageDefinition definition = this.stages.get(stage);
+        for (String dependency : definition.getAfter()) {
+            if (!this.stages.containsKey(dependency)) {
+                throw new IllegalArgumentException("Stage '" + stage + "' depends on unknown stage '" + dependency + "'");
+            }
+            visit(dependency, visited, visiting, sorted);
+        }
+        visiting.remove(stage);
+        visited.add(stage);
+        sorted.add(stage);
+    }
+}
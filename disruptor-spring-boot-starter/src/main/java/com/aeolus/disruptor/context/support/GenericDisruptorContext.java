@@ -17,13 +17,19 @@
 package com.aeolus.disruptor.context.support;
 
 import com.aeolus.disruptor.annotation.EventRule;
+import com.aeolus.disruptor.annotation.EventStage;
 import com.aeolus.disruptor.configure.DisruptorProperties;
+import com.aeolus.disruptor.context.config.DisruptorInstanceDefinition;
 import com.aeolus.disruptor.context.config.EventHandlerDefinition;
 import com.aeolus.disruptor.context.config.HandlerDefinitionMap;
+import com.aeolus.disruptor.context.config.RouteDefinition;
+import com.aeolus.disruptor.context.config.StageDefinition;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.HandlerDefinitionRefreshedEvent;
 import com.aeolus.disruptor.context.handler.DisruptorHandler;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.BeanFactory;
@@ -33,9 +39,13 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GenericDisruptorContext extends AbstractDisruptorContext {
 
@@ -44,22 +54,75 @@ public class GenericDisruptorContext extends AbstractDisruptorContext {
     private DisruptorProperties disruptorProperties;
 
     /**
-     * DisruptorHandler的实例
+     * DisruptorHandler的实例，运行时注册处理器时与消费者线程并发访问
      */
-    private Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler = new HashMap<>();
+    private Map<String, DisruptorHandler<DisruptorDataEvent>> disruptorHandler = new ConcurrentHashMap<>();
 
     /**
-     * 处理器链定义: key-express; value-beanName
+     * 路由定义，按声明顺序排列
      */
-    private Map<String, String> handlerDefinition = new HashMap<>();
+    private List<RouteDefinition> routeDefinitions = new ArrayList<>();
+
+    /**
+     * 命名 Disruptor 实例的路由定义: key-instance name
+     */
+    private Map<String, List<RouteDefinition>> instanceRouteDefinitions = new LinkedHashMap<>();
+
+    /**
+     * 处理器类上{@link EventStage}声明的处理阶段: key-instance name
+     */
+    private Map<String, Map<String, StageDefinition>> annotatedStages = new LinkedHashMap<>();
 
 
     public Map<String, DisruptorHandler<DisruptorDataEvent>> getDisruptorHandler() {
         return this.disruptorHandler;
     }
 
-    public Map<String, String> getHandlerDefinition() {
-        return this.handlerDefinition;
+    public List<RouteDefinition> getRouteDefinitions() {
+        return this.routeDefinitions;
+    }
+
+    /**
+     * 返回命名 Disruptor 实例的路由定义.
+     *
+     * @param instance 实例名
+     * @return 路由定义，按声明顺序排列
+     */
+    public List<RouteDefinition> getRouteDefinitions(String instance) {
+        return this.instanceRouteDefinitions.computeIfAbsent(instance, name -> new ArrayList<>());
+    }
+
+    /**
+     * 返回 Disruptor 实例的处理阶段定义，合并配置文件与{@link EventStage}注解中的同名阶段.
+     *
+     * @param instance 实例名，默认实例为{@link DisruptorInstanceRegistry#DEFAULT_INSTANCE}
+     * @return 处理阶段定义，没有声明时为空
+     */
+    public List<StageDefinition> getStageDefinitions(String instance) {
+        List<StageDefinition> configured;
+        if (DisruptorInstanceRegistry.DEFAULT_INSTANCE.equals(instance)) {
+            configured = disruptorProperties.getTopology();
+        } else {
+            DisruptorInstanceDefinition definition = disruptorProperties.getInstances().get(instance);
+            configured = definition == null ? Collections.emptyList() : definition.getTopology();
+        }
+
+        Map<String, StageDefinition> merged = new LinkedHashMap<>();
+        for (StageDefinition stage : configured) {
+            merged.put(stage.getName(), new StageDefinition().setName(stage.getName())
+                    .setAfter(new ArrayList<>(stage.getAfter()))
+                    .setHandlers(new ArrayList<>(stage.getHandlers()))
+                    .setPartitions(stage.getPartitions())
+                    .setWorkerPool(stage.isWorkerPool()));
+        }
+        this.annotatedStages.getOrDefault(instance, Collections.emptyMap()).forEach((name, annotated) -> {
+            StageDefinition stage = merged.computeIfAbsent(name, key -> new StageDefinition().setName(key));
+            annotated.getHandlers().forEach(beanName -> addIfAbsent(stage.getHandlers(), beanName));
+            annotated.getAfter().forEach(dependency -> addIfAbsent(stage.getAfter(), dependency));
+            stage.setPartitions(Math.max(stage.getPartitions(), annotated.getPartitions()));
+            stage.setWorkerPool(stage.isWorkerPool() || annotated.isWorkerPool());
+        });
+        return new ArrayList<>(merged.values());
     }
 
     public GenericDisruptorContext(DisruptorProperties disruptorProperties) {
@@ -77,15 +140,17 @@ public class GenericDisruptorContext extends AbstractDisruptorContext {
      *     enabled: true
      *     ring-buffer: false
      *     ring-buffer-size: 1024
-     *     ring-thread-numbers: 4
-     *     multi-producer: true
+     *     partitions: 4
+     *     producer-type: multi
      *     handler-definitions:
      *     - order: 1
      *       definitions: /Event-DC-Output/TagA-Output/** = inDbPreHandler
      *     - order: 2
-     *       definitions: /Event-DC-Output/TagB-Output/** = smsPostHandler
+     *       definitions: /Event-DC-Output/TagB-Output/** = smsPostHandler, emailPostHandler
      * </pre>
      *
+     * <p>一条规则可以绑定多个以逗号分隔的处理器，同一事件匹配的所有处理器按 order 升序组成处理器链，
+     * order 相同时按声明顺序执行.
      */
     public void createDisruptorEventHandler() {
         // 获取所有类中声明 @EventRule 注解的 bean.
@@ -99,26 +164,95 @@ public class GenericDisruptorContext extends AbstractDisruptorContext {
                 if (annotationType == null) {
                     LOG.warn("Not found AnnotationType '@EventRule' on {} with Bean name '{}'", handler.getClass(), beanName);
                 } else {
-                    handlerDefinition.put(annotationType.rule(), beanName);
+                    List<RouteDefinition> target = StringUtils.isEmpty(annotationType.instance())
+                            ? routeDefinitions : getRouteDefinitions(annotationType.instance());
+                    target.add(new RouteDefinition(annotationType.rule(), beanName, annotationType.order()));
+
+                    String instance = StringUtils.defaultIfEmpty(annotationType.instance(),
+                            DisruptorInstanceRegistry.DEFAULT_INSTANCE);
+                    EventStage eventStage = super.applicationContext.findAnnotationOnBean(beanName, EventStage.class);
+                    if (eventStage != null) {
+                        StageDefinition stage = annotatedStage(instance, eventStage.value());
+                        addIfAbsent(stage.getHandlers(), beanName);
+                        Arrays.stream(eventStage.after()).forEach(dependency -> addIfAbsent(stage.getAfter(), dependency));
+                        stage.setPartitions(Math.max(stage.getPartitions(), eventStage.partitions()));
+                        stage.setWorkerPool(stage.isWorkerPool() || eventStage.workerPool());
+                    } else if (annotationType.workerPool()) {
+                        StageDefinition stage = annotatedStage(instance, DisruptorTopology.WORKER_POOL_STAGE);
+                        addIfAbsent(stage.getHandlers(), beanName);
+                        stage.setWorkerPool(true);
+                    }
                 }
                 disruptorHandler.put(beanName, handler);
             });
         }
 
-        List<EventHandlerDefinition> handlerDefinitionList = disruptorProperties.getHandlerDefinitions();
+        this.addHandlerDefinitions(disruptorProperties.getHandlerDefinitions(), routeDefinitions);
+        disruptorProperties.getInstances().forEach((instance, instanceDefinition) ->
+                this.addHandlerDefinitions(instanceDefinition.getHandlerDefinitions(), getRouteDefinitions(instance)));
+    }
+
+
+    private void addHandlerDefinitions(List<EventHandlerDefinition> handlerDefinitionList, List<RouteDefinition> target) {
         if (CollectionUtils.isNotEmpty(handlerDefinitionList)) {
             for (EventHandlerDefinition definition: handlerDefinitionList) {
                 Map<String, String> chainDefinitions = this.parseHandlerChainDefinitions(definition.getDefinitions());
-                handlerDefinition.putAll(chainDefinitions);
-                chainDefinitions.forEach((express, beanName) -> {
-                    DisruptorHandler handler = super.applicationContext.getBean(beanName, DisruptorHandler.class);
-                    disruptorHandler.put(beanName, handler);
+                chainDefinitions.forEach((express, beanNames) -> {
+                    for (String beanName : StringUtils.split(beanNames, ',')) {
+                        beanName = beanName.trim();
+                        DisruptorHandler handler = super.applicationContext.getBean(beanName, DisruptorHandler.class);
+                        disruptorHandler.put(beanName, handler);
+                        target.add(new RouteDefinition(express, beanName, definition.getOrder()));
+                    }
                 });
             }
         }
     }
 
 
+    /**
+     * 运行时注册处理器链定义，注册后发布{@link HandlerDefinitionRefreshedEvent}，使路由重新编译、路由缓存失效.
+     *
+     * @param express 规则表达式
+     * @param beanName 处理器 Bean name
+     * @param order 处理器在处理器链中的位置
+     * @throws Exception 发布事件失败
+     */
+    public synchronized void registerHandlerDefinition(String express, String beanName, int order) throws Exception {
+        DisruptorHandler handler = super.applicationContext.getBean(beanName, DisruptorHandler.class);
+        disruptorHandler.put(beanName, handler);
+        routeDefinitions.add(new RouteDefinition(express, beanName, order));
+        publishApplicationEvent(new HandlerDefinitionRefreshedEvent(this, routeDefinitions));
+    }
+
+
+    /**
+     * 运行时移除处理器链定义，移除后发布{@link HandlerDefinitionRefreshedEvent}，使路由重新编译、路由缓存失效.
+     *
+     * @param express 规则表达式
+     * @return 是否有路由定义被移除
+     * @throws Exception 发布事件失败
+     */
+    public synchronized boolean removeHandlerDefinition(String express) throws Exception {
+        boolean removed = routeDefinitions.removeIf(definition -> definition.getExpress().equals(express));
+        if (removed) {
+            publishApplicationEvent(new HandlerDefinitionRefreshedEvent(this, routeDefinitions));
+        }
+        return removed;
+    }
+
+
+    private StageDefinition annotatedStage(String instance, String stage) {
+        return annotatedStages.computeIfAbsent(instance, name -> new LinkedHashMap<>())
+                .computeIfAbsent(stage, name -> new StageDefinition().setName(name));
+    }
+
+    private static void addIfAbsent(List<String> values, String value) {
+        if (!values.contains(value)) {
+            values.add(value);
+        }
+    }
+
     private Map<String, String> parseHandlerChainDefinitions(String definitions) {
         HandlerDefinitionMap handlerDefinitionMap = new HandlerDefinitionMap();
         handlerDefinitionMap.load(definitions);
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.config.JournalDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.handler.JournalEventHandler;
+import com.aeolus.disruptor.context.store.MappedJournal;
+import com.aeolus.disruptor.context.store.PayloadCodec;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 各 Disruptor 实例的预写日志.
+ *
+ * <p>所有单例创建完成后，将各实例日志中尚未确认的条目重新发布到原实例的 RingBuffer；
+ * 重新发布的事件作为新的条目写入日志. 容器关闭时在 Disruptor 关闭之后刷写日志.
+ *
+ * <p>重放不经过实例的背压策略，RingBuffer 已满时等待空闲槽位，try、timeout、drop-newest 等策略不会丢弃重放的条目.
+ *
+ * <p>设置了保留期限或开启了压缩的日志，由共享的后台线程按 maintenance-interval 删除过期分段、压缩保留的分段.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see JournalDefinition
+ */
+public class JournalRegistry implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalRegistry.class);
+
+    private final PayloadCodec payloadCodec;
+
+    /** 重放时使用的事件转换类 */
+    private final EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator;
+
+    /** key-instance name */
+    private final Map<String, MappedJournal> journals = new LinkedHashMap<>();
+
+    /** 重放的目标 RingBuffer: key-instance name */
+    private final Map<String, RingBuffer<DisruptorDataEvent>> ringBuffers = new LinkedHashMap<>();
+
+    /** 日志维护线程，第一个需要维护的日志创建时启动 */
+    private ScheduledExecutorService maintenance;
+
+
+    /**
+     * 构造方法
+     *
+     * @param payloadCodec data 的编解码
+     * @param translator 重放时使用的事件转换类
+     */
+    public JournalRegistry(PayloadCodec payloadCodec,
+                           EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator) {
+        this.payloadCodec = payloadCodec;
+        this.translator = translator;
+    }
+
+    /**
+     * 开启了预写日志时，在 Disruptor 上添加日志阶段，分发器需要在返回的消费者组之后处理事件.
+     *
+     * @param name 实例名
+     * @param disruptor 未启动的 Disruptor
+     * @param definition 预写日志定义
+     * @return 日志阶段的消费者组，未开启时返回 {@code null}
+     */
+    public synchronized EventHandlerGroup<DisruptorDataEvent> attach(String name, Disruptor<DisruptorDataEvent> disruptor,
+                                                                     JournalDefinition definition) {
+        if (!definition.isEnabled()) {
+            return null;
+        }
+        if (StringUtils.isEmpty(definition.getDirectory())) {
+            throw new IllegalArgumentException("Journal of Disruptor instance '" + name
+                    + "' requires a directory on durable storage");
+        }
+        Path directory = Paths.get(definition.getDirectory());
+        MappedJournal journal;
+        try {
+            journal = new MappedJournal(directory.resolve(name), definition, this.payloadCodec);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open journal of Disruptor instance '" + name + "'", e);
+        }
+        this.journals.put(name, journal);
+        this.ringBuffers.put(name, disruptor.getRingBuffer());
+        LOG.info("Disruptor instance '{}' journals to {}, {} entries to replay.", name, journal.getDirectory(),
+                journal.getUnacknowledgedCount());
+        scheduleMaintenance(name, journal, definition);
+        return disruptor.handleEventsWith(new JournalEventHandler(journal, disruptor.getRingBuffer(), definition));
+    }
+
+    /**
+     * 返回实例的预写日志.
+     *
+     * @param name 实例名
+     * @return 预写日志，未开启时返回 {@code null}
+     */
+    public MappedJournal get(String name) {
+        return this.journals.get(name);
+    }
+
+    public Map<String, MappedJournal> getJournals() {
+        return Collections.unmodifiableMap(this.journals);
+    }
+
+    /**
+     * 将实例日志中保留的指定 key 的条目重新发布到原实例.
+     *
+     * @param name 实例名
+     * @param key key
+     * @return 重新发布的条目数量
+     * @throws IllegalArgumentException 实例没有开启预写日志
+     */
+    public long replay(String name, String key) {
+        return journal(name).replay(key, publisher(name));
+    }
+
+    /**
+     * 将实例日志中保留的、写入时间在范围内的条目重新发布到原实例.
+     *
+     * @param name 实例名
+     * @param fromMillis 最早的写入时间（包括），单位毫秒
+     * @param toMillis 最晚的写入时间（不包括），单位毫秒
+     * @return 重新发布的条目数量
+     * @throws IllegalArgumentException 实例没有开启预写日志
+     */
+    public long replay(String name, long fromMillis, long toMillis) {
+        return journal(name).replay(fromMillis, toMillis, publisher(name));
+    }
+
+    /**
+     * 重放各实例日志中尚未确认的条目.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (this.journals.isEmpty()) {
+            return;
+        }
+        this.journals.forEach((name, journal) -> {
+            if (journal.getUnacknowledgedCount() > 0) {
+                long replayed = journal.replay(publisher(name));
+                LOG.info("Replayed {} unacknowledged journal entries of Disruptor instance '{}'.", replayed, name);
+            } else {
+                journal.replay(event -> { });
+            }
+        });
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.maintenance != null) {
+            this.maintenance.shutdownNow();
+            try {
+                this.maintenance.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.journals.values().forEach(MappedJournal::close);
+    }
+
+    /**
+     * 重放的条目直接发布到实例的 RingBuffer，已满时等待空闲槽位.
+     */
+    private Consumer<DisruptorDataEvent> publisher(String name) {
+        RingBuffer<DisruptorDataEvent> ringBuffer = this.ringBuffers.get(name);
+        return event -> ringBuffer.publishEvent(this.translator, event);
+    }
+
+    private MappedJournal journal(String name) {
+        MappedJournal journal = this.journals.get(name);
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal is not enabled on Disruptor instance '" + name + "'");
+        }
+        return journal;
+    }
+
+    private void scheduleMaintenance(String name, MappedJournal journal, JournalDefinition definition) {
+        if (definition.isCompaction() && !definition.isRetained()) {
+            LOG.warn("Journal of Disruptor instance '{}' enables compaction without retention, "
+                    + "acknowledged segments are deleted before they can be compacted.", name);
+        }
+        if (!definition.isRetained()) {
+            return;
+        }
+        long interval = definition.getMaintenanceInterval().toMillis();
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Journal maintenance-interval must be > 0: "
+                    + definition.getMaintenanceInterval());
+        }
+        if (this.maintenance == null) {
+            this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "disruptor-journal-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                journal.retain();
+                if (definition.isCompaction()) {
+                    journal.compact();
+                }
+            } catch (Exception e) {
+                LOG.error("Failed to maintain journal of Disruptor instance '{}'", name, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.offheap.OffHeapRing;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 堆外 RingBuffer 注册表，容器关闭时等待已发布的事件处理完成后关闭各 RingBuffer.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.config.OffHeapRingDefinition
+ */
+public class OffHeapRingRegistry implements DisposableBean {
+
+    /** key-ring name */
+    private final Map<String, OffHeapRing> rings = new LinkedHashMap<>();
+
+
+    /**
+     * 注册堆外 RingBuffer，只在启动时调用.
+     *
+     * @param ring 堆外 RingBuffer
+     */
+    public synchronized void register(OffHeapRing ring) {
+        if (this.rings.containsKey(ring.getName())) {
+            throw new IllegalStateException("Off-heap ring '" + ring.getName() + "' already registered");
+        }
+        this.rings.put(ring.getName(), ring);
+    }
+
+    /**
+     * 按名称查找堆外 RingBuffer.
+     *
+     * @param name 名称
+     * @return 堆外 RingBuffer
+     * @throws IllegalArgumentException 不存在
+     */
+    public OffHeapRing get(String name) {
+        OffHeapRing ring = this.rings.get(name);
+        if (ring == null) {
+            throw new IllegalArgumentException("No off-heap ring named '" + name + "'");
+        }
+        return ring;
+    }
+
+    public Map<String, OffHeapRing> getRings() {
+        return Collections.unmodifiableMap(this.rings);
+    }
+
+    @Override
+    public void destroy() {
+        this.rings.values().forEach(OffHeapRing::close);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.support;
+
+import com.aeolus.disruptor.context.config.SpillDefinition;
+import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.aeolus.disruptor.context.store.MappedSpillQueue;
+import com.aeolus.disruptor.context.store.PayloadCodec;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RingBuffer 已满时的溢出文件，spill 发布策略的实现.
+ *
+ * <p>RingBuffer 已满时事件追加到{@link MappedSpillQueue}，回填线程在 RingBuffer 有空闲槽位后按写入顺序回填.
+ * 溢出文件中还有事件时，后续发布的事件同样写入溢出文件，直到全部回填，因此跨越溢出边界的事件顺序不变.
+ *
+ * <p>回填线程是 RingBuffer 的另一个发布线程，只能用于 multi 生产者模式.
+ *
+ * <p>未设置溢出文件目录时在 {@code java.io.tmpdir} 下创建本进程独占的临时目录，关闭时删除.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see com.aeolus.disruptor.context.config.BackpressurePolicy#SPILL
+ */
+public final class Spill implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Spill.class);
+
+    /** RingBuffer 仍然已满时回填线程每次休眠的时间 */
+    private static final long PARK_NANOS = 50_000L;
+
+    private final String name;
+
+    private final RingBuffer<DisruptorDataEvent> ringBuffer;
+
+    private final EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator;
+
+    private final MappedSpillQueue queue;
+
+    /** 本进程创建的临时目录，关闭时删除，设置了溢出文件目录时为 {@code null} */
+    private final Path temporaryDirectory;
+
+    private final long drainTimeoutNanos;
+
+    private final Object lock = new Object();
+
+    /** 回填线程读出、尚未发布的事件 */
+    private final DisruptorDataEvent pending = new NumericDataEvent(this);
+
+    /** {@link #pending} 是否有事件 */
+    private boolean loaded;
+
+    /** 溢出文件中是否有尚未回填的事件 */
+    private volatile boolean active;
+
+    private volatile boolean running = true;
+
+    private final Thread refillThread;
+
+    private final LongAdder spilled = new LongAdder();
+
+    private final LongAdder refilled = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    /** 溢出文件中尚未回填的事件数量 */
+    private volatile long depth;
+
+    /** 溢出文件中尚未回填的字节数 */
+    private volatile long bytes;
+
+
+    /**
+     * 构造方法，启动回填线程.
+     *
+     * @param name 实例名
+     * @param ringBuffer RingBuffer，生产者模式必须为 multi
+     * @param translator 回填时使用的事件转换类
+     * @param definition 溢出文件定义
+     * @param codec data 的编解码
+     * @throws IOException 创建溢出文件目录失败
+     */
+    public Spill(String name, RingBuffer<DisruptorDataEvent> ringBuffer,
+                 EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> translator,
+                 SpillDefinition definition, PayloadCodec codec) throws IOException {
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+        this.translator = translator;
+        this.temporaryDirectory = StringUtils.isEmpty(definition.getDirectory())
+                ? Files.createTempDirectory("aeolus-disruptor-spill-" + name + "-") : null;
+        Path directory = this.temporaryDirectory != null
+                ? this.temporaryDirectory : Paths.get(definition.getDirectory()).resolve(name);
+        this.queue = new MappedSpillQueue(directory,
+                (int) Math.min(Integer.MAX_VALUE, definition.getSegmentSize().toBytes()), codec);
+        this.drainTimeoutNanos = definition.getDrainTimeout().toNanos();
+        this.refillThread = new Thread(this::refill, name + "-spill-refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.start();
+    }
+
+    /**
+     * 溢出文件中是否有尚未回填的事件，此时发布的事件需要写入溢出文件以保持顺序.
+     *
+     * @return 是否有尚未回填的事件
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * 将事件追加到溢出文件.
+     *
+     * @param event 数据事件
+     * @return 写入失败或已关闭时返回 {@code false}
+     */
+    public boolean offer(DisruptorDataEvent event) {
+        synchronized (this.lock) {
+            if (!this.running) {
+                return false;
+            }
+            try {
+                this.queue.append(event);
+            } catch (IOException | RuntimeException ex) {
+                this.failed.increment();
+                LOG.error("Failed to spill event " + event + " of Disruptor instance '" + this.name + "'", ex);
+                return false;
+            }
+            this.active = true;
+            updateDepth();
+        }
+        this.spilled.increment();
+        LockSupport.unpark(this.refillThread);
+        return true;
+    }
+
+    private void refill() {
+        while (this.running) {
+            boolean progressed = drain();
+            if (!this.active) {
+                LockSupport.park(this);
+            } else if (!progressed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * 在 RingBuffer 的空闲槽位内按顺序回填，全部回填后才结束溢出状态.
+     */
+    private boolean drain() {
+        int published = 0;
+        synchronized (this.lock) {
+            try {
+                while (true) {
+                    if (!this.loaded) {
+                        if (!this.queue.poll(this.pending)) {
+                            this.active = false;
+                            break;
+                        }
+                        this.loaded = true;
+                    }
+                    if (!this.ringBuffer.tryPublishEvent(this.translator, this.pending)) {
+                        break;
+                    }
+                    this.loaded = false;
+                    published++;
+                }
+            } catch (RuntimeException ex) {
+                this.loaded = false;
+                this.failed.increment();
+                LOG.error("Failed to refill spilled event of Disruptor instance '" + this.name + "'", ex);
+            }
+            updateDepth();
+        }
+        this.refilled.add(published);
+        return published > 0;
+    }
+
+    private void updateDepth() {
+        this.depth = this.queue.getDepth() + (this.loaded ? 1 : 0);
+        this.bytes = this.queue.getBytes();
+    }
+
+    /**
+     * 等待溢出事件回填，最多等待 drain-timeout，然后停止回填线程并删除溢出文件，未回填的事件被丢弃.
+     */
+    @Override
+    public void close() {
+        long deadline = System.nanoTime() + this.drainTimeoutNanos;
+        while (this.active && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        synchronized (this.lock) {
+            this.running = false;
+        }
+        LockSupport.unpark(this.refillThread);
+        try {
+            this.refillThread.join(TimeUnit.NANOSECONDS.toMillis(this.drainTimeoutNanos) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this.lock) {
+            long lost = this.depth;
+            if (lost > 0) {
+                LOG.warn("Disruptor instance '{}' closed with {} spilled events not refilled, they are discarded.",
+                        this.name, lost);
+            }
+            this.queue.close();
+            this.active = false;
+            updateDepth();
+        }
+        if (this.temporaryDirectory != null) {
+            try {
+                Files.deleteIfExists(this.temporaryDirectory);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete spill directory {}", this.temporaryDirectory, e);
+            }
+        }
+    }
+
+    /** @return 写入溢出文件的事件数量 */
+    public long getSpilledCount() {
+        return this.spilled.sum();
+    }
+
+    /** @return 回填到 RingBuffer 的事件数量 */
+    public long getRefilledCount() {
+        return this.refilled.sum();
+    }
+
+    /** @return 写入或回填失败的次数 */
+    public long getFailedCount() {
+        return this.failed.sum();
+    }
+
+    /** @return 溢出文件中尚未回填的事件数量 */
+    public long getDepth() {
+        return this.depth;
+    }
+
+    /** @return 溢出文件中尚未回填的字节数 */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "Spill{" +
+                "directory=" + queue.getDirectory() +
+                ", spilled=" + getSpilledCount() +
+                ", refilled=" + getRefilledCount() +
+                ", failed=" + getFailedCount() +
+                ", depth=" + getDepth() +
+                ", bytes=" + getBytes() +
+                '}';
+    }
+}
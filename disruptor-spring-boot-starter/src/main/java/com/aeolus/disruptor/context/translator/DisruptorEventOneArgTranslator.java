@@ -17,15 +17,46 @@
 package com.aeolus.disruptor.context.translator;
 
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.aeolus.disruptor.context.route.RouteVocabulary;
 import com.lmax.disruptor.EventTranslatorOneArg;
 
+/**
+ * 将生产者创建的数据事件复制到 ringbuffer 槽位.
+ *
+ * <p>数据事件没有携带路由键时，按{@link RouteVocabulary}中预先注册的 event、tag 补充路由键，
+ * 查找发生在生产者线程，分发线程只需按路由键解析.
+ *
+ * <p>槽位为{@link NumericDataEvent}时同时复制数值字段，来源不携带数值时清空，避免残留上一个事件的数值.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
 public class DisruptorEventOneArgTranslator implements EventTranslatorOneArg<DisruptorDataEvent, DisruptorDataEvent> {
 
+    private final RouteVocabulary routeVocabulary;
+
+    public DisruptorEventOneArgTranslator() {
+        this(null);
+    }
+
+    public DisruptorEventOneArgTranslator(RouteVocabulary routeVocabulary) {
+        this.routeVocabulary = routeVocabulary;
+    }
+
     @Override
     public void translateTo(DisruptorDataEvent bindEvent, long sequence, DisruptorDataEvent dataEvent) {
+        long routeKey = dataEvent.getRouteKey();
+        if (routeKey == RouteVocabulary.NO_ROUTE_KEY && routeVocabulary != null) {
+            routeKey = routeVocabulary.getRouteKey(dataEvent.getEvent(), dataEvent.getTag());
+        }
         bindEvent.setEvent(dataEvent.getEvent());
         bindEvent.setTag(dataEvent.getTag());
+        bindEvent.setKey(dataEvent.getKey());
+        bindEvent.setRouteKey(routeKey);
         bindEvent.setData(dataEvent.getData());
+        if (bindEvent instanceof NumericDataEvent) {
+            ((NumericDataEvent) bindEvent).copyValues(dataEvent);
+        }
     }
 
 }
@@ -17,15 +17,40 @@
 package com.aeolus.disruptor.context.translator;
 
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
+import com.aeolus.disruptor.context.event.NumericDataEvent;
+import com.aeolus.disruptor.context.route.RouteVocabulary;
 import com.lmax.disruptor.EventTranslatorTwoArg;
 
+/**
+ * 将 event、tag 直接写入 ringbuffer 槽位，key 为 {@code null}，清空槽位中上一个事件的 data 和数值.
+ *
+ * <p>不捕获变量，可以作为单例复用，发布不创建对象.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
 public class DisruptorEventTwoArgTranslator implements EventTranslatorTwoArg<DisruptorDataEvent, String, String> {
 
+    private final RouteVocabulary routeVocabulary;
+
+    public DisruptorEventTwoArgTranslator() {
+        this(null);
+    }
+
+    public DisruptorEventTwoArgTranslator(RouteVocabulary routeVocabulary) {
+        this.routeVocabulary = routeVocabulary;
+    }
+
     @Override
     public void translateTo(DisruptorDataEvent dataEvent, long sequence, String event, String tag) {
         dataEvent.setEvent(event);
         dataEvent.setTag(tag);
-        dataEvent.setKey(String.valueOf(sequence));
+        dataEvent.setKey(null);
+        dataEvent.setRouteKey(routeVocabulary == null
+                ? RouteVocabulary.NO_ROUTE_KEY : routeVocabulary.getRouteKey(event, tag));
+        dataEvent.setData(null);
+        if (dataEvent instanceof NumericDataEvent) {
+            ((NumericDataEvent) dataEvent).clearValues();
+        }
     }
 
 }
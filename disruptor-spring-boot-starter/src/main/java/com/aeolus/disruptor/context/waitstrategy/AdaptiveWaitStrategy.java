@@ -0,0 +1,331 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.waitstrategy;
+
+import com.aeolus.disruptor.thread.AvailableProcessors;
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.util.ThreadHints;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应等待策略，随负载在自旋、让出CPU、阻塞三种状态之间切换.
+ *
+ * <p>每次等待依次经过自旋、{@link Thread#yield()}、阻塞三个阶段，当前状态决定从哪个阶段开始：
+ * {@link State#SPIN} 先自旋 spinThreshold，再让出CPU至 yieldThreshold，最后阻塞；
+ * {@link State#YIELD} 跳过自旋；{@link State#PARK} 直接阻塞，空闲时不占用CPU.
+ *
+ * <p>状态由最近的空闲时间和到达速率决定：每次等待结束后以 1/8 的权重更新空闲时间的指数移动平均，
+ * 事件已经可用时记为0；平均空闲时间不超过 spinThreshold 或到达速率不低于 spinArrivalRate 时自旋，
+ * 不超过 yieldThreshold 时让出CPU，否则阻塞. 单次空闲时间的样本以 2 * yieldThreshold 为上限，
+ * 长时间空闲后突发流量只需几次等待即可回到自旋.
+ *
+ * <p>阻塞阶段与{@link com.lmax.disruptor.LiteBlockingWaitStrategy}类似，只有存在阻塞的消费者时
+ * {@link #signalAllWhenBlocking()}才会加锁唤醒，生产者在自旋、让出CPU状态下没有额外开销.
+ *
+ * <p>容器只有一个可用CPU时自旋和让出CPU都会抢占生产者，此时始终阻塞.
+ *
+ * <p>同一 Disruptor 的所有消费者共享一个实例，统计与状态是所有消费者的合计.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see WaitStrategys
+ */
+public final class AdaptiveWaitStrategy implements WaitStrategy {
+
+    /**
+     * 等待状态.
+     */
+    public enum State {
+
+        /** 自旋，延迟最低，占用一个CPU */
+        SPIN,
+
+        /** 让出CPU */
+        YIELD,
+
+        /** 阻塞，等待生产者唤醒 */
+        PARK
+    }
+
+    private static final int SPIN_CHECK_INTERVAL = 0x3F;
+
+    /** 指数移动平均的权重为 1 / (1 << EWMA_SHIFT) */
+    private static final int EWMA_SHIFT = 3;
+
+    private final long spinThresholdNanos;
+
+    private final long yieldThresholdNanos;
+
+    private final long maxIdleSampleNanos;
+
+    /** 到达速率阈值，单位：事件数/秒 */
+    private final long spinArrivalRate;
+
+    /** 只有一个可用CPU时始终阻塞 */
+    private final boolean parkOnly;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    /** 阻塞中的消费者数量 */
+    private final AtomicInteger parkedWaiters = new AtomicInteger();
+
+    private volatile State state = State.SPIN;
+
+    /** 空闲时间的指数移动平均，单位：纳秒 */
+    private volatile long idleNanos;
+
+    /** 到达速率的指数移动平均，单位：事件数/秒 */
+    private volatile long arrivalRate;
+
+    private volatile long lastSequence = -1L;
+
+    private volatile long lastTimestamp;
+
+    private final LongAdder waits = new LongAdder();
+
+    private final LongAdder parks = new LongAdder();
+
+    private final LongAdder transitions = new LongAdder();
+
+
+    /**
+     * 使用默认阈值：自旋 10 微秒、让出CPU至 100 微秒、到达速率 100000 事件/秒.
+     */
+    public AdaptiveWaitStrategy() {
+        this(10, 100, TimeUnit.MICROSECONDS, 100_000L);
+    }
+
+    /**
+     * 构造方法
+     *
+     * @param spinThreshold 平均空闲时间不超过此值时自旋，同时也是每次等待的自旋时长
+     * @param yieldThreshold 平均空闲时间不超过此值时让出CPU，同时也是每次等待进入阻塞前的时长
+     * @param unit 时间单位
+     * @param spinArrivalRate 到达速率不低于此值（事件数/秒）时自旋，小于等于0时不按到达速率判断
+     */
+    public AdaptiveWaitStrategy(long spinThreshold, long yieldThreshold, TimeUnit unit, long spinArrivalRate) {
+        this.spinThresholdNanos = unit.toNanos(spinThreshold);
+        this.yieldThresholdNanos = Math.max(this.spinThresholdNanos, unit.toNanos(yieldThreshold));
+        this.maxIdleSampleNanos = this.yieldThresholdNanos << 1;
+        this.spinArrivalRate = spinArrivalRate;
+        this.parkOnly = AvailableProcessors.get() == 1;
+        if (this.parkOnly) {
+            this.state = State.PARK;
+        }
+    }
+
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence = dependentSequence.get();
+        if (availableSequence >= sequence) {
+            record(0L);
+            return availableSequence;
+        }
+
+        final long start = System.nanoTime();
+        final State current = this.state;
+        int counter = 0;
+        if (current == State.SPIN) {
+            while ((availableSequence = dependentSequence.get()) < sequence) {
+                barrier.checkAlert();
+                ThreadHints.onSpinWait();
+                if ((++counter & SPIN_CHECK_INTERVAL) == 0 && System.nanoTime() - start > this.spinThresholdNanos) {
+                    break;
+                }
+            }
+        }
+        if (availableSequence < sequence && current != State.PARK) {
+            while ((availableSequence = dependentSequence.get()) < sequence) {
+                barrier.checkAlert();
+                Thread.yield();
+                if (System.nanoTime() - start > this.yieldThresholdNanos) {
+                    break;
+                }
+            }
+        }
+        if (availableSequence < sequence) {
+            availableSequence = park(sequence, cursorSequence, dependentSequence, barrier);
+        }
+
+        long now = System.nanoTime();
+        record(now - start);
+        updateArrivalRate(availableSequence, now);
+        return availableSequence;
+    }
+
+    private long park(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        if (cursorSequence.get() < sequence) {
+            this.parks.increment();
+            this.lock.lock();
+            try {
+                // 先登记再检查 cursor，与 signalAllWhenBlocking 先发布 cursor 再检查登记配对，不会丢失唤醒
+                this.parkedWaiters.incrementAndGet();
+                while (cursorSequence.get() < sequence) {
+                    barrier.checkAlert();
+                    this.processorNotifyCondition.await();
+                }
+            } finally {
+                this.parkedWaiters.decrementAndGet();
+                this.lock.unlock();
+            }
+        }
+
+        long availableSequence;
+        while ((availableSequence = dependentSequence.get()) < sequence) {
+            barrier.checkAlert();
+            ThreadHints.onSpinWait();
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (this.parkedWaiters.get() > 0) {
+            this.lock.lock();
+            try {
+                this.processorNotifyCondition.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private void record(long idle) {
+        long ewma = this.idleNanos;
+        if (idle == 0L && ewma == 0L && this.state == State.SPIN) {
+            // 持续有事件可用时不写共享字段
+            return;
+        }
+        ewma += (Math.min(idle, this.maxIdleSampleNanos) - ewma) >> EWMA_SHIFT;
+        this.idleNanos = ewma;
+        if (idle > 0) {
+            this.waits.increment();
+        }
+
+        State next;
+        if (this.parkOnly) {
+            next = State.PARK;
+        } else if (ewma <= this.spinThresholdNanos || (this.spinArrivalRate > 0 && this.arrivalRate >= this.spinArrivalRate)) {
+            next = State.SPIN;
+        } else if (ewma <= this.yieldThresholdNanos) {
+            next = State.YIELD;
+        } else {
+            next = State.PARK;
+        }
+        if (next != this.state) {
+            this.state = next;
+            this.transitions.increment();
+        }
+    }
+
+    /**
+     * 按两次等待之间到达的事件数更新到达速率，只在已经取得时间戳的等待中计算.
+     * 两次等待间隔超过 2 * yieldThreshold 时直接使用新样本.
+     */
+    private void updateArrivalRate(long availableSequence, long now) {
+        long previousSequence = this.lastSequence;
+        long previousTimestamp = this.lastTimestamp;
+        this.lastSequence = availableSequence;
+        this.lastTimestamp = now;
+        long elapsed = now - previousTimestamp;
+        if (previousSequence < 0 || availableSequence <= previousSequence || elapsed <= 0) {
+            return;
+        }
+        long rate = (long) ((availableSequence - previousSequence) * 1e9 / elapsed);
+        long ewma = this.arrivalRate;
+        // 间隔较长时直接取新样本，空闲后尽快离开自旋
+        this.arrivalRate = elapsed > this.maxIdleSampleNanos ? rate : ewma + ((rate - ewma) >> EWMA_SHIFT);
+    }
+
+    /**
+     * 返回当前状态.
+     *
+     * @return 当前状态
+     */
+    public State getState() {
+        return this.state;
+    }
+
+    /**
+     * 返回平均空闲时间.
+     *
+     * @return 平均空闲时间，单位：纳秒
+     */
+    public long getIdleNanos() {
+        return this.idleNanos;
+    }
+
+    /**
+     * 返回平均到达速率.
+     *
+     * @return 平均到达速率，单位：事件数/秒
+     */
+    public long getArrivalRate() {
+        return this.arrivalRate;
+    }
+
+    /**
+     * 返回需要等待的次数.
+     *
+     * @return 需要等待的次数
+     */
+    public long getWaitCount() {
+        return this.waits.sum();
+    }
+
+    /**
+     * 返回进入阻塞的次数.
+     *
+     * @return 进入阻塞的次数
+     */
+    public long getParkCount() {
+        return this.parks.sum();
+    }
+
+    /**
+     * 返回状态切换的次数.
+     *
+     * @return 状态切换的次数
+     */
+    public long getTransitionCount() {
+        return this.transitions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveWaitStrategy{" +
+                "state=" + state +
+                ", idleNanos=" + idleNanos +
+                ", arrivalRate=" + arrivalRate +
+                ", waits=" + getWaitCount() +
+                ", parks=" + getParkCount() +
+                ", transitions=" + getTransitionCount() +
+                '}';
+    }
+}
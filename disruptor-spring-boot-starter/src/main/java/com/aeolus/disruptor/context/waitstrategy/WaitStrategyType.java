@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.context.waitstrategy;
+
+/**
+ * 等待策略类型，与{@link WaitStrategys}中的策略一一对应.
+ *
+ * <p>配置文件中使用小写短横线形式，例如 {@code lite-timeout-blocking}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see WaitStrategys
+ */
+public enum WaitStrategyType {
+
+    /** {@link com.lmax.disruptor.BlockingWaitStrategy} */
+    BLOCKING,
+
+    /** {@link com.lmax.disruptor.SleepingWaitStrategy}，使用 retries、sleep-time 参数 */
+    SLEEPING,
+
+    /** {@link com.lmax.disruptor.YieldingWaitStrategy} */
+    YIELDING,
+
+    /** {@link com.lmax.disruptor.BusySpinWaitStrategy} */
+    BUSY_SPIN,
+
+    /** {@link com.lmax.disruptor.LiteBlockingWaitStrategy} */
+    LITE_BLOCKING,
+
+    /** {@link com.lmax.disruptor.TimeoutBlockingWaitStrategy}，使用 timeout 参数 */
+    TIMEOUT_BLOCKING,
+
+    /** {@link com.lmax.disruptor.LiteTimeoutBlockingWaitStrategy}，使用 timeout 参数 */
+    LITE_TIMEOUT_BLOCKING,
+
+    /** {@link com.lmax.disruptor.PhasedBackoffWaitStrategy}，使用 spin-timeout、yield-timeout、fallback 参数 */
+    PHASED_BACKOFF,
+
+    /** {@link AdaptiveWaitStrategy}，使用 spin-timeout、yield-timeout、spin-arrival-rate 参数 */
+    ADAPTIVE
+
+}
@@ -1,5 +1,6 @@
 package com.aeolus.disruptor.context.waitstrategy;
 
+import com.aeolus.disruptor.context.config.WaitStrategyDefinition;
 import com.lmax.disruptor.*;
 
 import java.util.concurrent.TimeUnit;
@@ -20,6 +21,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * @see LiteTimeoutBlockingWaitStrategy
  * @see TimeoutBlockingWaitStrategy
  * @see PhasedBackoffWaitStrategy
+ * @see AdaptiveWaitStrategy
  */
 public class WaitStrategys {
 
@@ -101,4 +103,66 @@ public class WaitStrategys {
      */
     public final static WaitStrategy liteBlockingWaitStrategy = new LiteBlockingWaitStrategy();
 
+    /**
+     * 按等待策略定义创建新的等待策略.
+     *
+     * <p>带参数的策略按定义中的超时时间、退避参数创建；
+     * 各消费者线程共享同一个等待策略实例，与上面的常量一样.
+     *
+     * @param definition 等待策略定义
+     * @return 等待策略
+     */
+    public static WaitStrategy newWaitStrategy(WaitStrategyDefinition definition) {
+        WaitStrategyType type = definition.getType() == null ? WaitStrategyType.SLEEPING : definition.getType();
+        switch (type) {
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case SLEEPING:
+                return new SleepingWaitStrategy(definition.getRetries(), definition.getSleepTime().toNanos());
+            case YIELDING:
+                return new YieldingWaitStrategy();
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case LITE_BLOCKING:
+                return new LiteBlockingWaitStrategy();
+            case TIMEOUT_BLOCKING:
+                return new TimeoutBlockingWaitStrategy(definition.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            case LITE_TIMEOUT_BLOCKING:
+                return new LiteTimeoutBlockingWaitStrategy(definition.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            case PHASED_BACKOFF:
+                return new PhasedBackoffWaitStrategy(definition.getSpinTimeout().toNanos(),
+                        definition.getYieldTimeout().toNanos(), TimeUnit.NANOSECONDS, newFallbackStrategy(definition));
+            case ADAPTIVE:
+                return new AdaptiveWaitStrategy(definition.getSpinTimeout().toNanos(),
+                        definition.getYieldTimeout().toNanos(), TimeUnit.NANOSECONDS, definition.getSpinArrivalRate());
+            default:
+                throw new IllegalArgumentException("Unsupported wait strategy: " + type);
+        }
+    }
+
+    /**
+     * 等待策略是否会超时. 超时的等待策略在没有新事件时抛出{@link com.lmax.disruptor.TimeoutException}，
+     * 由{@link com.lmax.disruptor.BatchEventProcessor}通知实现了{@link com.lmax.disruptor.TimeoutHandler}的处理器.
+     *
+     * @param waitStrategy 等待策略
+     * @return 是否会超时
+     */
+    public static boolean isTimeoutCapable(WaitStrategy waitStrategy) {
+        return waitStrategy instanceof TimeoutBlockingWaitStrategy || waitStrategy instanceof LiteTimeoutBlockingWaitStrategy;
+    }
+
+    private static WaitStrategy newFallbackStrategy(WaitStrategyDefinition definition) {
+        WaitStrategyType fallback = definition.getFallback() == null ? WaitStrategyType.BLOCKING : definition.getFallback();
+        switch (fallback) {
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case LITE_BLOCKING:
+                return new LiteBlockingWaitStrategy();
+            case SLEEPING:
+                return new SleepingWaitStrategy(definition.getRetries(), definition.getSleepTime().toNanos());
+            default:
+                throw new IllegalArgumentException("Phased backoff fallback must be blocking, lite-blocking or sleeping: " + fallback);
+        }
+    }
+
 }
@@ -18,11 +18,11 @@ package com.aeolus.disruptor.test;
 
 import com.aeolus.disruptor.annotation.EventRule;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
-import com.aeolus.disruptor.context.handler.DisruptorHandler;
+import com.aeolus.disruptor.context.handler.BlockingDisruptorHandler;
 import org.springframework.stereotype.Component;
 
 @EventRule(rule = "/app/b/**", value = "emailEndpoint")
-public class EmailEndpoint implements DisruptorHandler<DisruptorDataEvent> {
+public class EmailEndpoint implements BlockingDisruptorHandler<DisruptorDataEvent> {
     @Override
     public void doHandler(DisruptorDataEvent event) throws Exception {
         System.out.println("-----: " + event);
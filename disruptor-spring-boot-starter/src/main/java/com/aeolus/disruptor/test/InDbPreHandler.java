@@ -17,18 +17,20 @@
 package com.aeolus.disruptor.test;
 
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
-import com.aeolus.disruptor.context.handler.DisruptorHandler;
+import com.aeolus.disruptor.context.handler.BatchDisruptorHandler;
+import com.aeolus.disruptor.context.handler.EventBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 @Component("inDbPreHandler")
-public class InDbPreHandler implements DisruptorHandler<DisruptorDataEvent> {
+public class InDbPreHandler implements BatchDisruptorHandler<DisruptorDataEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(InDbPreHandler.class);
 
     @Override
-    public void doHandler(DisruptorDataEvent event) throws Exception {
-        logger.info("" + event);
+    public void doHandlerBatch(EventBatch<DisruptorDataEvent> batch) throws Exception {
+        logger.info("{} events [{}, {}]: {}", batch.size(), batch.getFirstSequence(), batch.getLastSequence(),
+                batch.getEvents());
     }
 }
@@ -18,13 +18,13 @@ package com.aeolus.disruptor.test;
 
 import com.aeolus.disruptor.annotation.EventRule;
 import com.aeolus.disruptor.context.event.DisruptorDataEvent;
-import com.aeolus.disruptor.context.handler.DisruptorHandler;
+import com.aeolus.disruptor.context.handler.BlockingDisruptorHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 @EventRule(rule = "/app/a/**", value = "smsEndpoint")
-public class SmsEndpoint implements DisruptorHandler<DisruptorDataEvent> {
+public class SmsEndpoint implements BlockingDisruptorHandler<DisruptorDataEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(SmsEndpoint.class);
 
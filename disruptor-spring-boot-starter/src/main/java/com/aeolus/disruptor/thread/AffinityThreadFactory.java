@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.thread;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 绑定CPU的线程创建工厂类，包装另一个线程工厂，新线程启动时先绑定CPU再执行任务.
+ *
+ * <pre>
+ * 1. 独占模式：第 n 个线程绑定CPU列表中的第 n % size 个CPU，适合 isolcpus 隔离出来的CPU核
+ * 2. 共享模式：所有线程绑定整个CPU列表，由内核在列表内调度
+ * </pre>
+ *
+ * <p>不支持绑定CPU时线程照常运行，见{@link ThreadAffinity}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public class AffinityThreadFactory implements ThreadFactory {
+
+    /** 被包装的线程工厂 */
+    private final ThreadFactory delegate;
+    /** CPU列表 */
+    private final String cpus;
+    /** 解析后的CPU编号 */
+    private final int[] cpuIds;
+    /** 是否每个线程独占一个CPU */
+    private final boolean exclusive;
+    /** 线程序号 */
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    /** 实际的CPU分布: key-thread name */
+    private final Map<String, String> placements = Collections.synchronizedMap(new LinkedHashMap<>());
+
+
+    /**
+     * 构造方法
+     *
+     * @param delegate 被包装的线程工厂
+     * @param cpus CPU列表，格式同 {@code taskset -c}，例如 {@code 2-5,8}
+     * @param exclusive 是否每个线程独占一个CPU
+     * @throws IllegalArgumentException CPU列表格式错误
+     */
+    public AffinityThreadFactory(ThreadFactory delegate, String cpus, boolean exclusive) {
+        this.delegate = delegate;
+        this.cpus = cpus;
+        this.cpuIds = ThreadAffinity.parseCpuList(cpus);
+        this.exclusive = exclusive;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        final String target = exclusive
+                ? String.valueOf(cpuIds[threadIndex.getAndIncrement() % cpuIds.length]) : cpus;
+        return delegate.newThread(() -> {
+            String placement = ThreadAffinity.pinCurrentThread(target);
+            placements.put(Thread.currentThread().getName(), placement == null ? "unpinned" : placement);
+            runnable.run();
+        });
+    }
+
+    /**
+     * 返回已启动线程实际的CPU分布，未能绑定的线程为 {@code unpinned}.
+     *
+     * @return key-thread name; value-cpu list
+     */
+    public Map<String, String> getPlacements() {
+        synchronized (placements) {
+            return new LinkedHashMap<>(placements);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AffinityThreadFactory{" +
+                "cpus='" + cpus + '\'' +
+                ", exclusive=" + exclusive +
+                ", placements=" + getPlacements() +
+                '}';
+    }
+}
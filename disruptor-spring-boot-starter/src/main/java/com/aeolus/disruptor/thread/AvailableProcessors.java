@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.disruptor.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 可用CPU数量.
+ *
+ * <p>在{@link Runtime#availableProcessors()}的基础上再按容器的 cgroup CPU 配额取整，
+ * 旧版本 JDK 不感知容器配额，会把宿主机的CPU数量当作可用数量.
+ * 依次读取 cgroup v2 的 {@code cpu.max} 和 cgroup v1 的 {@code cpu.cfs_quota_us}、{@code cpu.cfs_period_us}，
+ * 读取失败或没有配额时只使用{@link Runtime#availableProcessors()}.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+public final class AvailableProcessors {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailableProcessors.class);
+
+    private static final Path CGROUP_V2_CPU_MAX = Paths.get("/sys/fs/cgroup/cpu.max");
+
+    private static final Path[] CGROUP_V1_CPU = {
+            Paths.get("/sys/fs/cgroup/cpu"),
+            Paths.get("/sys/fs/cgroup/cpu,cpuacct")
+    };
+
+    private static volatile int processors;
+
+
+    private AvailableProcessors() {
+    }
+
+    /**
+     * 返回可用CPU数量，至少为1. 结果只计算一次.
+     *
+     * @return 可用CPU数量
+     */
+    public static int get() {
+        int n = processors;
+        if (n == 0) {
+            n = compute();
+            processors = n;
+        }
+        return n;
+    }
+
+    private static int compute() {
+        int available = Runtime.getRuntime().availableProcessors();
+        int quota = cgroupQuota();
+        if (quota > 0 && quota < available) {
+            LOG.info("Available processors limited by cgroup cpu quota: {} -> {}", available, quota);
+            return quota;
+        }
+        return Math.max(1, available);
+    }
+
+    /**
+     * 读取 cgroup CPU 配额，向上取整.
+     *
+     * @return CPU 配额，没有配额时返回 -1
+     */
+    static int cgroupQuota() {
+        try {
+            if (Files.isReadable(CGROUP_V2_CPU_MAX)) {
+                // 格式为 "$MAX $PERIOD"，没有配额时 $MAX 为 "max"
+                String[] values = read(CGROUP_V2_CPU_MAX).split("\\s+");
+                if (values.length == 2 && !"max".equals(values[0])) {
+                    return quota(Long.parseLong(values[0]), Long.parseLong(values[1]));
+                }
+                return -1;
+            }
+            for (Path dir : CGROUP_V1_CPU) {
+                Path quota = dir.resolve("cpu.cfs_quota_us");
+                Path period = dir.resolve("cpu.cfs_period_us");
+                if (Files.isReadable(quota) && Files.isReadable(period)) {
+                    return quota(Long.parseLong(read(quota)), Long.parseLong(read(period)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Failed to read cgroup cpu quota.", e);
+        }
+        return -1;
+    }
+
+    private static int quota(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return -1;
+        }
+        return (int) Math.max(1, (quota + period - 1) / period);
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.aeolus.disruptor.thread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程CPU亲和性.
+ *
+ * <p>JDK 没有设置线程CPU亲和性的接口，这里在 Linux 上通过 {@code /proc/thread-self} 取得当前线程的内核线程号，
+ * 再调用 {@code taskset -p -c} 绑定CPU，绑定后读取 {@code /proc/thread-self/status} 的
+ * {@code Cpus_allowed_list} 作为实际的CPU分布. 配合内核参数 {@code isolcpus} 可以让消费者线程独占隔离的CPU核.
+ *
+ * <p>非 Linux 系统、内核不提供 {@code /proc/thread-self}（3.17 以下）、找不到 {@code taskset} 或绑定失败时
+ * 只记录一次警告，线程照常运行，不做绑定.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ * @see AffinityThreadFactory
+ */
+public final class ThreadAffinity {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadAffinity.class);
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+
+    private static final String[] TASKSET = {"/usr/bin/taskset", "/bin/taskset", "/usr/local/bin/taskset"};
+
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+    /** 绑定命令超时时间（秒） */
+    private static final long TASKSET_TIMEOUT_SECONDS = 5;
+
+    private static volatile String taskset;
+
+    private static volatile boolean unsupported;
+
+    private static volatile boolean failureWarned;
+
+
+    private ThreadAffinity() {
+    }
+
+    /**
+     * 是否支持绑定CPU. 结果只计算一次.
+     *
+     * @return 是否支持
+     */
+    public static boolean isSupported() {
+        if (taskset != null) {
+            return true;
+        }
+        if (unsupported) {
+            return false;
+        }
+        synchronized (ThreadAffinity.class) {
+            if (taskset == null && !unsupported) {
+                String os = System.getProperty("os.name", "");
+                if (os.toLowerCase().startsWith("linux") && Files.isReadable(THREAD_SELF)) {
+                    for (String candidate : TASKSET) {
+                        if (Files.isExecutable(Paths.get(candidate))) {
+                            taskset = candidate;
+                            break;
+                        }
+                    }
+                }
+                if (taskset == null) {
+                    unsupported = true;
+                    LOG.warn("Thread affinity is not supported on {}, threads run without CPU pinning: " +
+                            "requires Linux with /proc/thread-self and taskset.", os);
+                }
+            }
+        }
+        return taskset != null;
+    }
+
+    /**
+     * 将当前线程绑定到指定的CPU.
+     *
+     * @param cpus CPU列表，格式同 {@code taskset -c}，例如 {@code 2-5,8}
+     * @return 绑定后的实际CPU分布；不支持或绑定失败时返回 {@code null}
+     */
+    public static String pinCurrentThread(String cpus) {
+        if (!isSupported()) {
+            return null;
+        }
+        String tid = currentThreadId();
+        if (tid == null) {
+            return null;
+        }
+        Process process = null;
+        try {
+            process = new ProcessBuilder(taskset, "-p", "-c", cpus, tid).redirectErrorStream(true).start();
+            String output = read(process);
+            if (!process.waitFor(TASKSET_TIMEOUT_SECONDS, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                warnFailure(cpus, output.trim());
+                return null;
+            }
+        } catch (IOException e) {
+            warnFailure(cpus, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+        String placement = currentPlacement();
+        LOG.info("Thread '{}' (tid {}) pinned to cpus {}, requested {}.",
+                Thread.currentThread().getName(), tid, placement, cpus);
+        return placement;
+    }
+
+    /**
+     * 返回当前线程允许运行的CPU列表.
+     *
+     * @return CPU列表，例如 {@code 0-3}；读取失败时返回 {@code null}
+     */
+    public static String currentPlacement() {
+        try {
+            for (String line : Files.readAllLines(THREAD_SELF.resolve("status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                    return line.substring(CPUS_ALLOWED_LIST.length()).trim();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Failed to read cpus allowed list: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 解析CPU列表.
+     *
+     * @param cpus CPU列表，格式同 {@code taskset -c}，例如 {@code 2-5,8}
+     * @return 升序排列、去重后的CPU编号
+     * @throws IllegalArgumentException CPU列表格式错误
+     */
+    public static int[] parseCpuList(String cpus) {
+        TreeSet<Integer> result = new TreeSet<>();
+        for (String part : cpus.split(",")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+            try {
+                int dash = range.indexOf('-');
+                int from = Integer.parseInt((dash < 0 ? range : range.substring(0, dash)).trim());
+                int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+                if (from < 0 || to < from) {
+                    throw new IllegalArgumentException("Invalid cpu range '" + range + "' in cpu list: " + cpus);
+                }
+                for (int cpu = from; cpu <= to; cpu++) {
+                    result.add(cpu);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cpu range '" + range + "' in cpu list: " + cpus, e);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Empty cpu list: " + cpus);
+        }
+        List<Integer> sorted = new ArrayList<>(result);
+        int[] array = new int[sorted.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = sorted.get(i);
+        }
+        return array;
+    }
+
+    private static String currentThreadId() {
+        try {
+            // /proc/thread-self -> <pid>/task/<tid>
+            Path target = Files.readSymbolicLink(THREAD_SELF);
+            return target.getFileName().toString();
+        } catch (IOException | RuntimeException e) {
+            warnFailure("?", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String read(Process process) throws IOException {
+        StringBuilder output = new StringBuilder();
+        byte[] buffer = new byte[256];
+        int n;
+        while ((n = process.getInputStream().read(buffer)) > 0) {
+            output.append(new String(buffer, 0, n, StandardCharsets.US_ASCII));
+        }
+        return output.toString();
+    }
+
+    private static void warnFailure(String cpus, String reason) {
+        if (!failureWarned) {
+            failureWarned = true;
+            LOG.warn("Failed to pin thread '{}' to cpus {}, threads run without CPU pinning: {}",
+                    Thread.currentThread().getName(), cpus, reason);
+        } else {
+            LOG.debug("Failed to pin thread '{}' to cpus {}: {}", Thread.currentThread().getName(), cpus, reason);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021 zhang liang<zhangliang0231@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.aeolus.test;
+
+import com.aeolus.disruptor.context.config.WaitStrategyDefinition;
+import com.aeolus.disruptor.context.waitstrategy.WaitStrategyType;
+import com.aeolus.disruptor.context.waitstrategy.WaitStrategys;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import com.lmax.disruptor.util.ThreadHints;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 等待策略对比.
+ *
+ * <p>{@code latency}：发布一个事件并等待消费者处理完成，{@code idleTokens} 模拟两次发布之间的空闲时间，
+ * 衡量消费者从等待中醒来的延迟；{@code burst}：一次发布 256 个事件，衡量突发流量下的吞吐.
+ * 运行前确保CPU数量多于消费者与生产者线程数，否则 busy-spin 的结果没有意义.
+ *
+ * @author <a href="mailto:zhangliang0231@gmail.com">zhang liang</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitStrategyBenchmark {
+
+    private static final int BURST = 256;
+
+    @Param({"blocking", "sleeping", "yielding", "busy-spin", "lite-blocking", "phased-backoff", "adaptive"})
+    public String strategy;
+
+    @Param({"0", "5000"})
+    public int idleTokens;
+
+    private Disruptor<ValueEvent> disruptor;
+
+    private RingBuffer<ValueEvent> ringBuffer;
+
+    private final Sequence consumed = new Sequence(-1L);
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WaitStrategyType type = WaitStrategyType.valueOf(strategy.toUpperCase().replace('-', '_'));
+        WaitStrategy waitStrategy = WaitStrategys.newWaitStrategy(new WaitStrategyDefinition().setType(type));
+        disruptor = new Disruptor<>(ValueEvent::new, 1024, DaemonThreadFactory.INSTANCE,
+                ProducerType.SINGLE, waitStrategy);
+        disruptor.handleEventsWith((event, sequence, endOfBatch) -> consumed.set(sequence));
+        ringBuffer = disruptor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        disruptor.halt();
+    }
+
+    @Benchmark
+    public long latency() {
+        Blackhole.consumeCPU(idleTokens);
+        long sequence = ringBuffer.next();
+        ringBuffer.get(sequence).value = sequence;
+        ringBuffer.publish(sequence);
+        return awaitConsumed(sequence);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long burst() {
+        Blackhole.consumeCPU(idleTokens);
+        long hi = ringBuffer.next(BURST);
+        long lo = hi - BURST + 1;
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            ringBuffer.get(sequence).value = sequence;
+        }
+        ringBuffer.publish(lo, hi);
+        return awaitConsumed(hi);
+    }
+
+    private long awaitConsumed(long sequence) {
+        long value;
+        while ((value = consumed.get()) < sequence) {
+            ThreadHints.onSpinWait();
+        }
+        return value;
+    }
+
+
+    public static final class ValueEvent {
+        long value;
+    }
+
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(WaitStrategyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}